@@ -0,0 +1,230 @@
+package noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link RowKernel} that evaluates as many samples per instruction as the
+ * preferred vector shape holds doubles. The corner hashes are gathered with
+ * scalar code (reused while samples share a lattice cell); fade curves,
+ * gradients and interpolation then run lane-parallel. Gradients are dot
+ * products with directions looked up from {@link NoiseGenerator#GX},
+ * {@link NoiseGenerator#GY} and {@link NoiseGenerator#GZ} instead of the
+ * branches of {@link NoiseGenerator#smoothNoise(double, double, double)}, and
+ * are blended in the same order, so each sample equals the per-point result.
+ * <br/>
+ * Needs the incubating {@code jdk.incubator.vector} module at compile and run
+ * time, so it lives in the separate source root {@code src-vector} and is left
+ * out of a plain build of {@code src}. To include it, compile both roots with
+ * {@code javac --add-modules jdk.incubator.vector} and run with
+ * {@code java --add-modules jdk.incubator.vector}. {@link NoiseGenerator}
+ * loads this class reflectively and falls back to its scalar kernel without it.
+ *
+ * @see NoiseGenerator#isVectorAvailable()
+ * @since 1.1
+ */
+final class VectorRowKernel implements RowKernel {
+
+	/**
+	 * The double lanes evaluated together.
+	 * @since 1.1
+	 */
+	private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * The per-thread gradient directions and gradients of a row's corners,
+	 * eight runs of its width each.
+	 * @since 1.1
+	 */
+	private static final class Scratch {
+		double[] gx = new double[0], gy = new double[0], gz = new double[0];
+		double[] gradients = new double[0];
+		final int[] hash = new int[8];
+	}
+
+	/**
+	 * The scratch space of each thread filling rows.
+	 * @since 1.1
+	 */
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	/**
+	 * Creates the kernel.
+	 * @throws UnsupportedOperationException if the platform has no vector lanes
+	 * to spare
+	 * @since 1.1
+	 */
+	VectorRowKernel() {
+		if (D.length() < 2) {
+			throw new UnsupportedOperationException("No SIMD lanes for doubles: " + D);
+		}
+	}
+
+	/**
+	 * Works in three passes so that each vector loop stays small enough for the
+	 * JIT to inline, since vectors passed to a call that is not inlined get
+	 * boxed: the corner hashes are gathered, each corner's gradients are
+	 * evaluated, then the gradients are faded and blended into the row.
+	 */
+	@Override
+	public void addOctave(int[] p, double[] out, int offset, int width, int[] Xs, double[] xs, double[] us, int Y,
+			double y, double v, int Z, double z, double w, double size) {
+		int corners = w != 0 ? 8 : 4;
+		Scratch s = scratch.get();
+		if (s.gradients.length < 8 * width) {
+			s.gx = new double[8 * width];
+			s.gy = new double[8 * width];
+			s.gz = new double[8 * width];
+			s.gradients = new double[8 * width];
+		}
+		double[] gx = s.gx, gy = s.gy, gz = s.gz;
+		double[] g = s.gradients;
+
+		int lastX = -1;
+		int[] hash = s.hash;
+		for (int i = 0; i < width; i++) {
+			int X = Xs[i];
+			if (X != lastX) {
+				int A = p[X] + Y;
+				int AA = p[A] + Z;
+				int AB = p[A + 1] + Z;
+				int B = p[X + 1] + Y;
+				int BA = p[B] + Z;
+				int BB = p[B + 1] + Z;
+				hash[0] = p[AA] & 15;
+				hash[1] = p[BA] & 15;
+				hash[2] = p[AB] & 15;
+				hash[3] = p[BB] & 15;
+				hash[4] = p[AA + 1] & 15;
+				hash[5] = p[BA + 1] & 15;
+				hash[6] = p[AB + 1] & 15;
+				hash[7] = p[BB + 1] & 15;
+				lastX = X;
+			}
+			for (int c = 0, run = i; c < corners; c++, run += width) {
+				gx[run] = NoiseGenerator.GX[hash[c]];
+				gy[run] = NoiseGenerator.GY[hash[c]];
+				gz[run] = NoiseGenerator.GZ[hash[c]];
+			}
+		}
+
+		// corner c lies at x + (c & 1), y + (c >> 1 & 1), z + (c >> 2)
+		for (int c = 0; c < corners; c++) {
+			gradients(gx, gy, gz, g, c * width, width, xs, (c & 1) != 0, (c >> 1 & 1) == 0 ? y : y - 1,
+					(c >> 2) == 0 ? z : z - 1);
+		}
+
+		if (corners == 4) {
+			blendNear(g, out, offset, width, xs, v, size);
+		} else {
+			blendAll(g, out, offset, width, xs, v, w, size);
+		}
+	}
+
+	/**
+	 * Evaluates the gradients of one corner for every sample of a row as dot
+	 * products with the gathered directions. Each direction has two components
+	 * of {@code ±1} and one of {@code 0}, so the products are exact and the sum
+	 * rounds like the branches of {@link NoiseGenerator#smoothNoise(double, double, double)}.
+	 * @since 1.1
+	 */
+	private static void gradients(double[] gx, double[] gy, double[] gz, double[] g, int run, int width,
+			double[] xs, boolean right, double y, double z) {
+		DoubleVector yv = DoubleVector.broadcast(D, y);
+		DoubleVector zv = DoubleVector.broadcast(D, z);
+		int bound = D.loopBound(width);
+		int i = 0;
+		for (; i < bound; i += D.length()) {
+			DoubleVector x = DoubleVector.fromArray(D, xs, i);
+			if (right) {
+				x = x.sub(1);
+			}
+			DoubleVector.fromArray(D, gx, run + i).mul(x)
+					.add(DoubleVector.fromArray(D, gy, run + i).mul(yv))
+					.add(DoubleVector.fromArray(D, gz, run + i).mul(zv))
+					.intoArray(g, run + i);
+		}
+		for (; i < width; i++) {
+			double x = right ? xs[i] - 1 : xs[i];
+			g[run + i] = gx[run + i] * x + gy[run + i] * y + gz[run + i] * z;
+		}
+	}
+
+	/**
+	 * Blends the four near corners of each sample into the row. The fade and
+	 * interpolation are written out rather than called, as calls the JIT
+	 * declines to inline would box the vectors.
+	 * @since 1.1
+	 */
+	private static void blendNear(double[] g, double[] out, int offset, int width, double[] xs, double v,
+			double size) {
+		int bound = D.loopBound(width);
+		int i = 0;
+		for (; i < bound; i += D.length()) {
+			DoubleVector x = DoubleVector.fromArray(D, xs, i);
+			DoubleVector u = x.mul(x).mul(x).mul(x.mul(x.mul(6).sub(15)).add(10));
+			DoubleVector g0 = DoubleVector.fromArray(D, g, i);
+			DoubleVector g2 = DoubleVector.fromArray(D, g, 2 * width + i);
+			DoubleVector a = g0.add(u.mul(DoubleVector.fromArray(D, g, width + i).sub(g0)));
+			DoubleVector b = g2.add(u.mul(DoubleVector.fromArray(D, g, 3 * width + i).sub(g2)));
+			DoubleVector n = a.add(b.sub(a).mul(v));
+			DoubleVector.fromArray(D, out, offset + i).add(n.mul(size)).intoArray(out, offset + i);
+		}
+		for (; i < width; i++) {
+			double u = fade(xs[i]);
+			double n = lerp(v, lerp(u, g[i], g[width + i]), lerp(u, g[2 * width + i], g[3 * width + i]));
+			out[offset + i] += n * size;
+		}
+	}
+
+	/**
+	 * Blends all eight corners of each sample into the row, first the far four
+	 * into the gradients of corner 4, then the near four and the far result
+	 * into the row.
+	 * @since 1.1
+	 */
+	private static void blendAll(double[] g, double[] out, int offset, int width, double[] xs, double v, double w,
+			double size) {
+		int bound = D.loopBound(width);
+		int i = 0;
+		for (; i < bound; i += D.length()) {
+			DoubleVector x = DoubleVector.fromArray(D, xs, i);
+			DoubleVector u = x.mul(x).mul(x).mul(x.mul(x.mul(6).sub(15)).add(10));
+			DoubleVector g4 = DoubleVector.fromArray(D, g, 4 * width + i);
+			DoubleVector g6 = DoubleVector.fromArray(D, g, 6 * width + i);
+			DoubleVector a = g4.add(u.mul(DoubleVector.fromArray(D, g, 5 * width + i).sub(g4)));
+			DoubleVector b = g6.add(u.mul(DoubleVector.fromArray(D, g, 7 * width + i).sub(g6)));
+			a.add(b.sub(a).mul(v)).intoArray(g, 4 * width + i);
+		}
+		for (; i < width; i++) {
+			double u = fade(xs[i]);
+			g[4 * width + i] = lerp(v, lerp(u, g[4 * width + i], g[5 * width + i]),
+					lerp(u, g[6 * width + i], g[7 * width + i]));
+		}
+		i = 0;
+		for (; i < bound; i += D.length()) {
+			DoubleVector x = DoubleVector.fromArray(D, xs, i);
+			DoubleVector u = x.mul(x).mul(x).mul(x.mul(x.mul(6).sub(15)).add(10));
+			DoubleVector g0 = DoubleVector.fromArray(D, g, i);
+			DoubleVector g2 = DoubleVector.fromArray(D, g, 2 * width + i);
+			DoubleVector a = g0.add(u.mul(DoubleVector.fromArray(D, g, width + i).sub(g0)));
+			DoubleVector b = g2.add(u.mul(DoubleVector.fromArray(D, g, 3 * width + i).sub(g2)));
+			DoubleVector near = a.add(b.sub(a).mul(v));
+			DoubleVector n = near.add(DoubleVector.fromArray(D, g, 4 * width + i).sub(near).mul(w));
+			DoubleVector.fromArray(D, out, offset + i).add(n.mul(size)).intoArray(out, offset + i);
+		}
+		for (; i < width; i++) {
+			double u = fade(xs[i]);
+			double near = lerp(v, lerp(u, g[i], g[width + i]), lerp(u, g[2 * width + i], g[3 * width + i]));
+			out[offset + i] += lerp(w, near, g[4 * width + i]) * size;
+		}
+	}
+
+	private static double fade(double t) {
+		return t * t * t * (t * (t * 6 - 15) + 10);
+	}
+
+	private static double lerp(double t, double a, double b) {
+		return a + t * (b - a);
+	}
+}
@@ -1,8 +1,13 @@
 package animation;
 
+import java.awt.Canvas;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.LayoutManager;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
@@ -18,10 +23,54 @@ public abstract class Animation extends JPanel  implements Animated {
 	private static final long serialVersionUID = -5288955862125670480L;
 
 	/**
-	 * A lock object for synchronization.
-	 * @since 1.0
+	 * The ways an {@code Animation} can pace its updates.
+	 * @see Animation#setLoopMode(LoopMode)
+	 * @since 1.1
 	 */
-	private final Object lock = new Object();
+	public enum LoopMode {
+		/**
+		 * Sleeps for the frame duration, then updates once. Simulation speed
+		 * follows the scheduler's accuracy.
+		 * @since 1.1
+		 */
+		SLEEP,
+
+		/**
+		 * Updates on a fixed timestep against {@link System#nanoTime()} deadlines,
+		 * catching up with several updates when behind, and renders with an
+		 * interpolation alpha.
+		 * @see Animation#render(Graphics2D, double)
+		 * @since 1.1
+		 */
+		FIXED_TIMESTEP
+	}
+
+	/**
+	 * The time before a deadline that the fixed timestep loop stops parking and
+	 * spins instead, since parking tends to overshoot.
+	 * @since 1.1
+	 */
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+	/**
+	 * The thread running the loop of this {@code Animation}, unparked to notice
+	 * {@link #stop()} and {@link #resume()} early.
+	 * @since 1.1
+	 */
+	private volatile Thread loopThread;
+
+	/**
+	 * Notified when this {@code Animation} is resumed while driven by an
+	 * {@link AnimationScheduler} instead of a loop thread, or {@code null}.
+	 * @since 1.1
+	 */
+	private volatile Runnable resumeListener;
+
+	/**
+	 * The way this {@code Animation} paces its updates.
+	 * @since 1.1
+	 */
+	private volatile LoopMode loopMode = LoopMode.SLEEP;
 
 	/**
 	 * Determines if this {@code Animation} is running. <br/>
@@ -42,13 +91,85 @@ public abstract class Animation extends JPanel  implements Animated {
 	
 	/**
 	 * The duration in milliseconds this {@code Animation} will sleep
-	 * for per render. 
+	 * for per render in {@link LoopMode#SLEEP}.
 	 * <br/>
 	 * Defaulted to aim for 60fps.
 	 * @see #render(Graphics2D)
 	 * @since 1.0
 	 */
-	private long sleep_duration = (long) 16.67; 
+	private volatile long sleep_duration = (long) 16.67;
+
+	/**
+	 * The duration in nanoseconds of one update in {@link LoopMode#FIXED_TIMESTEP}.
+	 * <br/>
+	 * Defaulted to aim for 60fps.
+	 * @since 1.1
+	 */
+	private volatile long step_duration = 1_000_000_000L / 60;
+
+	/**
+	 * The most updates the fixed timestep loop runs before rendering. When it
+	 * is still behind after that, the remaining updates are dropped rather
+	 * than letting the backlog grow.
+	 * @since 1.1
+	 */
+	private volatile int maxUpdatesPerFrame = 5;
+
+	/**
+	 * The amount of updates run by the loop, the clock of this
+	 * {@code Animation}.
+	 * @since 1.1
+	 */
+	private volatile long updateCount;
+
+	/**
+	 * The amount of updates dropped by the fixed timestep loop.
+	 * @see #maxUpdatesPerFrame
+	 * @since 1.1
+	 */
+	private volatile long droppedUpdates;
+
+	/**
+	 * The fraction of a timestep elapsed between the latest update and the
+	 * current render. Always {@code 0} in {@link LoopMode#SLEEP}.
+	 * @see #render(Graphics2D, double)
+	 * @since 1.1
+	 */
+	private volatile double alpha;
+
+	/**
+	 * The simulation advanced by each {@link #update()}, or {@code null}.
+	 * @since 1.1
+	 */
+	private volatile Simulation simulation;
+
+	/**
+	 * Receives a snapshot of the simulation before each frame is shown, or
+	 * {@code null}.
+	 * @see #setSnapshotBuffer(SnapshotBuffer)
+	 * @since 1.1
+	 */
+	private volatile SnapshotBuffer snapshots;
+
+	/**
+	 * The time spent in each phase of the frames of this {@code Animation}.
+	 * @since 1.1
+	 */
+	private final FrameMetrics metrics = new FrameMetrics(this);
+
+	/**
+	 * Repaints this {@code Animation}. Kept to avoid creating a new task per frame.
+	 * @since 1.1
+	 */
+	private final Runnable repaintTask = this::repaint;
+
+	/**
+	 * The canvas rendered onto directly by the animation thread, or
+	 * {@code null} to repaint through Swing.
+	 * @see #setCanvas(Canvas)
+	 * @since 1.1
+	 */
+	private volatile Canvas canvas;
 
 	/**
 	 * The frames per second value of this {@value Animation}.
@@ -118,10 +239,27 @@ public abstract class Animation extends JPanel  implements Animated {
 	 */
 	public abstract void render(Graphics2D g);
 
+	/**
+	 * Renders a frame of animation onto the specified {@code Graphics2D} object,
+	 * {@code alpha} of a timestep after the latest update. Animations that keep
+	 * their previous state can blend towards the current one for smooth motion.
+	 * By default the alpha is ignored.
+	 *
+	 * @param g - the specified {@code Graphics2D} object.
+	 * @param alpha - the elapsed fraction of a timestep, in {@code [0, 1)}
+	 * @see LoopMode#FIXED_TIMESTEP
+	 * @since 1.1
+	 */
+	public void render(Graphics2D g, double alpha) {
+		render(g);
+	}
+
 	
 	/**
-	 * Updates animation parameters and state.
+	 * Updates animation parameters and state, then steps the simulation if
+	 * one is set.
 	 * 
+	 * @see #setSimulation(Simulation)
 	 * @since 1.0
 	 */
 	public void update() {
@@ -135,45 +273,349 @@ public abstract class Animation extends JPanel  implements Animated {
 			frames = 0;
 			previousTime = current;
 		}
+
+		Simulation simulation = this.simulation;
+		if (simulation != null) {
+			simulation.step();
+		}
+	}
+
+	/**
+	 * Sets the simulation this {@code Animation} shows. Each {@link #update()}
+	 * then advances it by one step.
+	 * @param simulation - the specified simulation, or {@code null} for none
+	 * @since 1.1
+	 */
+	public void setSimulation(Simulation simulation) {
+		this.simulation = simulation;
+	}
+
+	/**
+	 * @return the simulation this {@code Animation} shows, or {@code null}
+	 * @since 1.1
+	 */
+	public Simulation getSimulation() {
+		return simulation;
 	}
 
+	/**
+	 * Renders a frame when Swing paints this panel, unless a canvas is set:
+	 * then frames are rendered by the animation thread alone, and rendering
+	 * here as well, such as when the window is first shown, resized or
+	 * exposed, would run the render path on two threads at once.
+	 */
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		render((Graphics2D) g);
+		if (canvas != null) {
+			return;
+		}
+		long start = metrics.renderStarting();
+		render((Graphics2D) g, alpha);
+		metrics.rendered(start);
 		frames++;
 	}
 	
 	@Override
 	public void stop() {
-		synchronized (lock) {
-			running = false;
-		}
+		running = false;
+		LockSupport.unpark(loopThread);
 	}
 
 	@Override
 	public void run() {
+		loopThread = Thread.currentThread();
+		resumeListener = null;
 		running = true;
+		if (loopMode == LoopMode.FIXED_TIMESTEP) {
+			runFixedTimestep();
+		} else {
+			runSleep();
+		}
+	}
+
+	/**
+	 * Sleeps for {@link #sleep_duration}, then updates once.
+	 * @since 1.1
+	 */
+	private void runSleep() {
 		while (running) {
-			synchronized (lock) {
-				try {
-					if (paused && running) {
-						while (paused && running) {
-							lock.wait();
-						}
-					} else {
-						Thread.sleep(sleep_duration); // hopefully 60fps
-					}
-				} catch (InterruptedException ex) {
-					Thread.currentThread().interrupt();
+			if (paused) {
+				awaitResume();
+			} else {
+				long start = System.nanoTime();
+				parkUntil(start + TimeUnit.MILLISECONDS.toNanos(sleep_duration)); // hopefully 60fps
+				metrics.waited(System.nanoTime() - start);
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			if (running && !paused) {
+				frame();
+			}
+		}
+	}
+
+	/**
+	 * Updates once, then shows the frame.
+	 * @since 1.1
+	 */
+	private void frame() {
+		long start = System.nanoTime();
+		update();
+		long end = System.nanoTime();
+		metrics.updated(end - start);
+		updateCount++;
+		publish();
+		metrics.presented(end);
+		present();
+	}
+
+	/**
+	 * Updates every {@link #step_duration} nanoseconds, then renders.
+	 * @since 1.1
+	 */
+	private void runFixedTimestep() {
+		long step = step_duration;
+		long next = System.nanoTime(); // deadline of the next update
+		while (running) {
+			if (paused) {
+				awaitResume();
+				if (Thread.currentThread().isInterrupted()) {
 					return;
 				}
-				if(running) {
-					update();
-					SwingUtilities.invokeLater(this::repaint);
-				}
+				step = step_duration;
+				next = System.nanoTime();
+				continue;
 			}
+			next = advance(System.nanoTime(), next, step);
+			long start = System.nanoTime();
+			parkUntil(next);
+			metrics.waited(System.nanoTime() - start);
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			if (step != step_duration) { // setFPS was called
+				next += step_duration - step;
+				step = step_duration;
+			}
+		}
+	}
+
+	/**
+	 * Runs the updates due by the specified time, at most
+	 * {@link #maxUpdatesPerFrame}, then shows the frame if any ran.
+	 * @param now - the current {@link System#nanoTime()}
+	 * @param next - the deadline of the next update
+	 * @param step - the duration of one timestep
+	 * @return the deadline of the next update after these
+	 * @since 1.1
+	 */
+	private long advance(long now, long next, long step) {
+		int updates = 0;
+		while (now - next >= 0 && updates < maxUpdatesPerFrame && running) {
+			long start = System.nanoTime();
+			update();
+			metrics.updated(System.nanoTime() - start);
+			updateCount++;
+			next += step;
+			updates++;
+		}
+		if (now - next >= 0) { // still behind, give up on the backlog
+			long behind = (now - next) / step + 1;
+			droppedUpdates += behind;
+			next += behind * step;
+		}
+		alpha = Math.min(1.0, Math.max(0.0, (double) (now - next + step) / step));
+		if (updates > 0) {
+			publish();
+			metrics.presented(System.nanoTime());
+			present();
 		}
+		return next;
+	}
+
+	/**
+	 * Marks this {@code Animation} as running without a loop thread of its
+	 * own, for an {@link AnimationScheduler} to {@link #tick(long) tick}.
+	 * @param resumeListener - notified when the animation is resumed
+	 * @since 1.1
+	 */
+	void attach(Runnable resumeListener) {
+		this.resumeListener = resumeListener;
+		loopThread = null;
+		running = true;
+	}
+
+	/**
+	 * Runs one iteration of the loop without waiting: the updates due by now
+	 * in {@link LoopMode#FIXED_TIMESTEP}, or a single one in
+	 * {@link LoopMode#SLEEP}, then shows the frame. Like the loop, the sleep
+	 * mode waits a whole frame duration after each update.
+	 * @param next - the deadline of this iteration
+	 * @return the deadline of the next iteration
+	 * @since 1.1
+	 */
+	long tick(long next) {
+		if (loopMode == LoopMode.FIXED_TIMESTEP) {
+			return advance(System.nanoTime(), next, step_duration);
+		}
+		frame();
+		return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sleep_duration);
+	}
+
+	/**
+	 * Blocks the loop until the specified {@link System#nanoTime()} deadline,
+	 * or until stopped or interrupted. Parks for most of the wait and spins
+	 * through the last {@link #SPIN_NANOS}.
+	 * @param deadline - the specified deadline
+	 * @since 1.1
+	 */
+	private void parkUntil(long deadline) {
+		long remaining;
+		while (running && !Thread.currentThread().isInterrupted()
+				&& (remaining = deadline - System.nanoTime()) > 0) {
+			if (remaining > SPIN_NANOS) {
+				LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+			} else {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	/**
+	 * Blocks the loop while paused, or until stopped or interrupted.
+	 * @since 1.1
+	 */
+	private void awaitResume() {
+		while (paused && running && !Thread.currentThread().isInterrupted()) {
+			LockSupport.park(this);
+		}
+	}
+
+	/**
+	 * Publishes a snapshot of the simulation, if both a simulation and a
+	 * snapshot buffer are set.
+	 * @since 1.1
+	 */
+	private void publish() {
+		SnapshotBuffer snapshots = this.snapshots;
+		Simulation simulation = this.simulation;
+		if (snapshots != null && simulation != null) {
+			simulation.snapshot(snapshots.beginWrite());
+			snapshots.publish();
+		}
+	}
+
+	/**
+	 * @return the time spent in each phase of the frames of this
+	 * {@code Animation}
+	 * @since 1.1
+	 */
+	public FrameMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the buffer that receives a {@link Simulation#snapshot(RenderSnapshot)
+	 * snapshot} of the simulation after the updates of each frame, just before
+	 * it is shown. Rendering from {@link SnapshotBuffer#acquire()} instead of
+	 * the live simulation state never sees a frame half updated, and neither
+	 * thread waits for the other.
+	 * @param snapshots - the specified buffer, or {@code null} for none
+	 * @since 1.1
+	 */
+	public void setSnapshotBuffer(SnapshotBuffer snapshots) {
+		this.snapshots = snapshots;
+	}
+
+	/**
+	 * @return the buffer that receives snapshots of the simulation, or
+	 * {@code null}
+	 * @since 1.1
+	 */
+	public SnapshotBuffer getSnapshotBuffer() {
+		return snapshots;
+	}
+
+	/**
+	 * Shows the frame just updated: renders it right away when a canvas is
+	 * set, otherwise requests that Swing repaint.
+	 * @see #setCanvas(Canvas)
+	 * @since 1.1
+	 */
+	protected void present() {
+		Canvas canvas = this.canvas;
+		if (canvas != null) {
+			renderActive(canvas);
+		} else {
+			SwingUtilities.invokeLater(repaintTask);
+		}
+	}
+
+	/**
+	 * Renders a frame into the back buffer of the specified canvas and shows
+	 * it, repeating while the buffer's contents are lost. The canvas gets a
+	 * double-buffered strategy on first use, which flips pages when the
+	 * platform can and otherwise blits from an accelerated back buffer. Frames
+	 * are skipped while the canvas cannot be shown.
+	 * @since 1.1
+	 */
+	private void renderActive(Canvas canvas) {
+		int width = canvas.getWidth(), height = canvas.getHeight();
+		if (!canvas.isDisplayable() || width <= 0 || height <= 0) {
+			return;
+		}
+		long start = metrics.renderStarting();
+		try {
+			BufferStrategy strategy = canvas.getBufferStrategy();
+			if (strategy == null) {
+				canvas.createBufferStrategy(2);
+				strategy = canvas.getBufferStrategy();
+			}
+			do {
+				do {
+					Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+					try {
+						g.setColor(getBackground());
+						g.fillRect(0, 0, width, height);
+						render(g, alpha);
+					} finally {
+						g.dispose();
+					}
+				} while (strategy.contentsRestored());
+				strategy.show();
+			} while (strategy.contentsLost());
+		} catch (IllegalStateException e) {
+			return; // the canvas lost its peer, such as when its window closed
+		}
+		Toolkit.getDefaultToolkit().sync();
+		metrics.rendered(start);
+		frames++;
+	}
+
+	/**
+	 * Renders every frame onto the specified canvas from the animation
+	 * thread, through the canvas's {@link BufferStrategy}, instead of
+	 * requesting repaints from Swing. Frames are then shown as soon as they
+	 * are updated and {@link #getFPS()} counts every one. The canvas should
+	 * ignore repaints and cover this {@code Animation}, which keeps supplying
+	 * the size and background. {@code null} goes back to passive rendering.
+	 * @param canvas - the specified canvas, or {@code null}
+	 * @see AnimationFrame.RenderMode#ACTIVE
+	 * @since 1.1
+	 */
+	public void setCanvas(Canvas canvas) {
+		this.canvas = canvas;
+	}
+
+	/**
+	 * @return the canvas rendered onto directly, or {@code null} when
+	 * rendering passively through Swing
+	 * @since 1.1
+	 */
+	public Canvas getCanvas() {
+		return canvas;
 	}
 
 	/**
@@ -183,9 +625,7 @@ public abstract class Animation extends JPanel  implements Animated {
 	 * @see #resume()
 	 */
 	public void pause() {
-		synchronized (lock) {
-			paused = true;
-		}
+		paused = true;
 	}
 
 	/**
@@ -195,23 +635,107 @@ public abstract class Animation extends JPanel  implements Animated {
 	 * @see #pause()
 	 */
 	public void resume() {
-		synchronized (lock) {
-			if (!paused) {
-				lock.notifyAll(); // wake all threads
-				paused = false;
+		if (paused) {
+			paused = false;
+			LockSupport.unpark(loopThread);
+			Runnable resumeListener = this.resumeListener;
+			if (resumeListener != null) {
+				resumeListener.run();
 			}
 		}
 	}
-	
+
+	/**
+	 * @return {@code true} if paused; {@code false} if not
+	 * @since 1.1
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * @return {@code true} if running; {@code false} if not
+	 * @since 1.1
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Sets the way this {@code Animation} paces its updates. Takes effect the
+	 * next time the animation is run.
+	 * @param loopMode - the specified mode
+	 * @since 1.1
+	 */
+	public void setLoopMode(LoopMode loopMode) {
+		this.loopMode = loopMode;
+	}
+
+	/**
+	 * @return the way this {@code Animation} paces its updates
+	 * @since 1.1
+	 */
+	public LoopMode getLoopMode() {
+		return loopMode;
+	}
+
+	/**
+	 * Sets the most updates the fixed timestep loop runs before rendering.
+	 * @param maxUpdatesPerFrame - the specified amount, at least 1
+	 * @since 1.1
+	 */
+	public void setMaxUpdatesPerFrame(int maxUpdatesPerFrame) {
+		if (maxUpdatesPerFrame < 1) {
+			throw new IllegalArgumentException("Must update at least once per frame: " + maxUpdatesPerFrame);
+		}
+		this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+	}
+
+	/**
+	 * @return the amount of updates the loop has run, the clock of this
+	 * {@code Animation}
+	 * @since 1.1
+	 */
+	public long getUpdateCount() {
+		return updateCount;
+	}
+
+	/**
+	 * Sets the amount of updates the loop has run, such as when restoring a
+	 * checkpoint.
+	 * @param updateCount - the specified amount
+	 * @since 1.1
+	 */
+	public void setUpdateCount(long updateCount) {
+		this.updateCount = updateCount;
+	}
+
+	/**
+	 * @return the amount of updates dropped by the fixed timestep loop to catch up
+	 * @since 1.1
+	 */
+	public long getDroppedUpdates() {
+		return droppedUpdates;
+	}
+
+	/**
+	 * @return the duration of one fixed timestep in nanoseconds
+	 * @since 1.1
+	 */
+	public long getTimestepNanos() {
+		return step_duration;
+	}
+
 	/**
-	 * Sets the {@link Animation#sleep_duration} to target the specified
-	 * frames per second.
+	 * Sets the {@link Animation#sleep_duration} and the fixed timestep to target
+	 * the specified frames per second.
 	 * @param target_fps - the specified frames per second
 	 * @see #sleep_duration
 	 * @since 1.0
 	 */
 	public void setFPS(int target_fps) {
 		sleep_duration = (long) 1000 / target_fps;
+		step_duration = 1_000_000_000L / target_fps;
 	}
 
 	/**
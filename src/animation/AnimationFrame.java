@@ -3,6 +3,8 @@
  */
 package animation;
 
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.HeadlessException;
 import javax.swing.JFrame;
 
@@ -15,6 +17,29 @@ public class AnimationFrame extends JFrame {
 
 	private static final long serialVersionUID = -3611290876909079204L;
 
+	/**
+	 * The ways an {@code AnimationFrame} can show its animation.
+	 * @since 1.1
+	 */
+	public enum RenderMode {
+		/**
+		 * The animation thread requests repaints, which Swing paints on the
+		 * event dispatch thread when it gets to them, coalescing requests made
+		 * meanwhile.
+		 * @since 1.1
+		 */
+		PASSIVE,
+
+		/**
+		 * The animation thread renders each frame itself onto a {@link Canvas}
+		 * over the animation and shows it through a
+		 * {@link java.awt.image.BufferStrategy}.
+		 * @see Animation#setCanvas(Canvas)
+		 * @since 1.1
+		 */
+		ACTIVE
+	}
+
 	/**
 	 * The animation panel that will be rendered onto this
 	 * {@link java.swing.JFrame}.
@@ -31,6 +56,12 @@ public class AnimationFrame extends JFrame {
 	 */
 	private Thread animationThread;
 
+	/**
+	 * The way the animation is shown once started.
+	 * @since 1.1
+	 */
+	private RenderMode renderMode;
+
 	/**
 	 * Creates a standard animation frame with a {@code width} of {@code 400} and
 	 * height of {@code 400}. Uses a specified name and animation.
@@ -41,8 +72,24 @@ public class AnimationFrame extends JFrame {
 	 * @since 1.0
 	 */
 	public AnimationFrame(String name, Animation animation) {
+		this(name, animation, RenderMode.PASSIVE);
+	}
+
+	/**
+	 * Creates a standard animation frame with a {@code width} of {@code 400}
+	 * and height of {@code 400}. Uses a specified name, animation and render
+	 * mode.
+	 *
+	 * @param name       - name of frame
+	 * @param animation  - the animation displayed on frame
+	 * @param renderMode - the way the animation is shown
+	 * @throws HeadlessException
+	 * @since 1.1
+	 */
+	public AnimationFrame(String name, Animation animation, RenderMode renderMode) {
 		super(name);
 		this.animation = animation;
+		this.renderMode = renderMode;
 	}
 
 	/**
@@ -51,6 +98,7 @@ public class AnimationFrame extends JFrame {
 	 */
 	public void start() {
 		add(this.animation);
+		prepare();
 
 		animationThread = new Thread(animation);
 		animationThread.start();
@@ -63,11 +111,65 @@ public class AnimationFrame extends JFrame {
 	 */
 	public void start(String layout) {
 		add(this.animation, layout);
+		prepare();
 
 		animationThread = new Thread(animation);
 		animationThread.start();
 	}
 
+	/**
+	 * Begins the animation on the specified scheduler instead of a thread of
+	 * its own, for hosting many animations on a few threads.
+	 * @param scheduler - the specified scheduler
+	 * @return the handle of the animation on the scheduler
+	 * @since 1.1
+	 */
+	public AnimationScheduler.Handle start(AnimationScheduler scheduler) {
+		add(this.animation);
+		prepare();
+
+		return scheduler.schedule(animation);
+	}
+
+	/**
+	 * Sets up the animation for the render mode: in
+	 * {@link RenderMode#ACTIVE}, lays a canvas over it to render onto.
+	 * @since 1.1
+	 */
+	private void prepare() {
+		if (renderMode == RenderMode.ACTIVE) {
+			if (animation.getCanvas() != null) {
+				return;
+			}
+			Canvas canvas = new Canvas();
+			canvas.setIgnoreRepaint(true);
+			canvas.setBackground(animation.getBackground());
+			animation.setLayout(new BorderLayout());
+			animation.add(canvas, BorderLayout.CENTER);
+			animation.setCanvas(canvas);
+		} else {
+			animation.setCanvas(null);
+		}
+	}
+
+	/**
+	 * Sets the way the animation is shown. Takes effect the next time the
+	 * frame is started.
+	 * @param renderMode - the specified mode
+	 * @since 1.1
+	 */
+	public void setRenderMode(RenderMode renderMode) {
+		this.renderMode = renderMode;
+	}
+
+	/**
+	 * @return the way the animation is shown
+	 * @since 1.1
+	 */
+	public RenderMode getRenderMode() {
+		return renderMode;
+	}
+
 	/**
 	 * Stops the animation.
 	 * 
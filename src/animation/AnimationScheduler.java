@@ -0,0 +1,297 @@
+package animation;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives any number of {@link Animated} instances from a few shared threads,
+ * instead of a platform thread each sleeping in its own loop.
+ * <br/>
+ * An {@link Animation} is ticked by a timer: each tick runs one iteration of
+ * its loop and schedules the next at the deadline its
+ * {@link Animation#setFPS(int) target FPS} and {@link Animation.LoopMode}
+ * give, so every animation keeps its own pace. Ticks are taken in deadline
+ * order, the earliest first, so a slow animation delays the others by at
+ * most one of its ticks rather than starving them. A paused animation is not
+ * ticked at all until {@link Animation#resume() resumed}, and a stopped one
+ * is dropped. How late each tick started is counted per animation, see
+ * {@link Handle#getLatency()}.
+ * <br/>
+ * Any other {@code Animated} only offers its blocking {@link Animated#run()}
+ * loop, so it runs on a thread of its own: a virtual thread when the runtime
+ * has them, which costs no platform thread while the loop waits, and
+ * otherwise a daemon platform thread.
+ * <pre>
+ * AnimationScheduler scheduler = new AnimationScheduler();
+ * for (Animation animation : animations) {
+ *     scheduler.schedule(animation);
+ * }
+ * </pre>
+ *
+ * @see AnimationFrame#start(AnimationScheduler)
+ * @since 1.1
+ */
+public class AnimationScheduler {
+
+	/**
+	 * Creates virtual threads, or {@code null} when the runtime has none.
+	 * @since 1.1
+	 */
+	private static final ThreadFactory VIRTUAL_THREADS = loadVirtualThreadFactory();
+
+	private static final AtomicInteger SCHEDULERS = new AtomicInteger();
+
+	/**
+	 * An animation driven by an {@code AnimationScheduler}.
+	 * @since 1.1
+	 */
+	public final class Handle {
+
+		private final Animated animated;
+		private final Animation animation;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final AtomicBoolean idle = new AtomicBoolean();
+		private volatile boolean cancelled;
+		private volatile Thread thread;
+		private final Runnable tick = this::tick;
+
+		/**
+		 * The deadline of the next tick, kept by the tick running.
+		 * @since 1.1
+		 */
+		private long next;
+
+		Handle(Animated animated) {
+			this.animated = animated;
+			this.animation = animated instanceof Animation ? (Animation) animated : null;
+		}
+
+		/**
+		 * Runs one tick and schedules the next.
+		 * @since 1.1
+		 */
+		private void tick() {
+			if (cancelled || !animation.isRunning()) {
+				finish();
+				return;
+			}
+			if (animation.isPaused()) {
+				idle.set(true);
+				// resumed before idle was set: nobody else will wake it
+				if (animation.isPaused() || !idle.compareAndSet(true, false)) {
+					return;
+				}
+				next = System.nanoTime();
+			}
+			long now = System.nanoTime();
+			latency.record(now - next);
+			try {
+				next = animation.tick(next);
+			} catch (RuntimeException | Error e) {
+				animation.stop();
+				finish();
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+				return;
+			}
+			schedule(next);
+		}
+
+		/**
+		 * Ticks the animation right away after it was resumed while idle.
+		 * @since 1.1
+		 */
+		private void wake() {
+			if (idle.compareAndSet(true, false)) {
+				next = System.nanoTime();
+				schedule(next);
+			}
+		}
+
+		private void schedule(long deadline) {
+			if (!executor.isShutdown()) {
+				executor.schedule(tick, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+		}
+
+		private void finish() {
+			cancelled = true;
+			handles.remove(this);
+		}
+
+		/**
+		 * Stops driving the animation, without stopping it. An animation with
+		 * a thread of its own is stopped, as that is the only way to end its
+		 * loop.
+		 * @since 1.1
+		 */
+		public void cancel() {
+			finish();
+			Thread thread = this.thread;
+			if (thread != null) {
+				animated.stop();
+			}
+		}
+
+		/**
+		 * @return {@code true} once the animation is no longer driven
+		 * @since 1.1
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * @return the animation driven
+		 * @since 1.1
+		 */
+		public Animated getAnimated() {
+			return animated;
+		}
+
+		/**
+		 * Returns how late each tick started after its deadline. Empty for an
+		 * {@code Animated} on a thread of its own, whose loop keeps its own
+		 * time.
+		 * @return the histogram of tick latencies
+		 * @since 1.1
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		/**
+		 * @return the thread running the loop of the animation, or
+		 * {@code null} if it is ticked by the timer
+		 * @since 1.1
+		 */
+		public Thread getThread() {
+			return thread;
+		}
+	}
+
+	private final ScheduledThreadPoolExecutor executor;
+	private final Set<Handle> handles = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates an {@code AnimationScheduler} with a timer thread per available
+	 * processor.
+	 * @since 1.1
+	 */
+	public AnimationScheduler() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates an {@code AnimationScheduler} with the specified amount of timer
+	 * threads, which tick animations concurrently.
+	 * @param threads - the specified amount, at least {@code 1}
+	 * @since 1.1
+	 */
+	public AnimationScheduler(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+		}
+		int id = SCHEDULERS.incrementAndGet();
+		AtomicInteger count = new AtomicInteger();
+		executor = new ScheduledThreadPoolExecutor(threads, task -> {
+			Thread thread = new Thread(task, "animation-scheduler-" + id + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+	}
+
+	/**
+	 * Starts driving the specified animation, ticked by the timer if it is an
+	 * {@link Animation} and otherwise run on a thread of its own. The
+	 * animation must not be running already.
+	 * @param animated - the specified animation
+	 * @return the handle of the animation
+	 * @throws IllegalStateException if this scheduler was shut down
+	 * @since 1.1
+	 */
+	public Handle schedule(Animated animated) {
+		if (executor.isShutdown()) {
+			throw new IllegalStateException("Scheduler is shut down");
+		}
+		Handle handle = new Handle(animated);
+		handles.add(handle);
+		if (handle.animation != null) {
+			handle.animation.attach(handle::wake);
+			handle.next = System.nanoTime();
+			handle.schedule(handle.next);
+		} else {
+			Runnable loop = () -> {
+				try {
+					animated.run();
+				} finally {
+					handle.finish();
+				}
+			};
+			Thread thread;
+			if (VIRTUAL_THREADS != null) {
+				thread = VIRTUAL_THREADS.newThread(loop);
+			} else {
+				thread = new Thread(loop, "animation-" + animated.getClass().getSimpleName());
+				thread.setDaemon(true);
+			}
+			handle.thread = thread;
+			thread.start();
+		}
+		return handle;
+	}
+
+	/**
+	 * Stops driving every animation, stopping those on threads of their own,
+	 * and ends the timer threads once the ticks running finish.
+	 * @since 1.1
+	 */
+	public void shutdown() {
+		executor.shutdown();
+		for (Handle handle : handles) {
+			handle.cancel();
+		}
+	}
+
+	/**
+	 * @return the handles of the animations driven
+	 * @since 1.1
+	 */
+	public Set<Handle> getHandles() {
+		return Collections.unmodifiableSet(handles);
+	}
+
+	/**
+	 * @return {@code true} if animations that are not {@link Animation}s run
+	 * on virtual threads
+	 * @since 1.1
+	 */
+	public static boolean isVirtualThreadAvailable() {
+		return VIRTUAL_THREADS != null;
+	}
+
+	/**
+	 * Builds a factory of virtual threads through reflection, so that this
+	 * class still loads on runtimes without them.
+	 * @since 1.1
+	 */
+	private static ThreadFactory loadVirtualThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> type = Class.forName("java.lang.Thread$Builder");
+			Method name = type.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, "animation-", 0L);
+			return (ThreadFactory) type.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package animation;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * The {@link Color} objects of packed {@code ARGB} values, created once per
+ * value and then reused, so that a renderer filling shapes of many colors
+ * through {@link java.awt.Graphics2D#setPaint(java.awt.Paint)} does not
+ * allocate a {@code Color} per shape every frame.
+ * <br/>
+ * The colors are held in an open-addressing table that grows with the
+ * distinct values seen, up to {@value #MAX_COLORS}; past that it is emptied
+ * and starts over, so that colors which keep changing cannot grow it without
+ * bound. A {@code ColorCache} is not synchronized.
+ *
+ * @since 1.1
+ */
+public class ColorCache {
+
+	/**
+	 * The most colors held before the table is emptied.
+	 * @since 1.1
+	 */
+	private static final int MAX_COLORS = 1 << 16;
+
+	/**
+	 * The values and their colors by slot; a slot without a color is free.
+	 * @since 1.1
+	 */
+	private int[] keys = new int[64];
+	private Color[] colors = new Color[64];
+	private int size;
+
+	/**
+	 * Returns the color of the specified value, with its alpha.
+	 * @param argb - the specified color as a packed {@code ARGB} value
+	 * @return the color of {@code argb}
+	 * @since 1.1
+	 */
+	public Color get(int argb) {
+		int mask = keys.length - 1;
+		for (int slot = hash(argb) & mask;; slot = slot + 1 & mask) {
+			Color color = colors[slot];
+			if (color == null) {
+				return put(argb);
+			}
+			if (keys[slot] == argb) {
+				return color;
+			}
+		}
+	}
+
+	private Color put(int argb) {
+		if (size >= MAX_COLORS) {
+			clear();
+		} else if (2 * (size + 1) > keys.length) {
+			grow();
+		}
+		Color color = new Color(argb, true);
+		int mask = keys.length - 1;
+		int slot = hash(argb) & mask;
+		while (colors[slot] != null) {
+			slot = slot + 1 & mask;
+		}
+		keys[slot] = argb;
+		colors[slot] = color;
+		size++;
+		return color;
+	}
+
+	/**
+	 * Doubles the table, placing every color again.
+	 * @since 1.1
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		Color[] oldColors = colors;
+		keys = new int[oldKeys.length * 2];
+		colors = new Color[oldKeys.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldColors[i] != null) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (colors[slot] != null) {
+					slot = slot + 1 & mask;
+				}
+				keys[slot] = oldKeys[i];
+				colors[slot] = oldColors[i];
+			}
+		}
+	}
+
+	private static int hash(int argb) {
+		int h = argb * 0x9E3779B1;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * Removes every color.
+	 * @since 1.1
+	 */
+	public void clear() {
+		Arrays.fill(colors, null);
+		size = 0;
+	}
+
+	/**
+	 * @return the amount of colors held
+	 * @since 1.1
+	 */
+	public int size() {
+		return size;
+	}
+}
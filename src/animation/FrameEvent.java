@@ -0,0 +1,57 @@
+package animation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one frame shown by an {@link Animation}, with
+ * the time spent in each of its phases. Disabled events cost a check per
+ * frame and nothing else.
+ *
+ * @see FrameMetrics
+ * @since 1.1
+ */
+@Name("animation.Frame")
+@Label("Animation Frame")
+@Category("Animation")
+@Description("A frame shown by an animation and the time spent in each of its phases")
+@StackTrace(false)
+final class FrameEvent extends Event {
+
+	@Label("Frame Time")
+	@Description("Time since the previous frame started rendering")
+	@Timespan
+	long frameTime;
+
+	@Label("Update Time")
+	@Description("Time spent in the updates of the frame")
+	@Timespan
+	long updateTime;
+
+	@Label("Render Time")
+	@Description("Time spent rendering the frame")
+	@Timespan
+	long renderTime;
+
+	@Label("Wait Time")
+	@Description("Time the loop waited before the updates of the frame")
+	@Timespan
+	long waitTime;
+
+	@Label("Present Latency")
+	@Description("Time from the frame being updated until it started rendering")
+	@Timespan
+	long latency;
+
+	@Label("Updates")
+	@Description("Updates run since the previous frame")
+	int updates;
+
+	@Label("Movers")
+	int movers;
+}
@@ -0,0 +1,370 @@
+package animation;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders the frames of an {@link Animation} into files without a display
+ * and as fast as possible, instead of at the pace of its loop. Each frame
+ * updates the animation once, renders it into an offscreen image with
+ * {@link Animation#render(Graphics2D)}, and hands the image to a pool of
+ * encoder threads that write it as a {@link Format#PNG PNG} or
+ * {@link Format#RAW raw RGB} file named after its frame number.
+ * <br/>
+ * The three stages overlap: encoders work on earlier frames while the next
+ * one renders, and when the animation has both a simulation and a
+ * {@link SnapshotBuffer} the simulation steps the next frame on the calling
+ * thread while a render thread draws the current one from its snapshot.
+ * Images are taken from a fixed pool and only returned once encoded, so
+ * rendering waits whenever the encoders fall behind and memory stays
+ * bounded by {@link #getMaxFramesInFlight()} images.
+ * <pre>
+ * FrameExporter exporter = new FrameExporter(directory, 1000, 800, FrameExporter.Format.PNG);
+ * exporter.export(animation, 600);
+ * </pre>
+ *
+ * @see Animation#setSnapshotBuffer(SnapshotBuffer)
+ * @since 1.1
+ */
+public class FrameExporter {
+
+	/**
+	 * The file formats frames are written in.
+	 * @since 1.1
+	 */
+	public enum Format {
+		/**
+		 * Compressed {@code .png} images.
+		 * @since 1.1
+		 */
+		PNG("png"),
+
+		/**
+		 * Uncompressed {@code .rgb} files of three bytes per pixel, red, green
+		 * and blue, row by row from the top without any header, as read by
+		 * {@code ffmpeg -f rawvideo -pixel_format rgb24}. Several times faster
+		 * to write than PNG, at several times the size.
+		 * @since 1.1
+		 */
+		RAW("rgb");
+
+		private final String extension;
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		/**
+		 * @return the file extension of the format, without the dot
+		 * @since 1.1
+		 */
+		public String getExtension() {
+			return extension;
+		}
+	}
+
+	private final Path directory;
+	private final int width, height;
+	private final Format format;
+	private int encoders = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	private int maxFramesInFlight;
+
+	/**
+	 * The row buffer of each encoder thread for {@link Format#RAW}.
+	 * @since 1.1
+	 */
+	private final ThreadLocal<ByteBuffer> rows = new ThreadLocal<>();
+
+	/**
+	 * Creates a {@code FrameExporter} of frames of the specified size into the
+	 * specified directory, which is created if needed.
+	 * @param directory - the directory of the frame files
+	 * @param width - the specified width in pixels
+	 * @param height - the specified height in pixels
+	 * @param format - the specified file format
+	 * @since 1.1
+	 */
+	public FrameExporter(Path directory, int width, int height, Format format) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Size must be positive: " + width + "x" + height);
+		}
+		if (format == null) {
+			throw new IllegalArgumentException("Format must not be null");
+		}
+		this.directory = directory;
+		this.width = width;
+		this.height = height;
+		this.format = format;
+	}
+
+	/**
+	 * Exports the specified amount of frames of the specified animation,
+	 * numbered from {@code 0}, replacing files of the same names. The
+	 * animation is sized to the frames, and must not be running meanwhile.
+	 * @param animation - the specified animation
+	 * @param frames - the specified amount of frames
+	 * @return the throughput of the export, in frames
+	 * @throws IOException if a frame cannot be written, or if interrupted
+	 * @since 1.1
+	 */
+	public HeadlessRunner.Result export(Animation animation, long frames) throws IOException {
+		Files.createDirectories(directory);
+		animation.setSize(width, height);
+		int images = getMaxFramesInFlight();
+		BlockingQueue<BufferedImage> free = new ArrayBlockingQueue<>(images);
+		for (int i = 0; i < images; i++) {
+			free.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(encoders, task -> {
+			Thread thread = new Thread(task, "frame-encoder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Stage stage = new Stage(animation, free, pool, failure);
+		long start = System.nanoTime();
+		try {
+			SnapshotBuffer snapshots = animation.getSnapshotBuffer();
+			Simulation simulation = animation.getSimulation();
+			if (snapshots != null && simulation != null) {
+				pipeline(animation, simulation, snapshots, stage, frames);
+			} else {
+				for (long f = 0; f < frames && failure.get() == null; f++) {
+					update(animation);
+					stage.render(f);
+				}
+			}
+			pool.shutdown();
+			while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+				// encoders finish their queue
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure.compareAndSet(null, new InterruptedIOException("Export interrupted"));
+		} finally {
+			pool.shutdownNow();
+		}
+		Throwable thrown = failure.get();
+		if (thrown instanceof IOException) {
+			throw (IOException) thrown;
+		} else if (thrown instanceof RuntimeException) {
+			throw (RuntimeException) thrown;
+		} else if (thrown instanceof Error) {
+			throw (Error) thrown;
+		} else if (thrown != null) {
+			throw new IOException(thrown);
+		}
+		return new HeadlessRunner.Result(frames, System.nanoTime() - start,
+				animation.getSimulation() != null ? animation.getSimulation().getMoverCount() : 0);
+	}
+
+	/**
+	 * Steps the simulation on the calling thread while a render thread draws
+	 * the frame before from its snapshot. The simulation publishes a frame
+	 * only once the renderer has drawn the previous one, so none is skipped
+	 * or replaced while drawn.
+	 * @since 1.1
+	 */
+	private void pipeline(Animation animation, Simulation simulation, SnapshotBuffer snapshots, Stage stage,
+			long frames) throws InterruptedException {
+		Semaphore published = new Semaphore(0);
+		Semaphore drawn = new Semaphore(1);
+		Thread renderer = new Thread(() -> {
+			try {
+				for (long f = 0; f < frames && stage.failure.get() == null; f++) {
+					published.acquire();
+					if (stage.failure.get() != null) {
+						break; // woken by a simulation that stopped early
+					}
+					stage.render(f);
+					drawn.release();
+				}
+			} catch (InterruptedException e) {
+				stage.failure.compareAndSet(null, new InterruptedIOException("Export interrupted"));
+			} catch (Throwable e) {
+				stage.failure.compareAndSet(null, e);
+			} finally {
+				drawn.release(); // the simulation may be waiting for a frame never drawn
+			}
+		}, "frame-renderer");
+		renderer.setDaemon(true);
+		renderer.start();
+		try {
+			for (long f = 0; f < frames; f++) {
+				update(animation);
+				simulation.snapshot(snapshots.beginWrite());
+				drawn.acquire();
+				if (stage.failure.get() != null) {
+					// the renderer may have passed its own check and be waiting
+					published.release();
+					break;
+				}
+				snapshots.publish();
+				published.release();
+			}
+			renderer.join();
+		} finally {
+			if (renderer.isAlive()) {
+				renderer.interrupt();
+			}
+		}
+	}
+
+	private static void update(Animation animation) {
+		animation.update();
+		animation.setUpdateCount(animation.getUpdateCount() + 1);
+	}
+
+	/**
+	 * Renders frames into pooled images and hands them to the encoders.
+	 * @since 1.1
+	 */
+	private final class Stage {
+		final Animation animation;
+		final BlockingQueue<BufferedImage> free;
+		final ExecutorService pool;
+		final AtomicReference<Throwable> failure;
+
+		Stage(Animation animation, BlockingQueue<BufferedImage> free, ExecutorService pool,
+				AtomicReference<Throwable> failure) {
+			this.animation = animation;
+			this.free = free;
+			this.pool = pool;
+			this.failure = failure;
+		}
+
+		void render(long frame) throws InterruptedException {
+			BufferedImage image = free.take(); // waits while every image is being encoded
+			Graphics2D g = image.createGraphics();
+			try {
+				g.setColor(animation.getBackground());
+				g.fillRect(0, 0, width, height);
+				animation.render(g);
+			} finally {
+				g.dispose();
+			}
+			pool.execute(() -> {
+				try {
+					if (failure.get() == null) {
+						write(image, frame);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					free.add(image);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Writes the specified image as the file of the specified frame.
+	 * @since 1.1
+	 */
+	private void write(BufferedImage image, long frame) throws IOException {
+		Path path = getPath(frame);
+		if (format == Format.PNG) {
+			if (!ImageIO.write(image, "png", path.toFile())) {
+				throw new IOException("No PNG writer available");
+			}
+			return;
+		}
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		ByteBuffer row = rows.get();
+		if (row == null) {
+			row = ByteBuffer.allocateDirect(width * 3);
+			rows.set(row);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			for (int y = 0, p = 0; y < height; y++) {
+				row.clear();
+				for (int x = 0; x < width; x++, p++) {
+					int rgb = pixels[p];
+					row.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+				}
+				row.flip();
+				while (row.hasRemaining()) {
+					channel.write(row);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the file the specified frame is written to.
+	 * @param frame - the specified frame
+	 * @return the path of the frame file
+	 * @since 1.1
+	 */
+	public Path getPath(long frame) {
+		return directory.resolve(String.format("frame-%06d.%s", frame, format.getExtension()));
+	}
+
+	/**
+	 * Sets the amount of encoder threads, by default one less than the
+	 * available processors, at least one.
+	 * @param encoders - the specified amount, at least {@code 1}
+	 * @since 1.1
+	 */
+	public void setEncoders(int encoders) {
+		if (encoders < 1) {
+			throw new IllegalArgumentException("Encoders must be at least 1: " + encoders);
+		}
+		this.encoders = encoders;
+	}
+
+	/**
+	 * @return the amount of encoder threads
+	 * @since 1.1
+	 */
+	public int getEncoders() {
+		return encoders;
+	}
+
+	/**
+	 * Sets the amount of images rendered or being encoded at once, which
+	 * bounds the memory of an export, by default two more than the encoders.
+	 * @param maxFramesInFlight - the specified amount, at least {@code 1}
+	 * @since 1.1
+	 */
+	public void setMaxFramesInFlight(int maxFramesInFlight) {
+		if (maxFramesInFlight < 1) {
+			throw new IllegalArgumentException("Frames in flight must be at least 1: " + maxFramesInFlight);
+		}
+		this.maxFramesInFlight = maxFramesInFlight;
+	}
+
+	/**
+	 * @return the amount of images rendered or being encoded at once
+	 * @since 1.1
+	 */
+	public int getMaxFramesInFlight() {
+		return maxFramesInFlight > 0 ? maxFramesInFlight : encoders + 2;
+	}
+
+	/**
+	 * @return the file format of the frames
+	 * @since 1.1
+	 */
+	public Format getFormat() {
+		return format;
+	}
+}
@@ -0,0 +1,302 @@
+package animation;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.EventType;
+
+/**
+ * The time an {@link Animation} spends in each phase of its frames, counted
+ * into a {@link LatencyHistogram} per {@link Phase}. Every shown frame is
+ * also emitted as an {@code animation.Frame} Flight Recorder event while that
+ * event is enabled, and the summary can be monitored over JMX once
+ * {@link #register(String) registered}.
+ * <br/>
+ * Recording costs a few {@link System#nanoTime()} calls and histogram
+ * updates per frame, without locking or allocation, so metrics are always
+ * on.
+ *
+ * @see Animation#getMetrics()
+ * @since 1.1
+ */
+public class FrameMetrics implements FrameMetricsMXBean {
+
+	/**
+	 * The phases of a frame that are timed.
+	 * @since 1.1
+	 */
+	public enum Phase {
+		/**
+		 * A single call of {@link Animation#update()}.
+		 * @since 1.1
+		 */
+		UPDATE,
+
+		/**
+		 * Rendering a frame, including showing it when rendering actively.
+		 * @since 1.1
+		 */
+		RENDER,
+
+		/**
+		 * The loop waiting for the next update.
+		 * @since 1.1
+		 */
+		WAIT,
+
+		/**
+		 * From a frame being updated until it starts rendering, which for
+		 * passive rendering includes the wait for Swing to paint.
+		 * @since 1.1
+		 */
+		LATENCY,
+
+		/**
+		 * From one frame starting to render until the next does.
+		 * @since 1.1
+		 */
+		FRAME
+	}
+
+	private static final EventType FRAME_EVENT = EventType.getEventType(FrameEvent.class);
+
+	private final Animation animation;
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+	/**
+	 * The {@link System#nanoTime()} at which the oldest frame not yet rendered
+	 * was presented, or {@code 0} if there is none.
+	 * @since 1.1
+	 */
+	private final AtomicLong presented = new AtomicLong();
+	private final AtomicLong droppedFrames = new AtomicLong();
+
+	/**
+	 * The updates and waits since the last presented frame, kept by the loop
+	 * thread.
+	 * @since 1.1
+	 */
+	private long updateNanos, waitNanos;
+	private int updates;
+
+	/**
+	 * The updates and waits of the last presented frame, handed to the render
+	 * thread for its event.
+	 * @since 1.1
+	 */
+	private volatile long frameUpdateNanos, frameWaitNanos;
+	private volatile int frameUpdates;
+
+	/**
+	 * When the last frame started rendering and its latency, kept by the
+	 * render thread.
+	 * @since 1.1
+	 */
+	private long lastRender, latency;
+
+	/**
+	 * Creates the {@code FrameMetrics} of the specified animation.
+	 * @param animation - the specified animation
+	 * @since 1.1
+	 */
+	FrameMetrics(Animation animation) {
+		this.animation = animation;
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Records a wait of the loop.
+	 * @since 1.1
+	 */
+	void waited(long nanos) {
+		histograms[Phase.WAIT.ordinal()].record(nanos);
+		waitNanos += nanos;
+	}
+
+	/**
+	 * Records one update.
+	 * @since 1.1
+	 */
+	void updated(long nanos) {
+		histograms[Phase.UPDATE.ordinal()].record(nanos);
+		updateNanos += nanos;
+		updates++;
+	}
+
+	/**
+	 * Records that the frame just updated is to be shown. A frame presented
+	 * while an earlier one still waits to render replaces it.
+	 * @since 1.1
+	 */
+	void presented(long now) {
+		frameUpdateNanos = updateNanos;
+		frameWaitNanos = waitNanos;
+		frameUpdates = updates;
+		updateNanos = 0;
+		waitNanos = 0;
+		updates = 0;
+		if (!presented.compareAndSet(0, now)) {
+			droppedFrames.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records that a frame starts rendering.
+	 * @return the {@link System#nanoTime()} it started at
+	 * @since 1.1
+	 */
+	long renderStarting() {
+		long now = System.nanoTime();
+		long since = presented.getAndSet(0);
+		latency = since != 0 ? now - since : 0;
+		if (since != 0) {
+			histograms[Phase.LATENCY.ordinal()].record(latency);
+		}
+		return now;
+	}
+
+	/**
+	 * Records that the frame started at the specified time finished
+	 * rendering, and emits its event.
+	 * @since 1.1
+	 */
+	void rendered(long start) {
+		long end = System.nanoTime();
+		long frame = lastRender == 0 ? 0 : start - lastRender;
+		lastRender = start;
+		histograms[Phase.RENDER.ordinal()].record(end - start);
+		if (frame > 0) {
+			histograms[Phase.FRAME.ordinal()].record(frame);
+		}
+		if (FRAME_EVENT.isEnabled()) {
+			FrameEvent event = new FrameEvent();
+			if (event.shouldCommit()) {
+				event.frameTime = frame;
+				event.updateTime = frameUpdateNanos;
+				event.renderTime = end - start;
+				event.waitTime = frameWaitNanos;
+				event.latency = latency;
+				event.updates = frameUpdates;
+				event.movers = getMoverCount();
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Returns the histogram of the specified phase.
+	 * @param phase - the specified phase
+	 * @return the histogram of the phase
+	 * @since 1.1
+	 */
+	public LatencyHistogram getHistogram(Phase phase) {
+		return histograms[phase.ordinal()];
+	}
+
+	/**
+	 * Registers these metrics with the platform MBean server, under
+	 * {@code animation:type=FrameMetrics,name=<name>}.
+	 * @param name - the name the animation is monitored under
+	 * @return the name registered
+	 * @throws IllegalStateException if the registration fails, such as when
+	 * the name is taken
+	 * @since 1.1
+	 */
+	public ObjectName register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("animation:type=FrameMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register frame metrics as " + name, e);
+		}
+	}
+
+	@Override
+	public float getFPS() {
+		return animation.getFPS();
+	}
+
+	@Override
+	public double getFrameTimeP50() {
+		return millis(Phase.FRAME, 50);
+	}
+
+	@Override
+	public double getFrameTimeP99() {
+		return millis(Phase.FRAME, 99);
+	}
+
+	@Override
+	public double getFrameTimeP999() {
+		return millis(Phase.FRAME, 99.9);
+	}
+
+	@Override
+	public double getFrameTimeMax() {
+		return getHistogram(Phase.FRAME).getMax() / 1e6;
+	}
+
+	@Override
+	public double getUpdateTimeP99() {
+		return millis(Phase.UPDATE, 99);
+	}
+
+	@Override
+	public double getRenderTimeP99() {
+		return millis(Phase.RENDER, 99);
+	}
+
+	@Override
+	public double getLatencyP99() {
+		return millis(Phase.LATENCY, 99);
+	}
+
+	private double millis(Phase phase, double percentile) {
+		return getHistogram(phase).getValueAtPercentile(percentile) / 1e6;
+	}
+
+	@Override
+	public long getFrames() {
+		return getHistogram(Phase.RENDER).getCount();
+	}
+
+	@Override
+	public long getDroppedFrames() {
+		return droppedFrames.get();
+	}
+
+	@Override
+	public long getDroppedUpdates() {
+		return animation.getDroppedUpdates();
+	}
+
+	@Override
+	public int getMoverCount() {
+		Simulation simulation = animation.getSimulation();
+		return simulation != null ? simulation.getMoverCount() : 0;
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+		droppedFrames.set(0);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("FrameMetrics[fps=").append(getFPS());
+		for (Phase phase : Phase.values()) {
+			builder.append(", ").append(phase.name().toLowerCase()).append("={").append(getHistogram(phase))
+					.append('}');
+		}
+		return builder.append(", droppedFrames=").append(getDroppedFrames()).append(']').toString();
+	}
+}
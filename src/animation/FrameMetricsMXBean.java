@@ -0,0 +1,62 @@
+package animation;
+
+/**
+ * The management interface of {@link FrameMetrics}, for monitoring an
+ * {@link Animation} over JMX. Durations are in milliseconds.
+ *
+ * @see FrameMetrics#register(String)
+ * @since 1.1
+ */
+public interface FrameMetricsMXBean {
+
+	/**
+	 * @return the frames shown per second, averaged over the last second
+	 * @since 1.1
+	 */
+	float getFPS();
+
+	double getFrameTimeP50();
+
+	double getFrameTimeP99();
+
+	double getFrameTimeP999();
+
+	double getFrameTimeMax();
+
+	double getUpdateTimeP99();
+
+	double getRenderTimeP99();
+
+	double getLatencyP99();
+
+	/**
+	 * @return the amount of frames shown since the last reset
+	 * @since 1.1
+	 */
+	long getFrames();
+
+	/**
+	 * @return the amount of frames updated but never shown, because a newer
+	 * one replaced them before Swing painted
+	 * @since 1.1
+	 */
+	long getDroppedFrames();
+
+	/**
+	 * @return the amount of updates dropped by the fixed timestep loop to catch up
+	 * @since 1.1
+	 */
+	long getDroppedUpdates();
+
+	/**
+	 * @return the amount of movers of the simulation shown
+	 * @since 1.1
+	 */
+	int getMoverCount();
+
+	/**
+	 * Forgets the recorded durations and frame counts.
+	 * @since 1.1
+	 */
+	void reset();
+}
@@ -0,0 +1,118 @@
+package animation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps a {@link Simulation} without a display, either for a fixed amount of
+ * steps or for a duration, and reports its throughput. Nothing here touches
+ * AWT, so it runs with {@code java.awt.headless=true}.
+ *
+ * @see Simulation
+ * @since 1.1
+ */
+public class HeadlessRunner {
+
+	/**
+	 * The throughput of one run.
+	 * @since 1.1
+	 */
+	public static final class Result {
+
+		private final long steps;
+		private final long nanos;
+		private final int movers;
+
+		Result(long steps, long nanos, int movers) {
+			this.steps = steps;
+			this.nanos = nanos;
+			this.movers = movers;
+		}
+
+		/**
+		 * @return the amount of steps taken
+		 * @since 1.1
+		 */
+		public long getSteps() {
+			return steps;
+		}
+
+		/**
+		 * @return the elapsed time in nanoseconds
+		 * @since 1.1
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return the steps taken per second
+		 * @since 1.1
+		 */
+		public double getStepsPerSecond() {
+			return nanos == 0 ? 0 : steps * 1e9 / nanos;
+		}
+
+		/**
+		 * @return the mover updates per second, that is steps per second times
+		 * the amount of movers
+		 * @since 1.1
+		 */
+		public double getMoverStepsPerSecond() {
+			return getStepsPerSecond() * movers;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d steps in %.3f s: %.1f steps/s, %.4g mover-steps/s (%d movers)",
+					steps, nanos / 1e9, getStepsPerSecond(), getMoverStepsPerSecond(), movers);
+		}
+	}
+
+	/**
+	 * The simulation to step.
+	 * @since 1.1
+	 */
+	private final Simulation simulation;
+
+	/**
+	 * Creates a {@code HeadlessRunner} for the specified simulation.
+	 * @param simulation - the specified simulation
+	 * @since 1.1
+	 */
+	public HeadlessRunner(Simulation simulation) {
+		this.simulation = simulation;
+	}
+
+	/**
+	 * Takes the specified amount of steps as fast as possible.
+	 * @param steps - the specified amount of steps
+	 * @return the throughput of the run
+	 * @since 1.1
+	 */
+	public Result run(long steps) {
+		long start = System.nanoTime();
+		for (long i = 0; i < steps; i++) {
+			simulation.step();
+		}
+		return new Result(steps, System.nanoTime() - start, simulation.getMoverCount());
+	}
+
+	/**
+	 * Takes steps as fast as possible for the specified duration.
+	 * @param duration - the specified duration
+	 * @param unit - the unit of {@code duration}
+	 * @return the throughput of the run
+	 * @since 1.1
+	 */
+	public Result runFor(long duration, TimeUnit unit) {
+		long start = System.nanoTime();
+		long end = start + unit.toNanos(duration);
+		long steps = 0;
+		long now;
+		do {
+			simulation.step();
+			steps++;
+		} while ((now = System.nanoTime()) - end < 0);
+		return new Result(steps, now - start, simulation.getMoverCount());
+	}
+}
@@ -0,0 +1,168 @@
+package animation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in nanoseconds into logarithmic buckets, each power of two
+ * split into {@value #SUB_BUCKETS} linear ones, so that any percentile is
+ * reported within about 6% of the true value with a fixed array of counts.
+ * Values from {@code 0} to about 73 minutes are counted into their own
+ * bucket; longer ones land in the last.
+ * <br/>
+ * Recording is meant for a single thread at a time and costs an index
+ * computation and a few ordered stores, with no locking or allocation, while
+ * any thread may read the statistics concurrently.
+ *
+ * @see FrameMetrics
+ * @since 1.1
+ */
+public class LatencyHistogram {
+
+	/**
+	 * The amount of linear buckets each power of two is split into.
+	 * @since 1.1
+	 */
+	private static final int SUB_BUCKETS = 16;
+
+	/**
+	 * The bits of a value below its highest set bit that select its linear
+	 * bucket.
+	 * @since 1.1
+	 */
+	private static final int SUB_BITS = 4;
+
+	/**
+	 * The highest power of two with buckets of its own.
+	 * @since 1.1
+	 */
+	private static final int MAX_EXPONENT = 41;
+
+	private final AtomicLongArray counts = new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Counts the specified duration. Negative durations count as {@code 0}.
+	 * @param nanos - the specified duration in nanoseconds
+	 * @since 1.1
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		int i = index(value);
+		// single writer: plain increments published with ordered stores
+		counts.lazySet(i, counts.get(i) + 1);
+		total.lazySet(total.get() + value);
+		if (value > max.get()) {
+			max.lazySet(value);
+		}
+		count.lazySet(count.get() + 1);
+	}
+
+	/**
+	 * Returns the bucket of the specified non-negative value.
+	 * @since 1.1
+	 */
+	private int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		if (exponent == MAX_EXPONENT && value >>> MAX_EXPONENT > 1) {
+			sub = SUB_BUCKETS - 1;
+		}
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * Returns the highest value counted into the specified bucket.
+	 * @since 1.1
+	 */
+	private long highest(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BITS);
+		return lowest + (1L << (exponent - SUB_BITS)) - 1;
+	}
+
+	/**
+	 * Returns the duration that the specified percentage of the counted
+	 * durations do not exceed, rounded up to the end of its bucket and capped
+	 * at the maximum.
+	 * @param percentile - the specified percentage, from {@code 0} to
+	 * {@code 100}
+	 * @return the duration in nanoseconds, or {@code 0} if none were counted
+	 * @since 1.1
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("Percentile must be from 0 to 100: " + percentile);
+		}
+		long n = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			n += counts.get(i);
+		}
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(highest(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * @return the amount of durations counted
+	 * @since 1.1
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the longest duration counted in nanoseconds, or {@code 0}
+	 * @since 1.1
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the mean duration counted in nanoseconds, or {@code 0}
+	 * @since 1.1
+	 */
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) total.get() / n;
+	}
+
+	/**
+	 * Forgets every duration counted. Durations recorded meanwhile may be
+	 * partly lost.
+	 * @since 1.1
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms", getCount(),
+				getValueAtPercentile(50) / 1e6, getValueAtPercentile(99) / 1e6, getValueAtPercentile(99.9) / 1e6,
+				getMax() / 1e6);
+	}
+}
@@ -0,0 +1,192 @@
+package animation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an update stage over a range of independent indices (typically movers)
+ * on a {@link ForkJoinPool}. The range is split into contiguous chunks sized
+ * from the element count and the parallelism level, each a multiple of
+ * {@link #ALIGNMENT} so that neighbouring chunks do not share cache lines of
+ * the underlying primitive arrays.
+ * <br/>
+ * Small ranges run serially on the calling thread. Since every index is
+ * handled by exactly one call of the {@link RangeTask} and in the same way
+ * either path, the parallel result is bit-identical to the serial one as long
+ * as the task only writes the state of the indices it is given.
+ *
+ * @see RangeTask
+ * @since 1.1
+ */
+public class ParallelUpdater {
+
+	/**
+	 * An update applied to the indices from {@code from} (inclusive) to
+	 * {@code to} (exclusive).
+	 * @since 1.1
+	 */
+	@FunctionalInterface
+	public interface RangeTask {
+
+		/**
+		 * Updates the specified range.
+		 * @param from - the first index
+		 * @param to - the index after the last
+		 * @since 1.1
+		 */
+		void run(int from, int to);
+	}
+
+	/**
+	 * The granularity of every chunk. 64 indices of a {@code double[]} span
+	 * eight cache lines.
+	 * @since 1.1
+	 */
+	public static final int ALIGNMENT = 64;
+
+	/**
+	 * The default amount of indices below which a range runs serially.
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_SERIAL_THRESHOLD = 4096;
+
+	/**
+	 * The amount of chunks each worker is given, leaving room for work stealing
+	 * when chunks take unequal time.
+	 * @since 1.1
+	 */
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	/**
+	 * The smallest chunk worth forking.
+	 * @since 1.1
+	 */
+	private static final int MIN_CHUNK = 1024;
+
+	/**
+	 * The pool running the chunks.
+	 * @since 1.1
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The amount of indices below which a range runs serially.
+	 * @since 1.1
+	 */
+	private volatile int serialThreshold = DEFAULT_SERIAL_THRESHOLD;
+
+	/**
+	 * Creates a {@code ParallelUpdater} using every available processor.
+	 * @since 1.1
+	 */
+	public ParallelUpdater() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a {@code ParallelUpdater} with the specified parallelism level.
+	 * @param parallelism - the specified amount of worker threads
+	 * @since 1.1
+	 */
+	public ParallelUpdater(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Runs the specified task over the indices from {@code 0} to {@code count}.
+	 * Returns once every index has been updated.
+	 * @param count - the specified amount of indices
+	 * @param task - the specified task
+	 * @since 1.1
+	 */
+	public void forEach(int count, RangeTask task) {
+		int parallelism = pool.getParallelism();
+		if (count < serialThreshold || parallelism == 1) {
+			task.run(0, count);
+			return;
+		}
+		pool.invoke(new Chunk(task, 0, count, chunkSize(count, parallelism)));
+	}
+
+	/**
+	 * Sizes a chunk so that each worker receives a few of them.
+	 * @param count - the amount of indices
+	 * @param parallelism - the amount of workers
+	 * @return the chunk size, a multiple of {@link #ALIGNMENT}
+	 * @since 1.1
+	 */
+	static int chunkSize(int count, int parallelism) {
+		int chunk = Math.max(MIN_CHUNK, count / (parallelism * CHUNKS_PER_WORKER));
+		return (chunk + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/**
+	 * @return the parallelism level of this {@code ParallelUpdater}
+	 * @since 1.1
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * @return the amount of indices below which a range runs serially
+	 * @since 1.1
+	 */
+	public int getSerialThreshold() {
+		return serialThreshold;
+	}
+
+	/**
+	 * Sets the amount of indices below which a range runs serially on the
+	 * calling thread.
+	 * @param serialThreshold - the specified threshold
+	 * @since 1.1
+	 */
+	public void setSerialThreshold(int serialThreshold) {
+		this.serialThreshold = serialThreshold;
+	}
+
+	/**
+	 * Shuts down the worker threads. The updater runs every later range serially.
+	 * @since 1.1
+	 */
+	public void shutdown() {
+		pool.shutdown();
+		serialThreshold = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * A range split in halves along chunk boundaries until a single chunk remains.
+	 * @since 1.1
+	 */
+	private static final class Chunk extends RecursiveAction {
+
+		private static final long serialVersionUID = 2706345811253097409L;
+
+		private final RangeTask task;
+		private final int from;
+		private final int to;
+		private final int chunk;
+
+		Chunk(RangeTask task, int from, int to, int chunk) {
+			this.task = task;
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			int chunks = (to - from + chunk - 1) / chunk;
+			if (chunks <= 1) {
+				task.run(from, to);
+				return;
+			}
+			int mid = from + chunks / 2 * chunk;
+			invokeAll(new Chunk(task, from, mid, chunk), new Chunk(task, mid, to, chunk));
+		}
+	}
+}
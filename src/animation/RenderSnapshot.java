@@ -0,0 +1,164 @@
+package animation;
+
+import java.util.Arrays;
+
+/**
+ * The renderable state of a simulation at the end of one step: the bounds and
+ * color of every shape, stored compactly in parallel arrays. A snapshot is
+ * written by the simulation thread and then handed to the render thread
+ * through a {@link SnapshotBuffer}, after which it is not changed until the
+ * renderer hands it back, so that rendering never sees a half-updated frame.
+ *
+ * @see SnapshotBuffer
+ * @since 1.1
+ */
+public class RenderSnapshot {
+
+	private float[] x, y, width, height;
+	private int[] color;
+	private int size;
+
+	/**
+	 * The grid over the shapes, kept across frames, and whether it was built
+	 * since they last changed.
+	 * @since 1.1
+	 */
+	private SnapshotIndex index;
+	private boolean indexed;
+
+	/**
+	 * The number of the step this snapshot shows, counting from {@code 1}, or
+	 * {@code 0} before any was written. Volatile, since the reader of a
+	 * {@link SnapshotBuffer} may check it while the writer reuses the snapshot.
+	 * @since 1.1
+	 */
+	volatile long sequence;
+
+	/**
+	 * The {@link System#nanoTime()} this snapshot was published at.
+	 * @since 1.1
+	 */
+	long time;
+
+	/**
+	 * Creates an empty {@code RenderSnapshot} with room for the specified
+	 * amount of shapes before growing.
+	 * @param capacity - the specified amount
+	 * @since 1.1
+	 */
+	public RenderSnapshot(int capacity) {
+		x = new float[capacity];
+		y = new float[capacity];
+		width = new float[capacity];
+		height = new float[capacity];
+		color = new int[capacity];
+	}
+
+	/**
+	 * Removes every shape, keeping the arrays for reuse.
+	 * @since 1.1
+	 */
+	public void clear() {
+		size = 0;
+		indexed = false;
+	}
+
+	/**
+	 * Appends a shape with the specified bounds and color.
+	 * @param x - the x position of the bounds
+	 * @param y - the y position of the bounds
+	 * @param w - the width of the bounds
+	 * @param h - the height of the bounds
+	 * @param argb - the color, with alpha in the high byte
+	 * @return the index of the shape
+	 * @since 1.1
+	 */
+	public int add(double x, double y, double w, double h, int argb) {
+		if (size == this.x.length) {
+			int capacity = Math.max(16, size + (size >> 1));
+			this.x = Arrays.copyOf(this.x, capacity);
+			this.y = Arrays.copyOf(this.y, capacity);
+			width = Arrays.copyOf(width, capacity);
+			height = Arrays.copyOf(height, capacity);
+			color = Arrays.copyOf(color, capacity);
+		}
+		this.x[size] = (float) x;
+		this.y[size] = (float) y;
+		width[size] = (float) w;
+		height[size] = (float) h;
+		color[size] = argb;
+		indexed = false;
+		return size++;
+	}
+
+	/**
+	 * @return the amount of shapes
+	 * @since 1.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	public float getX(int i) {
+		return x[i];
+	}
+
+	public float getY(int i) {
+		return y[i];
+	}
+
+	public float getWidth(int i) {
+		return width[i];
+	}
+
+	public float getHeight(int i) {
+		return height[i];
+	}
+
+	public int getColor(int i) {
+		return color[i];
+	}
+
+	/**
+	 * Places every shape in a {@link SnapshotIndex} kept with this snapshot,
+	 * for renderers to find the visible ones. Adding or clearing shapes
+	 * discards it.
+	 * @return the index
+	 * @see SnapshotBuffer#setIndexed(boolean)
+	 * @since 1.1
+	 */
+	public SnapshotIndex buildIndex() {
+		if (index == null) {
+			index = new SnapshotIndex();
+		}
+		index.build(this);
+		indexed = true;
+		return index;
+	}
+
+	/**
+	 * @return the index over the current shapes, or {@code null} if none was
+	 * built since they last changed
+	 * @since 1.1
+	 */
+	public SnapshotIndex getIndex() {
+		return indexed ? index : null;
+	}
+
+	/**
+	 * @return the number of the step this snapshot shows, counting from
+	 * {@code 1}, or {@code 0} if none was published yet
+	 * @since 1.1
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} this snapshot was published at
+	 * @since 1.1
+	 */
+	public long getTime() {
+		return time;
+	}
+}
@@ -0,0 +1,38 @@
+package animation;
+
+/**
+ * The state of a simulation and the step that advances it, independent of any
+ * display. An {@link Animation} wraps a {@code Simulation} to show it on
+ * screen, while a {@link HeadlessRunner} steps it as fast as possible.
+ *
+ * @see Animation#setSimulation(Simulation)
+ * @see HeadlessRunner
+ * @since 1.1
+ */
+public interface Simulation {
+
+	/**
+	 * Advances this {@code Simulation} by one step.
+	 * @since 1.1
+	 */
+	void step();
+
+	/**
+	 * @return the amount of movers advanced by each {@link #step()}, used for
+	 * throughput reports
+	 * @since 1.1
+	 */
+	default int getMoverCount() {
+		return 0;
+	}
+
+	/**
+	 * Appends the renderable state of this {@code Simulation} after its last
+	 * step to the specified empty snapshot. By default nothing is appended.
+	 * @param out - the specified snapshot
+	 * @see Animation#setSnapshotBuffer(SnapshotBuffer)
+	 * @since 1.1
+	 */
+	default void snapshot(RenderSnapshot out) {
+	}
+}
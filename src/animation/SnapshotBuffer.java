@@ -0,0 +1,133 @@
+package animation;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands {@link RenderSnapshot}s from one simulation thread to one render
+ * thread without either ever waiting for the other, by triple buffering.
+ * The writer fills its own back snapshot and publishes it by swapping it with
+ * the shared middle one; the reader takes the middle one by swapping it with
+ * its own front snapshot whenever a newer one was published. At every moment
+ * each of the three snapshots belongs to exactly one of writer, reader and
+ * middle slot, so the reader always sees a complete frame, the latest one
+ * published, and a slow reader only causes frames to be skipped.
+ * <pre>
+ * // simulation thread, after each step
+ * RenderSnapshot back = buffer.beginWrite();
+ * ... back.add(x, y, w, h, argb) for every shape ...
+ * buffer.publish();
+ *
+ * // render thread
+ * RenderSnapshot front = buffer.acquire();
+ * ... draw front ...
+ * </pre>
+ *
+ * @see Simulation#snapshot(RenderSnapshot)
+ * @since 1.1
+ */
+public class SnapshotBuffer {
+
+	/**
+	 * The snapshot last published and not yet acquired, or the one the reader
+	 * last handed back.
+	 * @since 1.1
+	 */
+	private final AtomicReference<RenderSnapshot> middle;
+
+	/**
+	 * The snapshot only the writer uses.
+	 * @since 1.1
+	 */
+	private RenderSnapshot back;
+
+	/**
+	 * The snapshot only the reader uses.
+	 * @since 1.1
+	 */
+	private RenderSnapshot front;
+
+	/**
+	 * The number of the last snapshot published.
+	 * @since 1.1
+	 */
+	private long sequence;
+
+	/**
+	 * Whether {@link #publish()} indexes each snapshot.
+	 * @since 1.1
+	 */
+	private volatile boolean indexed;
+
+	/**
+	 * Creates a {@code SnapshotBuffer} whose snapshots start with room for the
+	 * specified amount of shapes.
+	 * @param capacity - the specified amount
+	 * @since 1.1
+	 */
+	public SnapshotBuffer(int capacity) {
+		back = new RenderSnapshot(capacity);
+		front = new RenderSnapshot(capacity);
+		middle = new AtomicReference<>(new RenderSnapshot(capacity));
+	}
+
+	/**
+	 * Returns the writer's snapshot, emptied, to fill with the next frame.
+	 * Only the simulation thread may call this.
+	 * @return the snapshot to write
+	 * @since 1.1
+	 */
+	public RenderSnapshot beginWrite() {
+		back.clear();
+		return back;
+	}
+
+	/**
+	 * Publishes the writer's snapshot as the latest frame and takes back a
+	 * free one. Only the simulation thread may call this.
+	 * @since 1.1
+	 */
+	public void publish() {
+		if (indexed) {
+			back.buildIndex();
+		}
+		back.sequence = ++sequence;
+		back.time = System.nanoTime();
+		back = middle.getAndSet(back);
+	}
+
+	/**
+	 * Returns the latest published snapshot, which stays unchanged until the
+	 * next call. When nothing was published since the last call, the same
+	 * snapshot is returned again. Only the render thread may call this.
+	 * @return the latest published snapshot, empty before the first
+	 * @since 1.1
+	 */
+	public RenderSnapshot acquire() {
+		// only the reader puts older snapshots in the middle, so a newer one
+		// seen here stays newer until swapped out
+		if (middle.get().sequence > front.sequence) {
+			front = middle.getAndSet(front);
+		}
+		return front;
+	}
+
+	/**
+	 * Sets whether each snapshot is placed in its {@link SnapshotIndex} as it
+	 * is published, on the simulation thread, so that a renderer drawing only
+	 * the visible shapes does not have to look at every shape itself.
+	 * @param indexed - {@code true} to index snapshots
+	 * @see RenderSnapshot#getIndex()
+	 * @since 1.1
+	 */
+	public void setIndexed(boolean indexed) {
+		this.indexed = indexed;
+	}
+
+	/**
+	 * @return {@code true} if snapshots are indexed as they are published
+	 * @since 1.1
+	 */
+	public boolean isIndexed() {
+		return indexed;
+	}
+}
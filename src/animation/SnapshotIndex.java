@@ -0,0 +1,240 @@
+package animation;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the shapes of a {@link RenderSnapshot}, to find the
+ * shapes overlapping a rectangle, such as the part of the world a
+ * {@link Viewport} shows, without looking at the others.
+ * <br/>
+ * {@link #build(RenderSnapshot)} places every shape in the cell holding its
+ * center with a counting sort, in row order, and keeps only the order: the
+ * bounds are read from the snapshot, which must not change while the index
+ * is used. The grid is dense over the centers' bounding box; its cells
+ * hold about {@value #SHAPES_PER_CELL} shapes each unless a cell size is set,
+ * and are never narrower than the largest shape, nor so many that the grid
+ * outgrows the shapes. A query then walks one contiguous run of shapes per
+ * row of cells it overlaps, so its cost follows the shapes near the
+ * rectangle, not all of them.
+ * <br/>
+ * Building takes a pass over every shape, so it belongs on the thread writing
+ * the snapshot; see {@link SnapshotBuffer#setIndexed(boolean)}.
+ *
+ * @see RenderSnapshot#getIndex()
+ * @since 1.1
+ */
+public class SnapshotIndex {
+
+	/**
+	 * The amount of shapes per cell the automatic cell size aims for.
+	 * @since 1.1
+	 */
+	private static final int SHAPES_PER_CELL = 4;
+
+	/**
+	 * The most cells per shape of a grid.
+	 * @since 1.1
+	 */
+	private static final int CELLS_PER_SHAPE = 2;
+
+	private double cellSize;
+	private double cell;
+	private double originX, originY;
+	private int columns, rows;
+
+	/**
+	 * The largest width and height of any shape.
+	 * @since 1.1
+	 */
+	private double largestWidth, largestHeight;
+
+	/**
+	 * The shapes of cell {@code c}, in row order, from {@code start[c]}
+	 * (inclusive) to {@code start[c + 1]} (exclusive) of {@link #sorted},
+	 * and the snapshot they belong to.
+	 * @since 1.1
+	 */
+	private int[] start = new int[1];
+	private int[] sorted = new int[0], cellOf = new int[0];
+	private RenderSnapshot snapshot;
+	private int size;
+
+	/**
+	 * The amount of indices stored by the last query.
+	 * @since 1.1
+	 */
+	private int count;
+
+	/**
+	 * Creates an empty {@code SnapshotIndex} that chooses its own cell size.
+	 * @since 1.1
+	 */
+	public SnapshotIndex() {
+	}
+
+	/**
+	 * Places every shape of the specified snapshot in the grid, replacing
+	 * what it held.
+	 * @param snapshot - the specified snapshot
+	 * @since 1.1
+	 */
+	public void build(RenderSnapshot snapshot) {
+		int n = snapshot.size();
+		if (sorted.length < n) {
+			int capacity = Math.max(n, sorted.length + (sorted.length >> 1));
+			sorted = new int[capacity];
+			cellOf = new int[capacity];
+		}
+		this.snapshot = snapshot;
+		size = n;
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		double largestW = 0, largestH = 0;
+		for (int i = 0; i < n; i++) {
+			float w = snapshot.getWidth(i), h = snapshot.getHeight(i);
+			double x = snapshot.getX(i) + w * 0.5, y = snapshot.getY(i) + h * 0.5;
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			largestW = Math.max(largestW, w);
+			largestH = Math.max(largestH, h);
+		}
+		largestWidth = largestW;
+		largestHeight = largestH;
+		if (n == 0) {
+			columns = 0;
+			rows = 0;
+			start[0] = 0;
+			return;
+		}
+		double spanX = maxX - minX, spanY = maxY - minY;
+		double c = cellSize;
+		if (c <= 0) {
+			c = Math.sqrt(spanX * spanY * SHAPES_PER_CELL / n);
+		}
+		c = Math.max(c, Math.max(Math.max(largestW, largestH), Double.MIN_NORMAL));
+		// coarsen until the grid is no larger than the shapes warrant
+		while ((Math.floor(spanX / c) + 1) * (Math.floor(spanY / c) + 1) > CELLS_PER_SHAPE * (double) n + 16) {
+			c *= 1.5;
+		}
+		cell = c;
+		originX = minX;
+		originY = minY;
+		columns = (int) (spanX / c) + 1;
+		rows = (int) (spanY / c) + 1;
+		int cells = columns * rows;
+
+		if (start.length < cells + 1) {
+			start = new int[Math.max(cells + 1, start.length + (start.length >> 1))];
+		} else {
+			Arrays.fill(start, 0, cells + 1, 0);
+		}
+		for (int i = 0; i < n; i++) {
+			double x = snapshot.getX(i) + snapshot.getWidth(i) * 0.5;
+			double y = snapshot.getY(i) + snapshot.getHeight(i) * 0.5;
+			int col = Math.min(columns - 1, (int) ((x - minX) / c));
+			int row = Math.min(rows - 1, (int) ((y - minY) / c));
+			int k = row * columns + col;
+			cellOf[i] = k;
+			start[k + 1]++;
+		}
+		for (int k = 0; k < cells; k++) {
+			start[k + 1] += start[k];
+		}
+		// place each shape at the next free slot of its cell, using the cell
+		// starts as cursors, then shift them back
+		for (int i = 0; i < n; i++) {
+			sorted[start[cellOf[i]]++] = i;
+		}
+		for (int k = cells; k > 0; k--) {
+			start[k] = start[k - 1];
+		}
+		start[0] = 0;
+	}
+
+	/**
+	 * Stores the indices of the shapes whose bounds overlap the specified
+	 * rectangle in the specified array, grown if too small, in no particular
+	 * order.
+	 * @param minX - the left edge of the rectangle
+	 * @param minY - the top edge of the rectangle
+	 * @param maxX - the right edge of the rectangle
+	 * @param maxY - the bottom edge of the rectangle
+	 * @param out - the specified array
+	 * @return {@code out}, or a larger copy of it, holding the indices first
+	 * @see #getQueryCount()
+	 * @since 1.1
+	 */
+	public int[] query(double minX, double minY, double maxX, double maxY, int[] out) {
+		count = 0;
+		if (size == 0 || maxX < minX || maxY < minY) {
+			return out;
+		}
+		// a shape reaches at most half the largest size beyond its center
+		double c = cell;
+		int col0 = (int) Math.max(0, Math.floor((minX - largestWidth * 0.5 - originX) / c));
+		int col1 = (int) Math.min(columns - 1, Math.floor((maxX + largestWidth * 0.5 - originX) / c));
+		int row0 = (int) Math.max(0, Math.floor((minY - largestHeight * 0.5 - originY) / c));
+		int row1 = (int) Math.min(rows - 1, Math.floor((maxY + largestHeight * 0.5 - originY) / c));
+		if (col0 > col1 || row0 > row1) {
+			return out;
+		}
+		RenderSnapshot snapshot = this.snapshot;
+		int found = 0;
+		for (int row = row0; row <= row1; row++) {
+			// the cells of a row are consecutive, and so are their shapes
+			int to = start[row * columns + col1 + 1];
+			for (int k = start[row * columns + col0]; k < to; k++) {
+				int i = sorted[k];
+				float x = snapshot.getX(i), y = snapshot.getY(i);
+				if (x <= maxX && y <= maxY && x + snapshot.getWidth(i) >= minX
+						&& y + snapshot.getHeight(i) >= minY) {
+					if (found == out.length) {
+						out = Arrays.copyOf(out, Math.max(16, found + (found >> 1)));
+					}
+					out[found++] = i;
+				}
+			}
+		}
+		count = found;
+		return out;
+	}
+
+	/**
+	 * @return the amount of indices stored by the last query
+	 * @since 1.1
+	 */
+	public int getQueryCount() {
+		return count;
+	}
+
+	/**
+	 * @return the amount of shapes in the grid
+	 * @since 1.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the side of the cells of the last build
+	 * @since 1.1
+	 */
+	public double getCellSize() {
+		return cell;
+	}
+
+	/**
+	 * Sets the side of the cells, or {@code 0} to choose one per build. Cells
+	 * are never narrower than the largest shape.
+	 * @param cellSize - the specified side, not negative
+	 * @since 1.1
+	 */
+	public void setCellSize(double cellSize) {
+		if (!(cellSize >= 0)) {
+			throw new IllegalArgumentException("Cell size must not be negative: " + cellSize);
+		}
+		this.cellSize = cellSize;
+	}
+}
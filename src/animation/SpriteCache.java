@@ -0,0 +1,479 @@
+package animation;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Paint;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws filled ellipses with Java2D by blitting sprites, each rasterized once
+ * per distinct appearance into an atlas of images. An appearance is the size
+ * and color of an ellipse, together with where within a pixel it starts,
+ * to a quarter of a pixel, so sprites keep subpixel motion smooth.
+ * <br/>
+ * The appearance is read on every draw, so an ellipse whose size or color
+ * changes, such as a {@code Mover} after {@code setFrame} or {@code setColor},
+ * blits its new sprite right away; sprites no longer drawn age out of the
+ * atlas. Sprites are packed onto shelves of fixed-size pages, created
+ * compatible with the screen when there is one so that they can be kept in
+ * video memory. Once every page is full, the least recently used page is
+ * cleared along with all its sprites, unless it was used so recently that
+ * the atlas is too small for the appearances being drawn, in which case the
+ * ellipse is filled directly. Rendering hints in effect when a sprite
+ * is rasterized are those of {@link #getHints()}; {@link #clear()} after
+ * changing them.
+ * <br/>
+ * A {@code SpriteCache} is meant for the thread that paints and is not safe
+ * for use from several threads.
+ *
+ * @see TiledRasterizer
+ * @since 1.1
+ */
+public class SpriteCache {
+
+	/**
+	 * The default length in pixels of each side of a page.
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 512;
+
+	/**
+	 * The default largest amount of pages.
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_MAX_PAGES = 8;
+
+	/**
+	 * The subpixel positions per pixel along each axis.
+	 * @since 1.1
+	 */
+	private static final int PHASES = 4;
+
+	/**
+	 * The largest width or height, in pixels, of a cached ellipse. Larger
+	 * ones, or those that do not fit a page, are filled directly.
+	 * @since 1.1
+	 */
+	private static final int MAX_SPRITE = 1023;
+
+	/**
+	 * The amount of slots of the table of recent sprites, a power of two.
+	 * @since 1.1
+	 */
+	private static final int RECENT = 1 << 12;
+
+	private final GraphicsConfiguration configuration;
+	private final int pageSize;
+	private final int maxPages;
+	private final int maxSprite;
+	private final RenderingHints hints;
+	private final List<Page> pages = new ArrayList<>();
+	private final Map<Long, Sprite> sprites = new HashMap<>();
+
+	/**
+	 * Recently drawn sprites by hash, checked before {@link #sprites} so that
+	 * repeated appearances neither box their key nor hash it twice.
+	 * @since 1.1
+	 */
+	private final Sprite[] recent = new Sprite[RECENT];
+
+	/**
+	 * Counts draws, marking when each page was last used.
+	 * @since 1.1
+	 */
+	private long clock;
+
+	private long hits, misses, evictions, bypasses;
+	private final Ellipse2D.Double oval = new Ellipse2D.Double();
+	private final ColorCache colors = new ColorCache();
+
+	/**
+	 * Creates a {@code SpriteCache} for the default screen, if there is one,
+	 * with the default page size and page count, rasterizing with
+	 * antialiasing.
+	 * @since 1.1
+	 */
+	public SpriteCache() {
+		this(GraphicsEnvironment.isHeadless() ? null
+				: GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+						.getDefaultConfiguration(),
+				DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+	}
+
+	/**
+	 * Creates a {@code SpriteCache}, rasterizing with antialiasing.
+	 * @param configuration - the configuration pages are made compatible with,
+	 * or {@code null} for plain {@link BufferedImage}s
+	 * @param pageSize - the length in pixels of each side of a page
+	 * @param maxPages - the largest amount of pages
+	 * @since 1.1
+	 */
+	public SpriteCache(GraphicsConfiguration configuration, int pageSize, int maxPages) {
+		if (pageSize < 16) {
+			throw new IllegalArgumentException("Page size must be at least 16: " + pageSize);
+		}
+		if (maxPages < 1) {
+			throw new IllegalArgumentException("Page count must be positive: " + maxPages);
+		}
+		this.configuration = configuration;
+		this.pageSize = pageSize;
+		this.maxPages = maxPages;
+		this.maxSprite = Math.min(MAX_SPRITE, pageSize - 4);
+		hints = new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		hints.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+	}
+
+	/**
+	 * Draws the specified ellipse filled with the specified color. A
+	 * {@code null} color fills it with the current paint of the
+	 * {@code Graphics2D} object, without a sprite.
+	 * @param g - the specified {@code Graphics2D} object.
+	 * @param oval - the specified ellipse
+	 * @param color - the specified color, or {@code null}
+	 * @since 1.1
+	 */
+	public void draw(Graphics2D g, Ellipse2D oval, Color color) {
+		if (color == null) {
+			g.fill(oval);
+			return;
+		}
+		fillOval(g, oval.getX(), oval.getY(), oval.getWidth(), oval.getHeight(), color.getRGB());
+	}
+
+	/**
+	 * Draws a filled ellipse within the specified bounds.
+	 * @param g - the specified {@code Graphics2D} object.
+	 * @param x - the x position of the bounds
+	 * @param y - the y position of the bounds
+	 * @param w - the width of the bounds
+	 * @param h - the height of the bounds
+	 * @param argb - the color, with alpha in the high byte
+	 * @since 1.1
+	 */
+	public void fillOval(Graphics2D g, double x, double y, double w, double h, int argb) {
+		clock++;
+		if (!(w > 0 && w <= maxSprite && h > 0 && h <= maxSprite)
+				|| !(Math.abs(x) < Integer.MAX_VALUE / 2 && Math.abs(y) < Integer.MAX_VALUE / 2)) {
+			fill(g, x, y, w, h, argb);
+			return;
+		}
+		double fx = Math.floor(x), fy = Math.floor(y);
+		int ix = (int) fx, iy = (int) fy;
+		int px = (int) Math.round((x - fx) * PHASES), py = (int) Math.round((y - fy) * PHASES);
+		if (px == PHASES) {
+			px = 0;
+			ix++;
+		}
+		if (py == PHASES) {
+			py = 0;
+			iy++;
+		}
+		long key = (long) argb << 32 | (Math.round(w * PHASES) & 0xFFFL) << 20 | (Math.round(h * PHASES) & 0xFFFL) << 8
+				| px << 4 | py;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash >>> 32) & (RECENT - 1);
+		Sprite sprite = recent[slot];
+		if (sprite == null || sprite.key != key) {
+			sprite = sprites.get(key);
+			if (sprite == null) {
+				misses++;
+				if ((sprite = rasterize(key)) == null) {
+					fill(g, x, y, w, h, argb);
+					return;
+				}
+			} else {
+				hits++;
+			}
+			recent[slot] = sprite;
+		} else {
+			hits++;
+		}
+		Page page = sprite.page;
+		page.used = clock;
+		int dx = ix - 1, dy = iy - 1;
+		g.drawImage(page.image, dx, dy, dx + sprite.width, dy + sprite.height, sprite.x, sprite.y,
+				sprite.x + sprite.width, sprite.y + sprite.height, null);
+	}
+
+	/**
+	 * Fills the specified ellipse with Java2D and the hints of sprites,
+	 * without a sprite, restoring the paint and hints of the caller.
+	 * @since 1.1
+	 */
+	private void fill(Graphics2D g, double x, double y, double w, double h, int argb) {
+		if (argb >>> 24 != 0 && w > 0 && h > 0) {
+			RenderingHints saved = g.getRenderingHints();
+			Paint paint = g.getPaint();
+			g.addRenderingHints(hints);
+			g.setPaint(colors.get(argb));
+			oval.setFrame(x, y, w, h);
+			g.fill(oval);
+			g.setPaint(paint);
+			g.setRenderingHints(saved);
+		}
+	}
+
+	/**
+	 * Rasterizes the appearance of the specified key onto a page with room
+	 * for it, evicting the least recently used page if none has. Returns
+	 * {@code null} instead of evicting a page used within the last draws of
+	 * as many ellipses as there are sprites, since the appearances being drawn
+	 * then outnumber what the atlas holds and evicting would only cycle
+	 * through them.
+	 * @since 1.1
+	 */
+	private Sprite rasterize(long key) {
+		double w = (key >>> 20 & 0xFFF) / (double) PHASES;
+		double h = (key >>> 8 & 0xFFF) / (double) PHASES;
+		double px = (key >>> 4 & 0xF) / (double) PHASES;
+		double py = (key & 0xF) / (double) PHASES;
+		// a pixel of padding on every side for antialiasing
+		int width = (int) Math.ceil(px + w) + 2, height = (int) Math.ceil(py + h) + 2;
+		Sprite sprite = null;
+		for (Page page : pages) {
+			if ((sprite = page.allocate(key, width, height)) != null) {
+				break;
+			}
+		}
+		if (sprite == null) {
+			Page page;
+			if (pages.size() < maxPages) {
+				page = new Page(createImage());
+				pages.add(page);
+			} else {
+				page = pages.get(0);
+				for (Page p : pages) {
+					if (p.used < page.used) {
+						page = p;
+					}
+				}
+				if (clock - page.used < sprites.size()) {
+					bypasses++;
+					return null;
+				}
+				evict(page);
+			}
+			sprite = page.allocate(key, width, height);
+		}
+		Graphics2D g = sprite.page.image.createGraphics();
+		try {
+			g.setRenderingHints(hints);
+			g.setPaint(colors.get((int) (key >>> 32)));
+			oval.setFrame(sprite.x + 1 + px, sprite.y + 1 + py, w, h);
+			g.fill(oval);
+		} finally {
+			g.dispose();
+		}
+		sprites.put(key, sprite);
+		return sprite;
+	}
+
+	private BufferedImage createImage() {
+		if (configuration != null) {
+			return configuration.createCompatibleImage(pageSize, pageSize, Transparency.TRANSLUCENT);
+		}
+		return new BufferedImage(pageSize, pageSize, BufferedImage.TYPE_INT_ARGB_PRE);
+	}
+
+	/**
+	 * Forgets every sprite of the specified page and clears its image.
+	 * @since 1.1
+	 */
+	private void evict(Page page) {
+		for (Sprite sprite : page.sprites) {
+			sprites.remove(sprite.key);
+			int slot = (int) (sprite.key * 0x9E3779B97F4A7C15L >>> 32) & (RECENT - 1);
+			if (recent[slot] == sprite) {
+				recent[slot] = null;
+			}
+			evictions++;
+		}
+		page.reset();
+	}
+
+	/**
+	 * Forgets every sprite, such as after changing the rendering hints. The
+	 * counters are kept.
+	 * @since 1.1
+	 */
+	public void clear() {
+		for (Page page : pages) {
+			page.image.flush();
+		}
+		pages.clear();
+		sprites.clear();
+		for (int i = 0; i < RECENT; i++) {
+			recent[i] = null;
+		}
+	}
+
+	/**
+	 * @return the hints sprites are rasterized with, which may be changed
+	 * @since 1.1
+	 */
+	public RenderingHints getHints() {
+		return hints;
+	}
+
+	/**
+	 * @return the amount of draws that blitted an existing sprite
+	 * @since 1.1
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the amount of draws that rasterized a sprite
+	 * @since 1.1
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the amount of sprites evicted with their page
+	 * @since 1.1
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the amount of misses filled directly because the atlas was too
+	 * small for the appearances being drawn
+	 * @since 1.1
+	 */
+	public long getBypasses() {
+		return bypasses;
+	}
+
+	/**
+	 * @return the amount of cached sprites
+	 * @since 1.1
+	 */
+	public int getSpriteCount() {
+		return sprites.size();
+	}
+
+	/**
+	 * @return the amount of pages
+	 * @since 1.1
+	 */
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * @return the length in pixels of each side of a page
+	 * @since 1.1
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	@Override
+	public String toString() {
+		return "SpriteCache[sprites=" + getSpriteCount() + ", pages=" + getPageCount() + ", hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + ", bypasses=" + bypasses + "]";
+	}
+
+	/**
+	 * The place of one appearance in the atlas.
+	 * @since 1.1
+	 */
+	private static final class Sprite {
+
+		final long key;
+		final Page page;
+		final int x, y, width, height;
+
+		Sprite(long key, Page page, int x, int y, int width, int height) {
+			this.key = key;
+			this.page = page;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+	/**
+	 * One image of the atlas, filled with shelves of sprites from the top. A
+	 * sprite goes onto the first shelf tall and wide enough for it, or a new
+	 * shelf of its height.
+	 * @since 1.1
+	 */
+	private final class Page {
+
+		final BufferedImage image;
+		final List<Sprite> sprites = new ArrayList<>();
+
+		/**
+		 * The top, height and used width of every shelf.
+		 */
+		int[] top = new int[4], height = new int[4], filled = new int[4];
+		int shelves;
+		long used;
+
+		Page(BufferedImage image) {
+			this.image = image;
+		}
+
+		/**
+		 * Returns a new sprite of the specified size on this page, or
+		 * {@code null} if it is full.
+		 */
+		Sprite allocate(long key, int w, int h) {
+			int shelf = 0;
+			while (shelf < shelves && (height[shelf] < h || filled[shelf] + w > pageSize)) {
+				shelf++;
+			}
+			if (shelf == shelves) {
+				int bottom = shelves == 0 ? 0 : top[shelves - 1] + height[shelves - 1];
+				if (bottom + h > pageSize) {
+					return null;
+				}
+				if (shelves == top.length) {
+					top = Arrays.copyOf(top, shelves + (shelves >> 1));
+					height = Arrays.copyOf(height, top.length);
+					filled = Arrays.copyOf(filled, top.length);
+				}
+				top[shelves] = bottom;
+				height[shelves] = h;
+				filled[shelves] = 0;
+				shelves++;
+			}
+			Sprite sprite = new Sprite(key, this, filled[shelf], top[shelf], w, h);
+			filled[shelf] += w;
+			sprites.add(sprite);
+			return sprite;
+		}
+
+		/**
+		 * Empties this page and clears its image to transparent.
+		 */
+		void reset() {
+			sprites.clear();
+			shelves = 0;
+			Graphics2D g = image.createGraphics();
+			try {
+				g.setComposite(AlphaComposite.Clear);
+				g.fillRect(0, 0, pageSize, pageSize);
+			} finally {
+				g.dispose();
+			}
+		}
+	}
+}
@@ -0,0 +1,394 @@
+package animation;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Draws filled ellipses and rectangles straight into the pixels of an opaque
+ * {@link BufferedImage}, bypassing Java2D shape rasterization. Shapes are
+ * queued with {@link #fillOval(double, double, double, double, int)} and
+ * {@link #fillRect(double, double, double, double, int)} in the order they
+ * should be painted, then {@link #flush()} bins them by the square
+ * tiles of the image they overlap and renders every tile on its own, clearing
+ * it first. Large frames render their tiles on the common
+ * {@link java.util.concurrent.ForkJoinPool}.
+ * <br/>
+ * A pixel is covered when its center lies within a shape, and partly
+ * transparent colors blend over what is below. Each tile paints its shapes in
+ * queue order and no pixel belongs to two tiles, so the image is the same
+ * whether tiles render serially or in parallel.
+ * <br/>
+ * A typical frame queues every shape, then blits the result once with
+ * {@link #draw(Graphics2D)}.
+ *
+ * @since 1.1
+ */
+public class TiledRasterizer {
+
+	/**
+	 * The default length in pixels of each side of a tile.
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_TILE_SIZE = 64;
+
+	/**
+	 * The amount of queued shapes below which tiles always render serially.
+	 * @since 1.1
+	 */
+	private static final int PARALLEL_THRESHOLD = 2048;
+
+	private final int tileSize;
+	private int width, height;
+	private int columns, rows;
+	private BufferedImage image;
+	private int[] pixels;
+	private int background = 0xFFFFFFFF;
+	private boolean parallel = true;
+
+	/**
+	 * The center, radii, color and kind of every queued shape.
+	 * @since 1.1
+	 */
+	private double[] cx = new double[0], cy = new double[0], rx = new double[0], ry = new double[0];
+	private int[] color = new int[0];
+	private boolean[] rect = new boolean[0];
+	private int size;
+
+	/**
+	 * Copies of the queued shapes overlapping each tile, in queue order, from
+	 * index {@code start[t]} to {@code start[t + 1]}, so that each tile reads
+	 * its shapes sequentially.
+	 * @since 1.1
+	 */
+	private int[] start = new int[1];
+	private double[] bx = new double[0], by = new double[0], brx = new double[0], bry = new double[0];
+	private int[] bcolor = new int[0];
+	private boolean[] brect = new boolean[0];
+
+	/**
+	 * Creates a {@code TiledRasterizer} with an image of the specified size
+	 * and the default tile size.
+	 * @param width - the specified width in pixels
+	 * @param height - the specified height in pixels
+	 * @since 1.1
+	 */
+	public TiledRasterizer(int width, int height) {
+		this(width, height, DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * Creates a {@code TiledRasterizer} with an image of the specified size.
+	 * @param width - the specified width in pixels
+	 * @param height - the specified height in pixels
+	 * @param tileSize - the length in pixels of each side of a tile
+	 * @since 1.1
+	 */
+	public TiledRasterizer(int width, int height, int tileSize) {
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+		}
+		this.tileSize = tileSize;
+		setSize(width, height);
+	}
+
+	/**
+	 * Resizes the image, if its size differs, discarding its pixels. Queued
+	 * shapes are kept.
+	 * @param width - the specified width in pixels
+	 * @param height - the specified height in pixels
+	 * @since 1.1
+	 */
+	public void setSize(int width, int height) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("Size must be positive: " + width + "x" + height);
+		}
+		if (image != null && width == this.width && height == this.height) {
+			return;
+		}
+		this.width = width;
+		this.height = height;
+		columns = (width + tileSize - 1) / tileSize;
+		rows = (height + tileSize - 1) / tileSize;
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		start = new int[columns * rows + 1];
+	}
+
+	/**
+	 * Queues a filled ellipse within the specified bounds, like
+	 * {@link Graphics2D#fill(java.awt.Shape)} of an
+	 * {@link java.awt.geom.Ellipse2D}.
+	 * @param x - the x position of the bounds
+	 * @param y - the y position of the bounds
+	 * @param w - the width of the bounds
+	 * @param h - the height of the bounds
+	 * @param argb - the color, with alpha in the high byte
+	 * @since 1.1
+	 */
+	public void fillOval(double x, double y, double w, double h, int argb) {
+		queue(x, y, w, h, argb, false);
+	}
+
+	/**
+	 * Queues a filled rectangle, like
+	 * {@link Graphics2D#fill(java.awt.Shape)} of a
+	 * {@link java.awt.geom.Rectangle2D}. A rectangle of one pixel at whole
+	 * coordinates covers exactly that pixel.
+	 * @param x - the x position of the rectangle
+	 * @param y - the y position of the rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param argb - the color, with alpha in the high byte
+	 * @since 1.1
+	 */
+	public void fillRect(double x, double y, double w, double h, int argb) {
+		queue(x, y, w, h, argb, true);
+	}
+
+	private void queue(double x, double y, double w, double h, int argb, boolean rectangle) {
+		if (size == cx.length) {
+			int capacity = Math.max(16, size + (size >> 1));
+			cx = Arrays.copyOf(cx, capacity);
+			cy = Arrays.copyOf(cy, capacity);
+			rx = Arrays.copyOf(rx, capacity);
+			ry = Arrays.copyOf(ry, capacity);
+			color = Arrays.copyOf(color, capacity);
+			rect = Arrays.copyOf(rect, capacity);
+		}
+		rx[size] = w / 2;
+		ry[size] = h / 2;
+		cx[size] = x + rx[size];
+		cy[size] = y + ry[size];
+		color[size] = argb;
+		rect[size] = rectangle;
+		size++;
+	}
+
+	/**
+	 * Clears the image to the background and renders the queued shapes into
+	 * it, then empties the queue.
+	 * @since 1.1
+	 */
+	public void flush() {
+		bin();
+		int tiles = columns * rows;
+		if (parallel && size >= PARALLEL_THRESHOLD) {
+			IntStream.range(0, tiles).parallel().forEach(this::renderTile);
+		} else {
+			for (int t = 0; t < tiles; t++) {
+				renderTile(t);
+			}
+		}
+		size = 0;
+	}
+
+	/**
+	 * Flushes the queued shapes and draws the image at the origin of the
+	 * specified {@code Graphics2D} object.
+	 * @param g - the specified {@code Graphics2D} object.
+	 * @since 1.1
+	 */
+	public void draw(Graphics2D g) {
+		flush();
+		g.drawImage(image, 0, 0, null);
+	}
+
+	/**
+	 * Sorts the queued shapes into the tiles their bounds overlap, keeping
+	 * queue order within each tile, with a counting sort.
+	 * @since 1.1
+	 */
+	private void bin() {
+		Arrays.fill(start, 0);
+		int total = 0;
+		for (int i = 0; i < size; i++) {
+			int left = Math.max(0, tileOf(cx[i] - rx[i], columns));
+			int right = Math.min(columns - 1, tileOf(cx[i] + rx[i], columns));
+			int top = Math.max(0, tileOf(cy[i] - ry[i], rows));
+			int bottom = Math.min(rows - 1, tileOf(cy[i] + ry[i], rows));
+			if (left > right || top > bottom) {
+				continue;
+			}
+			for (int ty = top; ty <= bottom; ty++) {
+				for (int tx = left; tx <= right; tx++) {
+					start[ty * columns + tx + 1]++;
+				}
+			}
+			total += (right - left + 1) * (bottom - top + 1);
+		}
+		for (int t = 1; t < start.length; t++) {
+			start[t] += start[t - 1];
+		}
+		if (bx.length < total) {
+			int capacity = Math.max(total, bx.length + (bx.length >> 1));
+			bx = new double[capacity];
+			by = new double[capacity];
+			brx = new double[capacity];
+			bry = new double[capacity];
+			bcolor = new int[capacity];
+			brect = new boolean[capacity];
+		}
+		// fill from the back so that start[t] ends up at the tile's first shape
+		for (int i = size - 1; i >= 0; i--) {
+			int left = Math.max(0, tileOf(cx[i] - rx[i], columns));
+			int right = Math.min(columns - 1, tileOf(cx[i] + rx[i], columns));
+			int top = Math.max(0, tileOf(cy[i] - ry[i], rows));
+			int bottom = Math.min(rows - 1, tileOf(cy[i] + ry[i], rows));
+			if (left > right || top > bottom) {
+				continue;
+			}
+			for (int ty = top; ty <= bottom; ty++) {
+				for (int tx = left; tx <= right; tx++) {
+					int k = --start[ty * columns + tx + 1];
+					bx[k] = cx[i];
+					by[k] = cy[i];
+					brx[k] = rx[i];
+					bry[k] = ry[i];
+					bcolor[k] = color[i];
+					brect[k] = rect[i];
+				}
+			}
+		}
+		// start[t + 1] now holds the first shape of tile t; shift it back
+		System.arraycopy(start, 1, start, 0, start.length - 1);
+		start[start.length - 1] = total;
+	}
+
+	/**
+	 * Returns the tile along one axis of the specified pixel coordinate,
+	 * clamped to {@code -1} before the first and {@code count} after the last.
+	 * @since 1.1
+	 */
+	private int tileOf(double p, int count) {
+		if (!(p >= 0)) {
+			return p < 0 ? -1 : count;
+		}
+		return (int) Math.min(p / tileSize, count);
+	}
+
+	/**
+	 * Clears the specified tile and paints its shapes in queue order, each
+	 * clipped to the tile, a row span at a time.
+	 * @since 1.1
+	 */
+	private void renderTile(int t) {
+		int tx = t % columns, ty = t / columns;
+		int x0 = tx * tileSize, x1 = Math.min(x0 + tileSize, width) - 1;
+		int y0 = ty * tileSize, y1 = Math.min(y0 + tileSize, height) - 1;
+		int[] pixels = this.pixels;
+		for (int y = y0; y <= y1; y++) {
+			Arrays.fill(pixels, y * width + x0, y * width + x1 + 1, background);
+		}
+		for (int k = start[t], end = start[t + 1]; k < end; k++) {
+			double cx = bx[k], cy = by[k], rx = brx[k], ry = bry[k];
+			int argb = bcolor[k];
+			boolean rectangle = brect[k];
+			int alpha = argb >>> 24;
+			if (alpha == 0 || !(rx > 0) || !(ry > 0)) {
+				continue;
+			}
+			// pixel centers are at half coordinates
+			int top = Math.max(y0, (int) Math.ceil(cy - ry - 0.5));
+			int bottom = Math.min(y1, (int) Math.floor(cy + ry - 0.5));
+			for (int y = top; y <= bottom; y++) {
+				double half = rx;
+				if (!rectangle) {
+					double v = (y + 0.5 - cy) / ry;
+					half *= Math.sqrt(Math.max(0, 1 - v * v));
+				}
+				int left = Math.max(x0, (int) Math.ceil(cx - half - 0.5));
+				int right = Math.min(x1, (int) Math.floor(cx + half - 0.5));
+				if (left > right) {
+					continue;
+				}
+				int row = y * width;
+				if (alpha == 0xFF) {
+					// spans are short; a plain loop beats Arrays.fill here
+					for (int p = row + left; p <= row + right; p++) {
+						pixels[p] = argb;
+					}
+				} else {
+					for (int p = row + left; p <= row + right; p++) {
+						pixels[p] = blend(argb, alpha, pixels[p]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Blends the specified color over an opaque pixel.
+	 * @since 1.1
+	 */
+	private static int blend(int argb, int alpha, int dst) {
+		int inverse = 0xFF - alpha;
+		int r = ((argb >> 16 & 0xFF) * alpha + (dst >> 16 & 0xFF) * inverse + 127) / 0xFF;
+		int g = ((argb >> 8 & 0xFF) * alpha + (dst >> 8 & 0xFF) * inverse + 127) / 0xFF;
+		int b = ((argb & 0xFF) * alpha + (dst & 0xFF) * inverse + 127) / 0xFF;
+		return 0xFF000000 | r << 16 | g << 8 | b;
+	}
+
+	/**
+	 * @return the image rendered into, whose pixels change on every
+	 * {@link #flush()}
+	 * @since 1.1
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * @return the amount of shapes queued since the last {@link #flush()}
+	 * @since 1.1
+	 */
+	public int getQueued() {
+		return size;
+	}
+
+	/**
+	 * @return the length in pixels of each side of a tile
+	 * @since 1.1
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @return the color every tile is cleared to
+	 * @since 1.1
+	 */
+	public int getBackground() {
+		return background;
+	}
+
+	/**
+	 * Sets the color every tile is cleared to. Its alpha is ignored.
+	 * @param rgb - the specified color
+	 * @since 1.1
+	 */
+	public void setBackground(int rgb) {
+		this.background = 0xFF000000 | rgb;
+	}
+
+	/**
+	 * @return {@code true} if tiles of large frames render in parallel
+	 * @since 1.1
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Selects whether tiles of large frames render on the common
+	 * {@link java.util.concurrent.ForkJoinPool}. The image is the same either
+	 * way.
+	 * @param parallel - {@code true} to run in parallel
+	 * @since 1.1
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+}
@@ -0,0 +1,220 @@
+package animation;
+
+import java.awt.Component;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * The part of the world a panel shows: the world location at its top-left
+ * corner and the scale, in pixels per world unit, it is drawn at. A world
+ * point {@code (x,y)} is drawn at
+ * {@code ((x - getX()) * getScale(), (y - getY()) * getScale())}.
+ * <br/>
+ * {@link #attach(Component)} lets the mouse zoom with the wheel, around the
+ * pointer, and pan by dragging. A viewport is changed on the event thread
+ * and read by the render thread; every value is volatile, so a frame drawn
+ * during a change sees it at the latest by the next frame.
+ *
+ * @see ViewportRenderer
+ * @since 1.1
+ */
+public class Viewport {
+
+	/**
+	 * The factor one notch of the mouse wheel zooms by.
+	 * @since 1.1
+	 */
+	private static final double WHEEL_ZOOM = 1.1;
+
+	private volatile double x, y;
+	private volatile double scale = 1;
+	private volatile double minScale = 1.0 / 64, maxScale = 64;
+
+	/**
+	 * Creates a {@code Viewport} showing the world from {@code (0,0)} at a
+	 * scale of {@code 1}.
+	 * @since 1.1
+	 */
+	public Viewport() {
+	}
+
+	/**
+	 * Zooms by the specified factor, keeping the world point under the
+	 * specified panel location where it is. The scale stays within
+	 * {@link #getMinScale()} and {@link #getMaxScale()}.
+	 * @param factor - the specified factor, above {@code 1} to zoom in
+	 * @param px - the x location on the panel
+	 * @param py - the y location on the panel
+	 * @since 1.1
+	 */
+	public void zoom(double factor, double px, double py) {
+		if (!(factor > 0)) {
+			throw new IllegalArgumentException("Factor must be positive: " + factor);
+		}
+		double wx = toWorldX(px), wy = toWorldY(py);
+		double s = Math.max(minScale, Math.min(maxScale, scale * factor));
+		scale = s;
+		x = wx - px / s;
+		y = wy - py / s;
+	}
+
+	/**
+	 * Moves the world by the specified distance on the panel, as when
+	 * dragging it.
+	 * @param dx - the x distance in pixels
+	 * @param dy - the y distance in pixels
+	 * @since 1.1
+	 */
+	public void pan(double dx, double dy) {
+		double s = scale;
+		x -= dx / s;
+		y -= dy / s;
+	}
+
+	/**
+	 * @param wx - the specified world x location
+	 * @return the x location on the panel it is drawn at
+	 * @since 1.1
+	 */
+	public double toScreenX(double wx) {
+		return (wx - x) * scale;
+	}
+
+	/**
+	 * @param wy - the specified world y location
+	 * @return the y location on the panel it is drawn at
+	 * @since 1.1
+	 */
+	public double toScreenY(double wy) {
+		return (wy - y) * scale;
+	}
+
+	/**
+	 * @param px - the specified x location on the panel
+	 * @return the world x location drawn there
+	 * @since 1.1
+	 */
+	public double toWorldX(double px) {
+		return x + px / scale;
+	}
+
+	/**
+	 * @param py - the specified y location on the panel
+	 * @return the world y location drawn there
+	 * @since 1.1
+	 */
+	public double toWorldY(double py) {
+		return y + py / scale;
+	}
+
+	/**
+	 * Lets the mouse on the specified component zoom and pan this viewport:
+	 * the wheel zooms around the pointer and dragging pans.
+	 * @param component - the specified component
+	 * @since 1.1
+	 */
+	public void attach(Component component) {
+		MouseAdapter mouse = new MouseAdapter() {
+			private int lastX, lastY;
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				lastX = e.getX();
+				lastY = e.getY();
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				pan(e.getX() - lastX, e.getY() - lastY);
+				lastX = e.getX();
+				lastY = e.getY();
+			}
+
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				zoom(Math.pow(WHEEL_ZOOM, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+			}
+		};
+		component.addMouseListener(mouse);
+		component.addMouseMotionListener(mouse);
+		component.addMouseWheelListener(mouse);
+	}
+
+	/**
+	 * @return the world x location at the left edge of the panel
+	 * @since 1.1
+	 */
+	public double getX() {
+		return x;
+	}
+
+	/**
+	 * @return the world y location at the top edge of the panel
+	 * @since 1.1
+	 */
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * Sets the world location shown at the top-left corner of the panel.
+	 * @param x - the specified x location
+	 * @param y - the specified y location
+	 * @since 1.1
+	 */
+	public void setLocation(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * @return the pixels per world unit
+	 * @since 1.1
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Sets the pixels per world unit, keeping the top-left corner in place.
+	 * @param scale - the specified scale, greater than {@code 0}
+	 * @since 1.1
+	 */
+	public void setScale(double scale) {
+		if (!(scale > 0)) {
+			throw new IllegalArgumentException("Scale must be positive: " + scale);
+		}
+		this.scale = scale;
+	}
+
+	/**
+	 * @return the smallest scale zooming goes to
+	 * @since 1.1
+	 */
+	public double getMinScale() {
+		return minScale;
+	}
+
+	/**
+	 * @return the largest scale zooming goes to
+	 * @since 1.1
+	 */
+	public double getMaxScale() {
+		return maxScale;
+	}
+
+	/**
+	 * Sets the range of scales zooming stays within.
+	 * @param minScale - the smallest scale, greater than {@code 0}
+	 * @param maxScale - the largest scale, at least {@code minScale}
+	 * @since 1.1
+	 */
+	public void setScaleRange(double minScale, double maxScale) {
+		if (!(minScale > 0) || !(maxScale >= minScale)) {
+			throw new IllegalArgumentException("Invalid scale range: " + minScale + " to " + maxScale);
+		}
+		this.minScale = minScale;
+		this.maxScale = maxScale;
+	}
+}
@@ -0,0 +1,445 @@
+package animation;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws the shapes of a {@link RenderSnapshot} through a {@link Viewport},
+ * skipping those outside the panel and drawing the rest as cheaply as their
+ * size on screen allows:
+ * <ul>
+ * <li>at least {@link #getOvalSize()} pixels across, a full antialiased
+ * ellipse, through a {@link SpriteCache} if one is set;</li>
+ * <li>at least {@link #getRectSize()} pixels across, a filled
+ * rectangle;</li>
+ * <li>smaller, a single pixel at its center.</li>
+ * </ul>
+ * Single pixels are set in a transparent layer the size of the panel, a
+ * later shape replacing an earlier one on the same pixel, and the layer is
+ * drawn in one blit, so zoomed far out each shape costs a store rather than
+ * a call into Java2D. A larger shape drawn over a pixel still in the layer
+ * has the layer blitted first, so that pixels never paint over the later
+ * shapes that cover them. Shapes can also be queued on a
+ * {@link TiledRasterizer} instead, at the same detail.
+ * The visible shapes are found through the {@link SnapshotIndex} of the
+ * snapshot if it has one, such as from an indexed {@link SnapshotBuffer}, so
+ * the cost of a frame follows the shapes on screen rather than all of them.
+ * Without one, the renderer indexes the snapshot itself each frame, which
+ * still spares drawing the hidden shapes. Visible shapes are drawn in
+ * snapshot order, so overlapping shapes paint as they would uncut; many
+ * visible shapes are put in order through a bit per shape instead of a
+ * sort.
+ * <br/>
+ * A {@code ViewportRenderer} belongs to one render thread.
+ *
+ * @see Viewport
+ * @since 1.1
+ */
+public class ViewportRenderer {
+
+	/**
+	 * How a visible shape is drawn.
+	 * @since 1.1
+	 */
+	public enum Detail {
+
+		/**
+		 * A full antialiased ellipse.
+		 * @since 1.1
+		 */
+		OVAL,
+
+		/**
+		 * A filled rectangle over the bounds.
+		 * @since 1.1
+		 */
+		RECT,
+
+		/**
+		 * A single pixel at the center.
+		 * @since 1.1
+		 */
+		PIXEL
+	}
+
+	private double ovalSize = 3, rectSize = 1.5;
+	private SpriteCache sprites;
+
+	/**
+	 * The index used when a snapshot has none.
+	 * @since 1.1
+	 */
+	private final SnapshotIndex index = new SnapshotIndex();
+
+	/**
+	 * The indices of the visible shapes of the last cull, in snapshot order.
+	 * @since 1.1
+	 */
+	private int[] visible = new int[0];
+	private int visibleCount;
+	private int ovals, rects, pixels;
+	private final Ellipse2D.Double oval = new Ellipse2D.Double();
+	private final ColorCache colors = new ColorCache();
+
+	/**
+	 * A bit per shape of the snapshot, set for the visible ones.
+	 * @since 1.1
+	 */
+	private long[] marks = new long[0];
+
+	/**
+	 * The layer shapes drawn as single pixels are set in, with the bounds of
+	 * the pixels set since it was last cleared.
+	 * @since 1.1
+	 */
+	private BufferedImage layer;
+	private int[] layerPixels;
+	private int layerMinX, layerMinY, layerMaxX, layerMaxY;
+
+	/**
+	 * Finds the shapes of the specified snapshot that overlap a panel of the
+	 * specified size through the specified viewport.
+	 * @param snapshot - the specified snapshot
+	 * @param viewport - the specified viewport
+	 * @param width - the width of the panel
+	 * @param height - the height of the panel
+	 * @return the amount of visible shapes
+	 * @see #getVisible(int)
+	 * @since 1.1
+	 */
+	public int cull(RenderSnapshot snapshot, Viewport viewport, int width, int height) {
+		return cull(snapshot, viewport, 0, 0, width, height);
+	}
+
+	private int cull(RenderSnapshot snapshot, Viewport viewport, int x, int y, int width, int height) {
+		SnapshotIndex index = snapshot.getIndex();
+		if (index == null) {
+			index = this.index;
+			index.build(snapshot);
+		}
+		visible = index.query(viewport.toWorldX(x), viewport.toWorldY(y), viewport.toWorldX(x + width),
+				viewport.toWorldY(y + height), visible);
+		visibleCount = index.getQueryCount();
+		order(snapshot.size());
+		return visibleCount;
+	}
+
+	/**
+	 * Puts the visible indices in snapshot order: by sorting when they are
+	 * few, otherwise by marking each in a bit set and reading the set back,
+	 * which takes a pass over a bit per shape.
+	 * @since 1.1
+	 */
+	private void order(int size) {
+		int n = visibleCount;
+		if (n < 256 || n < size >> 6) {
+			Arrays.sort(visible, 0, n);
+			return;
+		}
+		int words = (size + 63) >> 6;
+		if (marks.length < words) {
+			marks = new long[words];
+		}
+		for (int k = 0; k < n; k++) {
+			int i = visible[k];
+			marks[i >> 6] |= 1L << i;
+		}
+		int k = 0;
+		for (int w = 0; w < words; w++) {
+			long bits = marks[w];
+			marks[w] = 0;
+			while (bits != 0) {
+				visible[k++] = w << 6 | Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
+	}
+
+	/**
+	 * @param k - the specified position, below the amount returned by the
+	 * last cull
+	 * @return the index in the snapshot of the visible shape at {@code k}
+	 * @since 1.1
+	 */
+	public int getVisible(int k) {
+		return visible[k];
+	}
+
+	/**
+	 * Draws the visible shapes of the specified snapshot through the specified
+	 * viewport, within the clip of the specified {@code Graphics2D} object or,
+	 * without one, a panel of the specified size.
+	 * @param g - the specified {@code Graphics2D} object
+	 * @param snapshot - the specified snapshot
+	 * @param viewport - the specified viewport
+	 * @param width - the width of the panel
+	 * @param height - the height of the panel
+	 * @return the amount of shapes drawn
+	 * @since 1.1
+	 */
+	public int render(Graphics2D g, RenderSnapshot snapshot, Viewport viewport, int width, int height) {
+		Rectangle clip = g.getClipBounds();
+		if (clip != null) {
+			cull(snapshot, viewport, clip.x, clip.y, clip.width, clip.height);
+		} else {
+			cull(snapshot, viewport, 0, 0, width, height);
+		}
+		ovals = 0;
+		rects = 0;
+		pixels = 0;
+		prepareLayer(Math.max(1, width), Math.max(1, height));
+		Object antialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		double scale = viewport.getScale(), originX = viewport.getX(), originY = viewport.getY();
+		Color color = null;
+		for (int k = 0; k < visibleCount; k++) {
+			int i = visible[k];
+			double w = snapshot.getWidth(i) * scale, h = snapshot.getHeight(i) * scale;
+			double x = (snapshot.getX(i) - originX) * scale, y = (snapshot.getY(i) - originY) * scale;
+			int argb = snapshot.getColor(i);
+			Detail detail = getDetail(Math.max(w, h));
+			if (detail == Detail.PIXEL) {
+				plot(x + w * 0.5, y + h * 0.5, argb);
+				pixels++;
+				continue;
+			}
+			if (layerMaxX >= 0 && isLayerSet(x, y, w, h)) {
+				drawLayer(g);
+			}
+			if (detail == Detail.OVAL && sprites != null) {
+				sprites.fillOval(g, x, y, w, h, argb);
+				color = null; // a sprite may set its own paint
+				ovals++;
+				continue;
+			}
+			if (color == null || color.getRGB() != argb) {
+				color = colors.get(argb);
+				g.setPaint(color);
+			}
+			if (detail == Detail.OVAL) {
+				oval.setFrame(x, y, w, h);
+				g.fill(oval);
+				ovals++;
+			} else {
+				g.fillRect((int) Math.floor(x), (int) Math.floor(y), Math.max(1, (int) Math.round(w)),
+						Math.max(1, (int) Math.round(h)));
+				rects++;
+			}
+		}
+		if (antialiasing != null) {
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+		}
+		drawLayer(g);
+		return visibleCount;
+	}
+
+	/**
+	 * Queues the visible shapes of the specified snapshot through the
+	 * specified viewport on the specified rasterizer, in snapshot order and
+	 * at the same detail as {@link #render(Graphics2D, RenderSnapshot,
+	 * Viewport, int, int)}: ellipses, rectangles, or a single pixel. The
+	 * rasterizer is not flushed.
+	 * @param rasterizer - the specified rasterizer
+	 * @param snapshot - the specified snapshot
+	 * @param viewport - the specified viewport
+	 * @param width - the width of the panel
+	 * @param height - the height of the panel
+	 * @return the amount of shapes queued
+	 * @since 1.1
+	 */
+	public int render(TiledRasterizer rasterizer, RenderSnapshot snapshot, Viewport viewport, int width,
+			int height) {
+		cull(snapshot, viewport, 0, 0, width, height);
+		ovals = 0;
+		rects = 0;
+		pixels = 0;
+		double scale = viewport.getScale(), originX = viewport.getX(), originY = viewport.getY();
+		for (int k = 0; k < visibleCount; k++) {
+			int i = visible[k];
+			double w = snapshot.getWidth(i) * scale, h = snapshot.getHeight(i) * scale;
+			double x = (snapshot.getX(i) - originX) * scale, y = (snapshot.getY(i) - originY) * scale;
+			int argb = snapshot.getColor(i);
+			switch (getDetail(Math.max(w, h))) {
+			case OVAL:
+				rasterizer.fillOval(x, y, w, h, argb);
+				ovals++;
+				break;
+			case RECT:
+				rasterizer.fillRect(Math.floor(x), Math.floor(y), Math.max(1, Math.round(w)),
+						Math.max(1, Math.round(h)), argb);
+				rects++;
+				break;
+			default:
+				rasterizer.fillRect(Math.floor(x + w * 0.5), Math.floor(y + h * 0.5), 1, 1, argb);
+				pixels++;
+			}
+		}
+		return visibleCount;
+	}
+
+	/**
+	 * Sizes the pixel layer to the panel and resets its bounds.
+	 * @since 1.1
+	 */
+	private void prepareLayer(int width, int height) {
+		if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+			layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			layerPixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+		}
+		layerMinX = Integer.MAX_VALUE;
+		layerMinY = Integer.MAX_VALUE;
+		layerMaxX = -1;
+		layerMaxY = -1;
+	}
+
+	/**
+	 * Sets the pixel at the specified location of the layer, if on it.
+	 * @since 1.1
+	 */
+	private void plot(double x, double y, int argb) {
+		if (!(x >= 0 && y >= 0 && x < layer.getWidth() && y < layer.getHeight())) {
+			return;
+		}
+		int px = (int) x, py = (int) y;
+		layerPixels[py * layer.getWidth() + px] = argb;
+		layerMinX = Math.min(layerMinX, px);
+		layerMinY = Math.min(layerMinY, py);
+		layerMaxX = Math.max(layerMaxX, px);
+		layerMaxY = Math.max(layerMaxY, py);
+	}
+
+	/**
+	 * Returns {@code true} if a pixel of the layer within the specified
+	 * bounds, widened by a pixel for antialiasing, is set.
+	 * @since 1.1
+	 */
+	private boolean isLayerSet(double x, double y, double w, double h) {
+		int x0 = Math.max(layerMinX, (int) Math.floor(x) - 1), x1 = Math.min(layerMaxX, (int) Math.ceil(x + w));
+		int y0 = Math.max(layerMinY, (int) Math.floor(y) - 1), y1 = Math.min(layerMaxY, (int) Math.ceil(y + h));
+		int stride = layer.getWidth();
+		for (int py = y0; py <= y1; py++) {
+			for (int p = py * stride + x0, end = py * stride + x1; p <= end; p++) {
+				if (layerPixels[p] != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Draws the set part of the pixel layer, then clears it.
+	 * @since 1.1
+	 */
+	private void drawLayer(Graphics2D g) {
+		if (layerMaxX < 0) {
+			return;
+		}
+		int x0 = layerMinX, y0 = layerMinY, x1 = layerMaxX + 1, y1 = layerMaxY + 1;
+		g.drawImage(layer, x0, y0, x1, y1, x0, y0, x1, y1, null);
+		int stride = layer.getWidth();
+		for (int y = y0; y < y1; y++) {
+			Arrays.fill(layerPixels, y * stride + x0, y * stride + x1, 0);
+		}
+		layerMinX = Integer.MAX_VALUE;
+		layerMinY = Integer.MAX_VALUE;
+		layerMaxX = -1;
+		layerMaxY = -1;
+	}
+
+	/**
+	 * @param size - the larger side of a shape on screen, in pixels
+	 * @return how a shape of that size is drawn
+	 * @since 1.1
+	 */
+	public Detail getDetail(double size) {
+		if (size >= ovalSize) {
+			return Detail.OVAL;
+		}
+		return size >= rectSize ? Detail.RECT : Detail.PIXEL;
+	}
+
+	/**
+	 * Sets the sizes on screen from which shapes are drawn as ellipses and as
+	 * rectangles; smaller ones are drawn as single pixels.
+	 * @param ovalSize - the specified size for ellipses, in pixels
+	 * @param rectSize - the specified size for rectangles, at most
+	 * {@code ovalSize}
+	 * @since 1.1
+	 */
+	public void setDetailSizes(double ovalSize, double rectSize) {
+		if (!(rectSize >= 0) || !(ovalSize >= rectSize)) {
+			throw new IllegalArgumentException("Invalid detail sizes: " + ovalSize + ", " + rectSize);
+		}
+		this.ovalSize = ovalSize;
+		this.rectSize = rectSize;
+	}
+
+	/**
+	 * @return the size on screen from which shapes are drawn as ellipses
+	 * @since 1.1
+	 */
+	public double getOvalSize() {
+		return ovalSize;
+	}
+
+	/**
+	 * @return the size on screen from which shapes are drawn as rectangles
+	 * @since 1.1
+	 */
+	public double getRectSize() {
+		return rectSize;
+	}
+
+	/**
+	 * Sets the cache ellipses are drawn through, or {@code null} to fill each
+	 * one as a shape.
+	 * @param sprites - the specified cache, or {@code null}
+	 * @since 1.1
+	 */
+	public void setSprites(SpriteCache sprites) {
+		this.sprites = sprites;
+	}
+
+	public SpriteCache getSprites() {
+		return sprites;
+	}
+
+	/**
+	 * @return the amount of shapes found visible by the last cull
+	 * @since 1.1
+	 */
+	public int getVisibleCount() {
+		return visibleCount;
+	}
+
+	/**
+	 * @return the amount of shapes the last render drew as ellipses
+	 * @since 1.1
+	 */
+	public int getOvalCount() {
+		return ovals;
+	}
+
+	/**
+	 * @return the amount of shapes the last render drew as rectangles
+	 * @since 1.1
+	 */
+	public int getRectCount() {
+		return rects;
+	}
+
+	/**
+	 * @return the amount of shapes the last render drew as single pixels
+	 * @since 1.1
+	 */
+	public int getPixelCount() {
+		return pixels;
+	}
+}
@@ -0,0 +1,841 @@
+package benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import animation.ParallelUpdater;
+import animation.RenderSnapshot;
+import animation.SnapshotBuffer;
+import animation.SpriteCache;
+import animation.TiledRasterizer;
+import animation.Viewport;
+import animation.ViewportRenderer;
+import math.Vector2D;
+import noise.FlowField;
+import noise.NoiseCache;
+import noise.NoiseGenerator;
+import physics.CollisionSystem;
+import physics.Gravity;
+import physics.Mover;
+import physics.MoverStore;
+import physics.MoverSystem;
+import storage.Checkpoint;
+import storage.TrajectoryRecorder;
+import storage.TrajectoryReplayer;
+
+/**
+ * The benchmarks for the math, noise, physics, rendering and storage hot paths.
+ * <br/>
+ * Usage: {@code Benchmarks [filter]}, where only benchmarks whose name contains
+ * the filter are run, for example {@code Benchmarks noise.}.
+ *
+ * @see Harness
+ * @since 1.1
+ */
+public class Benchmarks {
+
+	/**
+	 * The mover counts used by the physics benchmarks.
+	 * @since 1.1
+	 */
+	static final int[] MOVER_COUNTS = { 1_000, 10_000, 100_000, 1_000_000 };
+
+	/**
+	 * The octave sizes used by the noise benchmarks.
+	 * @since 1.1
+	 */
+	static final int[] NOISE_SIZES = { 1, 8, 35, 256 };
+
+	public static void main(String[] args) {
+		String filter = args.length > 0 ? args[0] : null;
+		List<Harness.Benchmark> benchmarks = new ArrayList<>();
+		vector(benchmarks);
+		noise(benchmarks);
+		noiseKernels(benchmarks);
+		noiseGrid(benchmarks);
+		noiseCache(benchmarks);
+		flowField(benchmarks);
+		movers(benchmarks);
+		collisions(benchmarks);
+		gravity(benchmarks);
+		render(benchmarks);
+		storage(benchmarks);
+		steering(benchmarks);
+		int failed = new Harness().runAll(benchmarks, filter, Benchmarks.class);
+		System.exit(failed == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Allocating vector helpers against their in-place counterparts.
+	 * @since 1.1
+	 */
+	static void vector(List<Harness.Benchmark> benchmarks) {
+		benchmarks.add(new Harness.Benchmark("vector.sub.allocating", "", 1, () -> {
+			Vector2D a = new Vector2D(3, 4);
+			Vector2D b = new Vector2D(1, 2);
+			return () -> {
+				a.addVector(b);
+				return Vector2D.sub(a, b).getX();
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("vector.sub.inplace", "", 1, () -> {
+			Vector2D a = new Vector2D(3, 4);
+			Vector2D b = new Vector2D(1, 2);
+			Vector2D out = new Vector2D(0, 0);
+			return () -> {
+				a.addVector(b);
+				return Vector2D.sub(a, b, out).getX();
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("vector.normal.allocating", "", 1, () -> {
+			Vector2D a = new Vector2D(3, 4);
+			return () -> {
+				a.add(1);
+				return Vector2D.normal(a).getX();
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("vector.normal.inplace", "", 1, () -> {
+			Vector2D a = new Vector2D(3, 4);
+			Vector2D out = new Vector2D(0, 0);
+			return () -> {
+				a.add(1);
+				return a.normalizeInto(out).getX();
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("vector.limit", "", 1, () -> {
+			Vector2D a = new Vector2D(0, 0);
+			return () -> {
+				a.setLocation(1, 2);
+				a.limit(5);
+				return a.getX();
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("vector.limitSquared", "", 1, () -> {
+			Vector2D a = new Vector2D(0, 0);
+			return () -> {
+				a.setLocation(1, 2);
+				a.limitSquared(5);
+				return a.getX();
+			};
+		}));
+	}
+
+	/**
+	 * 1D, 2D and 3D noise over several octave sizes.
+	 * @since 1.1
+	 */
+	static void noise(List<Harness.Benchmark> benchmarks) {
+		for (int size : NOISE_SIZES) {
+			String params = "size=" + size;
+			benchmarks.add(new Harness.Benchmark("noise.1d", params, 1, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setDefaultSize(size);
+				double[] x = { 0 };
+				return () -> noise.noise(x[0] += 0.37);
+			}));
+			benchmarks.add(new Harness.Benchmark("noise.2d", params, 1, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setDefaultSize(size);
+				double[] x = { 0 };
+				return () -> noise.noise(x[0] += 0.37, 11.5);
+			}));
+			benchmarks.add(new Harness.Benchmark("noise.3d", params, 1, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				double[] x = { 0 };
+				return () -> noise.noise(x[0] += 0.37, 11.5, 3.25, size);
+			}));
+		}
+	}
+
+	/**
+	 * Each {@link NoiseGenerator.Kernel} in 1D, 2D and 3D at the default size,
+	 * against 2D noise taken as the {@code z = 0} slice of 3D noise.
+	 * @since 1.1
+	 */
+	static void noiseKernels(List<Harness.Benchmark> benchmarks) {
+		benchmarks.add(new Harness.Benchmark("noise.kernel.2d", "3d slice", 1, () -> {
+			NoiseGenerator noise = new NoiseGenerator(42);
+			double[] x = { 0 };
+			return () -> noise.noise(x[0] += 0.37, 11.5, 0);
+		}));
+		for (NoiseGenerator.Kernel kernel : NoiseGenerator.Kernel.values()) {
+			String params = "kernel=" + kernel;
+			benchmarks.add(new Harness.Benchmark("noise.kernel.1d", params, 1, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setKernel(kernel);
+				double[] x = { 0 };
+				return () -> noise.noise(x[0] += 0.37);
+			}));
+			benchmarks.add(new Harness.Benchmark("noise.kernel.2d", params, 1, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setKernel(kernel);
+				double[] x = { 0 };
+				return () -> noise.noise(x[0] += 0.37, 11.5);
+			}));
+			benchmarks.add(new Harness.Benchmark("noise.kernel.3d", params, 1, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setKernel(kernel);
+				double[] x = { 0 };
+				return () -> noise.noise(x[0] += 0.37, 11.5, 3.25);
+			}));
+		}
+	}
+
+	/**
+	 * A 256x256 grid filled per point against the bulk {@code fill}, scalar and,
+	 * when the Vector API is available, SIMD.
+	 * @since 1.1
+	 */
+	static void noiseGrid(List<Harness.Benchmark> benchmarks) {
+		int w = 256, h = 256;
+		benchmarks.add(new Harness.Benchmark("noise.grid.pointwise", "256x256", w * h, () -> {
+			NoiseGenerator noise = new NoiseGenerator(42);
+			double[] out = new double[w * h];
+			return () -> {
+				for (int j = 0; j < h; j++) {
+					for (int i = 0; i < w; i++) {
+						out[j * w + i] = noise.noise(i * 0.5, j * 0.5);
+					}
+				}
+				return out[w * h / 2];
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("noise.grid.fill", "256x256", w * h, () -> {
+			NoiseGenerator noise = new NoiseGenerator(42);
+			double[] out = new double[w * h];
+			return () -> {
+				noise.fill(out, 0, 0, 0.5, 0.5, w, h);
+				return out[w * h / 2];
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("noise.grid.fill3d", "256x256", w * h, () -> {
+			NoiseGenerator noise = new NoiseGenerator(42);
+			double[] out = new double[w * h];
+			return () -> {
+				noise.fill(out, 0, 0, 3.25, 0.5, 0.5, w, h);
+				return out[w * h / 2];
+			};
+		}));
+		if (NoiseGenerator.isVectorAvailable()) {
+			benchmarks.add(new Harness.Benchmark("noise.grid.fillVector", "256x256", w * h, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setVectorized(true);
+				double[] out = new double[w * h];
+				return () -> {
+					noise.fill(out, 0, 0, 0.5, 0.5, w, h);
+					return out[w * h / 2];
+				};
+			}));
+			benchmarks.add(new Harness.Benchmark("noise.grid.fillVector3d", "256x256", w * h, () -> {
+				NoiseGenerator noise = new NoiseGenerator(42);
+				noise.setVectorized(true);
+				double[] out = new double[w * h];
+				return () -> {
+					noise.fill(out, 0, 0, 3.25, 0.5, 0.5, w, h);
+					return out[w * h / 2];
+				};
+			}));
+		}
+		benchmarks.add(new Harness.Benchmark("noise.grid.fillParallel", "256x256", w * h, () -> {
+			NoiseGenerator noise = new NoiseGenerator(42);
+			double[] out = new double[w * h];
+			return () -> {
+				noise.fillParallel(out, 0, 0, 3.25, 0.5, 0.5, w, h);
+				return out[w * h / 2];
+			};
+		}));
+	}
+
+	/**
+	 * 2D lookups at slowly drifting points, evaluated directly against answered
+	 * by a {@link NoiseCache}, then a steering step reading either.
+	 * @since 1.1
+	 */
+	static void noiseCache(List<Harness.Benchmark> benchmarks) {
+		int points = 10_000;
+		benchmarks.add(new Harness.Benchmark("noise.cache.lookup", "direct", points, () -> {
+			NoiseGenerator noise = new NoiseGenerator(42);
+			double[] xy = drift(points);
+			return () -> {
+				double sum = 0;
+				for (int i = 0; i < points; i++) {
+					sum += noise.noise(xy[2 * i] += 0.1, xy[2 * i + 1]);
+				}
+				return sum;
+			};
+		}));
+		benchmarks.add(new Harness.Benchmark("noise.cache.lookup", "cached", points, () -> {
+			NoiseCache cache = new NoiseCache(new NoiseGenerator(42));
+			double[] xy = drift(points);
+			return () -> {
+				double sum = 0;
+				for (int i = 0; i < points; i++) {
+					sum += cache.noise(xy[2 * i] += 0.1, xy[2 * i + 1]);
+				}
+				return sum;
+			};
+		}));
+		for (boolean cached : new boolean[] { false, true }) {
+			benchmarks.add(new Harness.Benchmark("noise.cache.steering", cached ? "cached" : "direct", 100_000, () -> {
+				SteeringSimulation simulation = new SteeringSimulation(100_000, 1000, 800, 10, new NoiseGenerator(42),
+						new ParallelUpdater(1));
+				if (cached) {
+					simulation.setNoiseSource(new NoiseCache(simulation.getNoise()));
+				}
+				return () -> {
+					simulation.step();
+					return simulation.getMovers().getX(0);
+				};
+			}));
+		}
+	}
+
+	/**
+	 * Advancing a {@link FlowField} over a 1000x800 area at several cell sizes,
+	 * and steering 10k to 1M movers through one.
+	 * @since 1.1
+	 */
+	static void flowField(List<Harness.Benchmark> benchmarks) {
+		for (double cell : new double[] { 2, 5, 10 }) {
+			benchmarks.add(new Harness.Benchmark("flowfield.advance", "cell=" + cell, 1, () -> {
+				FlowField field = new FlowField(new NoiseGenerator(42), 1000, 800, cell);
+				return () -> {
+					field.advance();
+					return field.getZ();
+				};
+			}));
+		}
+		for (int n : new int[] { 10_000, 100_000, 1_000_000 }) {
+			benchmarks.add(new Harness.Benchmark("flowfield.steering", "n=" + n + " cell=5", n, () -> {
+				SteeringSimulation simulation = new SteeringSimulation(n, 1000, 800, 10, new NoiseGenerator(42),
+						new ParallelUpdater(1));
+				simulation.setFlowField(new FlowField(simulation.getNoise(), 1000, 800, 5));
+				return () -> {
+					simulation.step();
+					return simulation.getMovers().getX(0);
+				};
+			}));
+		}
+	}
+
+	/**
+	 * Random points over a 1000x800 area, as x and y pairs.
+	 * @since 1.1
+	 */
+	private static double[] drift(int points) {
+		Random random = new Random(42);
+		double[] xy = new double[2 * points];
+		for (int i = 0; i < points; i++) {
+			xy[2 * i] = random.nextDouble() * 1000;
+			xy[2 * i + 1] = random.nextDouble() * 800;
+		}
+		return xy;
+	}
+
+	/**
+	 * {@code update()} and {@code checkEdges()} over {@link Mover} objects and over
+	 * a {@link MoverSystem}, and over a {@link MoverStore} of either precision.
+	 * @since 1.1
+	 */
+	static void movers(List<Harness.Benchmark> benchmarks) {
+		for (int n : MOVER_COUNTS) {
+			String params = "n=" + n;
+			benchmarks.add(new Harness.Benchmark("movers.objects", params, n, () -> {
+				Random random = new Random(42);
+				Mover[] movers = new Mover[n];
+				Vector2D force = new Vector2D(0.01, 0.02);
+				for (int i = 0; i < n; i++) {
+					movers[i] = new Mover(random.nextDouble() * 1000, random.nextDouble() * 800, 10, 10);
+				}
+				return () -> {
+					for (Mover m : movers) {
+						m.applyForce(force);
+						m.update();
+						m.checkEdges(1000, 800);
+					}
+					return movers[0].getX();
+				};
+			}));
+			benchmarks.add(new Harness.Benchmark("movers.system", params, n, () -> {
+				Random random = new Random(42);
+				MoverSystem movers = new MoverSystem(n);
+				for (int i = 0; i < n; i++) {
+					movers.add(random.nextDouble() * 1000, random.nextDouble() * 800, 10, 10);
+				}
+				return () -> {
+					for (int i = 0; i < n; i++) {
+						movers.applyForce(i, 0.01, 0.02);
+					}
+					movers.update();
+					movers.checkEdges(1000, 800);
+					return movers.getX(0);
+				};
+			}));
+		}
+		for (int n : new int[] { 100_000, 10_000_000 }) {
+			for (MoverStore.Precision precision : MoverStore.Precision.values()) {
+				String params = "n=" + n + " " + precision.name().toLowerCase();
+				benchmarks.add(new Harness.Benchmark("movers.precision", params, n, () -> {
+					Random random = new Random(42);
+					MoverStore movers = MoverStore.create(precision, n);
+					for (int i = 0; i < n; i++) {
+						movers.add(random.nextDouble() * 1000, random.nextDouble() * 800, 10, 10);
+					}
+					return () -> {
+						for (int i = 0; i < n; i++) {
+							movers.applyForce(i, 0.01, 0.02);
+						}
+						movers.update();
+						movers.checkEdges(1000, 800);
+						return movers.getX(0);
+					};
+				}));
+			}
+		}
+	}
+
+	/**
+	 * A {@link CollisionSystem} step over movers at a constant density, serial
+	 * and parallel, against testing every pair.
+	 * @since 1.1
+	 */
+	static void collisions(List<Harness.Benchmark> benchmarks) {
+		for (int n : new int[] { 1_000, 4_000 }) {
+			benchmarks.add(new Harness.Benchmark("collision.pairwise", "n=" + n, n, () -> {
+				MoverSystem movers = scattered(n);
+				return () -> {
+					int contacts = 0;
+					for (int i = 0; i < n; i++) {
+						double xi = movers.getX(i), yi = movers.getY(i), ri = movers.getWidth(i) / 2;
+						for (int j = i + 1; j < n; j++) {
+							double dx = movers.getX(j) - xi, dy = movers.getY(j) - yi;
+							double reach = ri + movers.getWidth(j) / 2;
+							if (dx * dx + dy * dy < reach * reach) {
+								contacts++;
+							}
+						}
+					}
+					return contacts;
+				};
+			}));
+		}
+		for (int n : MOVER_COUNTS) {
+			for (boolean parallel : new boolean[] { false, true }) {
+				benchmarks.add(new Harness.Benchmark("collision.step", "n=" + n + (parallel ? " parallel" : ""), n,
+						() -> {
+							MoverSystem movers = scattered(n);
+							CollisionSystem collisions = new CollisionSystem(movers);
+							collisions.setParallel(parallel);
+							int side = (int) Math.sqrt(n * 400.0);
+							return () -> {
+								movers.update();
+								movers.checkEdges(side, side);
+								for (int i = 0; i < n; i++) {
+									if (movers.getY(i) < 0) { // checkEdges leaves the top open
+										movers.setLocation(i, movers.getX(i), 0);
+										movers.setVelocity(i, movers.getVelocityX(i), -movers.getVelocityY(i));
+									}
+								}
+								return collisions.step();
+							};
+						}));
+			}
+		}
+	}
+
+	/**
+	 * A {@link Gravity} step over a Gaussian cluster with the Barnes–Hut tree,
+	 * serial and parallel, against summing every pair.
+	 * @since 1.1
+	 */
+	static void gravity(List<Harness.Benchmark> benchmarks) {
+		for (int n : new int[] { 1_000, 10_000 }) {
+			benchmarks.add(new Harness.Benchmark("gravity.bruteForce", "n=" + n, n, () -> {
+				MoverSystem movers = cluster(n);
+				Gravity gravity = new Gravity(movers);
+				gravity.setMode(Gravity.Mode.BRUTE_FORCE);
+				return () -> {
+					gravity.step();
+					return movers.getAccelerationX(0);
+				};
+			}));
+		}
+		for (int n : MOVER_COUNTS) {
+			for (boolean parallel : new boolean[] { false, true }) {
+				benchmarks.add(new Harness.Benchmark("gravity.barnesHut",
+						"n=" + n + " theta=0.5" + (parallel ? " parallel" : ""), n, () -> {
+							MoverSystem movers = cluster(n);
+							Gravity gravity = new Gravity(movers);
+							gravity.setParallel(parallel);
+							return () -> {
+								gravity.step();
+								return movers.getAccelerationX(0);
+							};
+						}));
+			}
+		}
+	}
+
+	/**
+	 * A frame of {@link SteeringSimulation} filled shape by shape with Java2D,
+	 * with and without antialiasing, against antialiased {@link SpriteCache}
+	 * blits of a few or all distinct colors, and against the
+	 * {@link TiledRasterizer}, serial and parallel, including the blit of its
+	 * image. Also the cost of handing the frame over in a
+	 * {@link SnapshotBuffer}, and of indexing a world of a hundred panels and
+	 * drawing it through a {@link Viewport} zoomed in, at {@code 1x} and
+	 * zoomed out to the whole.
+	 * @since 1.1
+	 */
+	static void render(List<Harness.Benchmark> benchmarks) {
+		int width = 1000, height = 800;
+		for (int n : new int[] { 10_000, 50_000, 100_000 }) {
+			benchmarks.add(new Harness.Benchmark("render.java2d", "n=" + n, n, () -> {
+				MoverSystem movers = colored(n, width, height);
+				Mover[] views = new Mover[n];
+				for (int i = 0; i < n; i++) {
+					views[i] = movers.get(i);
+				}
+				BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+				Graphics2D g = image.createGraphics();
+				return () -> {
+					g.clearRect(0, 0, width, height);
+					for (Mover m : views) {
+						g.setPaint(m.getColor());
+						g.fill(m);
+					}
+					return image.getRGB(width / 2, height / 2);
+				};
+			}));
+			benchmarks.add(new Harness.Benchmark("render.java2dAntialiased", "n=" + n, n, () -> {
+				MoverSystem movers = colored(n, width, height);
+				Mover[] views = new Mover[n];
+				for (int i = 0; i < n; i++) {
+					views[i] = movers.get(i);
+				}
+				BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+				Graphics2D g = image.createGraphics();
+				g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				return () -> {
+					g.clearRect(0, 0, width, height);
+					for (Mover m : views) {
+						g.setPaint(m.getColor());
+						g.fill(m);
+					}
+					return image.getRGB(width / 2, height / 2);
+				};
+			}));
+			for (int colors : new int[] { 16, 0 }) {
+				benchmarks.add(new Harness.Benchmark("render.sprites",
+						"n=" + n + (colors == 0 ? " colors=n" : " colors=" + colors), n, () -> {
+							MoverSystem movers = colored(n, width, height);
+							Mover[] views = new Mover[n];
+							for (int i = 0; i < n; i++) {
+								views[i] = movers.get(i);
+								if (colors != 0) {
+									movers.setColor(i, 0xFF000000 | (i % colors) * 0x0F0F0F);
+								}
+							}
+							BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+							Graphics2D g = image.createGraphics();
+							SpriteCache sprites = new SpriteCache(null, SpriteCache.DEFAULT_PAGE_SIZE,
+									SpriteCache.DEFAULT_MAX_PAGES);
+							return () -> {
+								g.clearRect(0, 0, width, height);
+								for (Mover m : views) {
+									sprites.draw(g, m, m.getColor());
+								}
+								return image.getRGB(width / 2, height / 2);
+							};
+						}));
+			}
+			benchmarks.add(new Harness.Benchmark("render.snapshot", "n=" + n, n, () -> {
+				SteeringSimulation simulation = new SteeringSimulation(n, width, height, 10);
+				SnapshotBuffer snapshots = new SnapshotBuffer(n);
+				return () -> {
+					simulation.snapshot(snapshots.beginWrite());
+					snapshots.publish();
+					RenderSnapshot front = snapshots.acquire();
+					return front.getX(n - 1);
+				};
+			}));
+			for (boolean parallel : new boolean[] { false, true }) {
+				benchmarks.add(new Harness.Benchmark("render.tiled", "n=" + n + (parallel ? " parallel" : ""), n,
+						() -> {
+							MoverSystem movers = colored(n, width, height);
+							TiledRasterizer rasterizer = new TiledRasterizer(width, height);
+							rasterizer.setParallel(parallel);
+							BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+							Graphics2D g = screen.createGraphics();
+							return () -> {
+								for (int i = 0; i < n; i++) {
+									rasterizer.fillOval(movers.getX(i), movers.getY(i), movers.getWidth(i),
+											movers.getHeight(i), movers.getColor(i));
+								}
+								rasterizer.draw(g);
+								return screen.getRGB(width / 2, height / 2);
+							};
+						}));
+			}
+		}
+		for (int n : new int[] { 100_000, 1_000_000 }) {
+			benchmarks.add(new Harness.Benchmark("render.index", "n=" + n, n, () -> {
+				RenderSnapshot snapshot = world(n, 10 * width, 10 * height);
+				return () -> snapshot.buildIndex().getCellSize();
+			}));
+			// a world of 100 panels, seen at 4x, 1x and whole
+			for (double scale : new double[] { 4, 1, 0.1 }) {
+				benchmarks.add(new Harness.Benchmark("render.viewport", "n=" + n + " scale=" + scale, n, () -> {
+					RenderSnapshot snapshot = world(n, 10 * width, 10 * height);
+					snapshot.buildIndex();
+					Viewport viewport = new Viewport();
+					viewport.setScale(scale);
+					viewport.setLocation(5 * width - width / scale / 2, 5 * height - height / scale / 2);
+					ViewportRenderer renderer = new ViewportRenderer();
+					BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+					Graphics2D g = image.createGraphics();
+					return () -> {
+						g.clearRect(0, 0, width, height);
+						renderer.render(g, snapshot, viewport, width, height);
+						return image.getRGB(width / 2, height / 2);
+					};
+				}));
+			}
+		}
+	}
+
+	/**
+	 * A snapshot of shapes of size 10 with random opaque colors over the
+	 * specified area.
+	 * @since 1.1
+	 */
+	private static RenderSnapshot world(int n, int width, int height) {
+		Random random = new Random(42);
+		RenderSnapshot snapshot = new RenderSnapshot(n);
+		for (int i = 0; i < n; i++) {
+			snapshot.add(random.nextDouble() * width, random.nextDouble() * height, 10, 10,
+					0xFF000000 | random.nextInt(0x1000000));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Movers of size 10 with random opaque colors over the specified area.
+	 * @since 1.1
+	 */
+	private static MoverSystem colored(int n, int width, int height) {
+		Random random = new Random(42);
+		MoverSystem movers = new MoverSystem(n);
+		for (int i = 0; i < n; i++) {
+			movers.setColor(movers.add(random.nextDouble() * width, random.nextDouble() * height, 10, 10),
+					0xFF000000 | random.nextInt(0x1000000));
+		}
+		return movers;
+	}
+
+	/**
+	 * Movers with random masses in a Gaussian cluster.
+	 * @since 1.1
+	 */
+	private static MoverSystem cluster(int n) {
+		Random random = new Random(42);
+		MoverSystem movers = new MoverSystem(n);
+		for (int i = 0; i < n; i++) {
+			movers.add(random.nextGaussian() * 300, random.nextGaussian() * 300, 4, 4, 1 + random.nextFloat() * 4);
+		}
+		return movers;
+	}
+
+	/**
+	 * Movers of size 10 moving randomly over a square area with one mover per
+	 * 400 square units.
+	 * @since 1.1
+	 */
+	private static MoverSystem scattered(int n) {
+		Random random = new Random(42);
+		double side = Math.sqrt(n * 400.0);
+		MoverSystem movers = new MoverSystem(n);
+		for (int i = 0; i < n; i++) {
+			movers.setVelocity(movers.add(random.nextDouble() * side, random.nextDouble() * side, 10, 10),
+					random.nextGaussian(), random.nextGaussian());
+		}
+		return movers;
+	}
+
+	/**
+	 * Recording frames of moving movers with a {@link TrajectoryRecorder},
+	 * starting over every {@code 256} frames outside the timed work, against
+	 * serializing their vectors, and replaying random frames of such a
+	 * recording into a snapshot, then saving and restoring checkpoints with
+	 * and without compression.
+	 * @since 1.1
+	 */
+	static void storage(List<Harness.Benchmark> benchmarks) {
+		int frames = 256;
+		benchmarks.add(new Harness.Benchmark("storage.serialize", "n=10000", 10_000, () -> {
+			MoverSystem movers = scattered(10_000);
+			try {
+				ObjectOutputStream out = new ObjectOutputStream(OutputStream.nullOutputStream());
+				return () -> {
+					try {
+						movers.update();
+						for (int i = 0; i < 10_000; i++) {
+							out.writeObject(new Vector2D(movers.getX(i), movers.getY(i)));
+							out.writeObject(new Vector2D(movers.getVelocityX(i), movers.getVelocityY(i)));
+						}
+						out.reset();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					return movers.getX(0);
+				};
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}));
+		for (int n : new int[] { 10_000, 100_000 }) {
+			benchmarks.add(new Harness.Benchmark("storage.record", "n=" + n, n, () -> {
+				MoverSystem movers = scattered(n);
+				Path directory = temporaryDirectory();
+				TrajectoryRecorder[] recorder = { null };
+				Runnable restart = () -> {
+					try {
+						if (recorder[0] != null) {
+							recorder[0].close();
+						}
+						recorder[0] = new TrajectoryRecorder(directory, movers);
+						recorder[0].record(); // maps the first segment
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				};
+				restart.run();
+				return () -> {
+					if (recorder[0].getFrameCount() > frames) {
+						Harness.untimed(restart);
+					}
+					try {
+						movers.update();
+						recorder[0].record();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					return recorder[0].getFrameCount();
+				};
+			}));
+			benchmarks.add(new Harness.Benchmark("storage.replay", "n=" + n, n, () -> {
+				MoverSystem movers = scattered(n);
+				Path directory = temporaryDirectory();
+				TrajectoryReplayer replayer;
+				try (TrajectoryRecorder recorder = new TrajectoryRecorder(directory, movers)) {
+					for (int f = 0; f < frames; f++) {
+						movers.update();
+						recorder.record();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				try {
+					replayer = new TrajectoryReplayer(directory);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				Random random = new Random(42);
+				RenderSnapshot snapshot = new RenderSnapshot(n);
+				return () -> {
+					replayer.seek(random.nextInt(frames));
+					snapshot.clear();
+					replayer.snapshot(snapshot);
+					return snapshot.getX(n - 1);
+				};
+			}));
+		}
+		NoiseGenerator noise = new NoiseGenerator(42);
+		for (boolean compress : new boolean[] { false, true }) {
+			String parameters = "n=100000 compress=" + compress;
+			benchmarks.add(new Harness.Benchmark("storage.save", parameters, 100_000, () -> {
+				MoverSystem movers = scattered(100_000);
+				Path path = temporaryDirectory().resolve("simulation.ckpt");
+				return () -> {
+					try {
+						return Checkpoint.save(path, movers, noise, 0, compress);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				};
+			}));
+			benchmarks.add(new Harness.Benchmark("storage.restore", parameters, 100_000, () -> {
+				Path path = temporaryDirectory().resolve("simulation.ckpt");
+				try {
+					Checkpoint.save(path, scattered(100_000), noise, 0, compress);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				MoverSystem movers = new MoverSystem();
+				NoiseGenerator restored = new NoiseGenerator();
+				return () -> {
+					try {
+						return Checkpoint.restore(path, movers, restored) + movers.getX(99_999);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				};
+			}));
+		}
+	}
+
+	/**
+	 * Creates a directory for recordings whose segments are deleted on exit.
+	 * @since 1.1
+	 */
+	private static Path temporaryDirectory() {
+		try {
+			Path directory = Files.createTempDirectory("trajectory");
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory)) {
+					for (Path segment : segments) {
+						Files.delete(segment);
+					}
+					Files.delete(directory);
+				} catch (IOException e) {
+					// left behind in the temporary directory
+				}
+			}));
+			return directory;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A full {@link SteeringSimulation} step, serial and parallel.
+	 * @since 1.1
+	 */
+	static void steering(List<Harness.Benchmark> benchmarks) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int[] threads = processors == 1 ? new int[] { 1 } : new int[] { 1, processors };
+		for (int n : MOVER_COUNTS) {
+			for (int parallelism : threads) {
+				benchmarks.add(new Harness.Benchmark("steering.step", "n=" + n + " threads=" + parallelism, n, () -> {
+					SteeringSimulation simulation = new SteeringSimulation(n, 1000, 800, 10, new NoiseGenerator(42),
+							new ParallelUpdater(parallelism));
+					return () -> {
+						simulation.step();
+						return simulation.getMovers().getX(0);
+					};
+				}));
+			}
+		}
+	}
+}
@@ -0,0 +1,331 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A small microbenchmark harness in the spirit of JMH. Each {@link Benchmark}
+ * is warmed up and then measured over several timed iterations on the calling
+ * thread. Besides latency it reports the bytes allocated per operation, read
+ * from the thread allocation counter, and the collections that ran during
+ * measurement.
+ * <br/>
+ * Like JMH, {@link #runAll(List, String, Class)} runs each benchmark in a JVM
+ * of its own, started with the same JVM options and class path. Within one
+ * JVM every benchmark would call its operation through the same call sites
+ * of the harness, whose profile, after a few benchmarks, no longer lets the
+ * JIT inline any of them, so later results would be skewed by the order the
+ * benchmarks ran in.
+ * <br/>
+ * Iteration counts and lengths are read from the system properties
+ * {@code bench.warmup}, {@code bench.iterations} and {@code bench.time}
+ * (milliseconds per iteration). {@code -Dbench.fork=false} runs every
+ * benchmark in the calling JVM instead, for a quick look.
+ *
+ * @see Benchmarks
+ * @since 1.1
+ */
+public class Harness {
+
+	/**
+	 * A named, parameterized operation. The operation returns a value that is
+	 * consumed by the harness so the JIT cannot remove the work.
+	 * @since 1.1
+	 */
+	public static final class Benchmark {
+
+		private final String name;
+		private final String params;
+		private final int elements;
+		private final Supplier<DoubleSupplier> setup;
+
+		/**
+		 * Creates a {@code Benchmark}.
+		 * @param name - the specified name
+		 * @param params - the specified parameters, for display
+		 * @param elements - the amount of elements each operation handles, used
+		 * to report time per element
+		 * @param setup - builds the state and returns the operation
+		 * @since 1.1
+		 */
+		public Benchmark(String name, String params, int elements, Supplier<DoubleSupplier> setup) {
+			this.name = name;
+			this.params = params;
+			this.elements = elements;
+			this.setup = setup;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getParams() {
+			return params;
+		}
+	}
+
+	/**
+	 * The measurements of one {@link Benchmark}.
+	 * @since 1.1
+	 */
+	public static final class Result {
+
+		private final Benchmark benchmark;
+		private final double nanosPerOp;
+		private final double error;
+		private final double bytesPerOp;
+		private final long gcCount;
+		private final long gcMillis;
+
+		Result(Benchmark benchmark, double nanosPerOp, double error, double bytesPerOp, long gcCount,
+				long gcMillis) {
+			this.benchmark = benchmark;
+			this.nanosPerOp = nanosPerOp;
+			this.error = error;
+			this.bytesPerOp = bytesPerOp;
+			this.gcCount = gcCount;
+			this.gcMillis = gcMillis;
+		}
+
+		/**
+		 * @return the mean time of one operation in nanoseconds
+		 * @since 1.1
+		 */
+		public double getNanosPerOp() {
+			return nanosPerOp;
+		}
+
+		/**
+		 * @return the bytes allocated by one operation
+		 * @since 1.1
+		 */
+		public double getBytesPerOp() {
+			return bytesPerOp;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-28s %-22s %14.1f +- %8.1f ns/op %10.2f ns/elem %12.1f B/op %4d gc %5d ms",
+					benchmark.name, benchmark.params, nanosPerOp, error, nanosPerOp / benchmark.elements,
+					bytesPerOp, gcCount, gcMillis);
+		}
+	}
+
+	/**
+	 * The system property holding the index of the single benchmark a forked
+	 * JVM runs.
+	 * @since 1.1
+	 */
+	private static final String INDEX_PROPERTY = "bench.index";
+
+	/**
+	 * Receives the values returned by operations. Volatile so the sum escapes.
+	 * @since 1.1
+	 */
+	private static volatile double sink;
+
+	/**
+	 * The time spent in {@link #untimed(Runnable)} since the harness last
+	 * started a clock.
+	 * @since 1.1
+	 */
+	private static long untimedNanos;
+
+	private final int warmup = Integer.getInteger("bench.warmup", 3);
+	private final int iterations = Integer.getInteger("bench.iterations", 5);
+	private final long iterationNanos = Integer.getInteger("bench.time", 500) * 1_000_000L;
+	private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	/**
+	 * The duration of the latest {@link #iteration(DoubleSupplier, long)}.
+	 * @since 1.1
+	 */
+	private long lastNanos;
+
+	/**
+	 * Runs the specified work from within an operation without counting its
+	 * time, for state an operation has to rebuild now and then, such as a
+	 * recording that has reached its length.
+	 * @param work - the specified work
+	 * @since 1.1
+	 */
+	public static void untimed(Runnable work) {
+		long start = System.nanoTime();
+		try {
+			work.run();
+		} finally {
+			untimedNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Runs the specified benchmark.
+	 * @param benchmark - the specified benchmark
+	 * @return its measurements
+	 * @since 1.1
+	 */
+	public Result run(Benchmark benchmark) {
+		DoubleSupplier op = benchmark.setup.get();
+		long batch = calibrate(op);
+		for (int i = 0; i < warmup; i++) {
+			iteration(op, batch);
+		}
+
+		long thread = Thread.currentThread().getId();
+		long gcCount = gcCount();
+		long gcMillis = gcMillis();
+		long bytes = threads.getThreadAllocatedBytes(thread);
+		double[] samples = new double[iterations];
+		long ops = 0;
+		for (int i = 0; i < iterations; i++) {
+			long calls = iteration(op, batch);
+			samples[i] = (double) lastNanos / calls;
+			ops += calls;
+		}
+		bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+		gcCount = gcCount() - gcCount;
+		gcMillis = gcMillis() - gcMillis;
+
+		double mean = 0;
+		for (double sample : samples) {
+			mean += sample;
+		}
+		mean /= samples.length;
+		double variance = 0;
+		for (double sample : samples) {
+			variance += (sample - mean) * (sample - mean);
+		}
+		double error = samples.length > 1 ? Math.sqrt(variance / (samples.length - 1)) : 0;
+		return new Result(benchmark, mean, error, (double) bytes / ops, gcCount, gcMillis);
+	}
+
+	/**
+	 * Runs every benchmark whose name contains the specified filter, each in a
+	 * JVM of its own unless {@code bench.fork} is {@code false}, printing each
+	 * result as it completes. A forked JVM runs the specified main class,
+	 * which must build the same list and call this method again.
+	 * @param benchmarks - the specified benchmarks
+	 * @param filter - the specified filter, or {@code null} for all
+	 * @param main - the class whose {@code main} builds the benchmarks
+	 * @return the amount of benchmarks that failed
+	 * @since 1.1
+	 */
+	public int runAll(List<Benchmark> benchmarks, String filter, Class<?> main) {
+		String index = System.getProperty(INDEX_PROPERTY);
+		if (index != null) {
+			// a forked JVM: run the one benchmark it was started for
+			System.out.println(run(benchmarks.get(Integer.parseInt(index))));
+			return 0;
+		}
+		boolean fork = !"false".equals(System.getProperty("bench.fork"));
+		int failed = 0;
+		for (int i = 0; i < benchmarks.size(); i++) {
+			Benchmark benchmark = benchmarks.get(i);
+			if (filter != null && !benchmark.name.contains(filter)) {
+				continue;
+			}
+			if (!fork) {
+				System.out.println(run(benchmark));
+			} else if (!fork(main, i)) {
+				System.out.printf("%-28s %-22s failed%n", benchmark.name, benchmark.params);
+				failed++;
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Runs the benchmark at the specified index in a new JVM, which prints its
+	 * result to the output of this one.
+	 * @return {@code true} if the JVM completed normally
+	 * @since 1.1
+	 */
+	private static boolean fork(Class<?> main, int index) {
+		List<String> command = new ArrayList<>();
+		command.add(ProcessHandle.current().info().command()
+				.orElse(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java"));
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-D" + INDEX_PROPERTY + "=" + index);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(main.getName());
+		try {
+			Process process = new ProcessBuilder(command).inheritIO().start();
+			return process.waitFor() == 0;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot fork a JVM: " + e.getMessage(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Calls the operation in batches until an iteration's time has passed.
+	 * @return the amount of calls
+	 * @since 1.1
+	 */
+	private long iteration(DoubleSupplier op, long batch) {
+		double sum = 0;
+		long calls = 0;
+		untimedNanos = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			for (long i = 0; i < batch; i++) {
+				sum += op.getAsDouble();
+			}
+			calls += batch;
+		} while ((elapsed = System.nanoTime() - start - untimedNanos) < iterationNanos);
+		lastNanos = elapsed;
+		sink += sum;
+		return calls;
+	}
+
+	/**
+	 * Finds a batch size whose calls take about a millisecond, so that reading
+	 * the clock does not dominate short operations.
+	 * @return the batch size
+	 * @since 1.1
+	 */
+	private long calibrate(DoubleSupplier op) {
+		long batch = 1;
+		while (true) {
+			untimedNanos = 0;
+			long start = System.nanoTime();
+			double sum = 0;
+			for (long i = 0; i < batch; i++) {
+				sum += op.getAsDouble();
+			}
+			sink += sum;
+			if (System.nanoTime() - start - untimedNanos >= 1_000_000L || batch >= 1L << 30) {
+				return batch;
+			}
+			batch *= 2;
+		}
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return millis;
+	}
+}
@@ -0,0 +1,141 @@
+package benchmark;
+
+import animation.ParallelUpdater;
+import animation.RenderSnapshot;
+import animation.Simulation;
+import noise.FlowField;
+import noise.NoiseGenerator;
+import noise.NoiseSource;
+import physics.MoverStore;
+
+/**
+ * The workload shared by the benchmarks and the demos: each step steers every
+ * mover towards a target, scaled by the noise under it, then updates it.
+ * @since 1.1
+ */
+public class SteeringSimulation implements Simulation {
+	private final MoverStore movers;
+	private final NoiseGenerator noise;
+	private final ParallelUpdater updater;
+	private final ParallelUpdater.RangeTask steer = this::steer;
+	private volatile NoiseSource source;
+	private volatile FlowField field;
+	private volatile double targetX, targetY;
+
+	public SteeringSimulation(int amount, int width, int height, int size) {
+		this(amount, width, height, size, new NoiseGenerator(), new ParallelUpdater());
+	}
+
+	public SteeringSimulation(int amount, int width, int height, int size, NoiseGenerator noise,
+			ParallelUpdater updater) {
+		this(amount, width, height, size, noise, updater, MoverStore.Precision.DOUBLE);
+	}
+
+	/**
+	 * Creates a {@code SteeringSimulation} whose movers are held and updated at
+	 * the specified precision.
+	 * @param precision - the specified precision
+	 * @since 1.1
+	 */
+	public SteeringSimulation(int amount, int width, int height, int size, NoiseGenerator noise,
+			ParallelUpdater updater, MoverStore.Precision precision) {
+		this.noise = noise;
+		this.source = noise;
+		this.updater = updater;
+		movers = MoverStore.create(precision, amount);
+		for (int i = 0; i < amount; i++) {
+			int color = 0xFF000000 | (int) (Math.random() * 0x1000000); // random
+			movers.setColor(movers.add(width * Math.random(), height * Math.random(), size, size), color);
+		}
+		targetX = width / 2.0;
+		targetY = height / 2.0;
+	}
+
+	public MoverStore getMovers() {
+		return movers;
+	}
+
+	public NoiseGenerator getNoise() {
+		return noise;
+	}
+
+	public NoiseSource getNoiseSource() {
+		return source;
+	}
+
+	/**
+	 * Sets where the noise under each mover is read from, such as a
+	 * {@link noise.NoiseCache} over {@link #getNoise()}.
+	 * @param source - the specified source
+	 * @since 1.1
+	 */
+	public void setNoiseSource(NoiseSource source) {
+		this.source = source;
+	}
+
+	public FlowField getFlowField() {
+		return field;
+	}
+
+	/**
+	 * Reads the noise under each mover from the specified flow field, which
+	 * each step advances before steering. {@code null} goes back to
+	 * {@link #getNoise()}.
+	 * @param field - the specified field, or {@code null}
+	 * @since 1.1
+	 */
+	public void setFlowField(FlowField field) {
+		this.field = field;
+		this.source = field != null ? field : noise;
+	}
+
+	public void setTarget(double x, double y) {
+		targetX = x;
+		targetY = y;
+	}
+
+	@Override
+	public void step() {
+		FlowField field = this.field;
+		if (field != null) {
+			field.advance();
+		}
+		updater.forEach(movers.size(), steer);
+	}
+
+	@Override
+	public int getMoverCount() {
+		return movers.size();
+	}
+
+	@Override
+	public void snapshot(RenderSnapshot out) {
+		for (int i = 0, n = movers.size(); i < n; i++) {
+			out.add(movers.getX(i), movers.getY(i), movers.getWidth(i), movers.getHeight(i), movers.getColor(i));
+		}
+	}
+
+	/**
+	 * Steers the movers from {@code from} to {@code to} towards the target, scaled
+	 * by the noise under each mover, then updates them.
+	 */
+	private void steer(int from, int to) {
+		double targetX = this.targetX;
+		double targetY = this.targetY;
+		NoiseSource noise = this.source;
+		for (int i = from; i < to; i++) {
+			double x = movers.getX(i);
+			double y = movers.getY(i);
+			double dx = targetX - x; // direction to target
+			double dy = targetY - y;
+			double m = Math.sqrt(dx * dx + dy * dy);
+			if (m != 0) {
+				dx /= m;
+				dy /= m;
+			}
+			double n = Math.abs(noise.noise(x, y));
+			movers.applyForce(i, dx * n, dy * n);
+		}
+		movers.update(from, to);
+	}
+}
@@ -53,7 +53,7 @@ public class Vector2D extends Point2D implements Serializable {
 	 * @return the product of both {@code Vector2D}
 	 */
 	public static Vector2D mult(Point2D v1, Point2D v2) {
-		Vector2D v3 = new Vector2D(v1.getX()/ v2.getX(), v1.getY() / v2.getY());
+		Vector2D v3 = new Vector2D(v1.getX() * v2.getX(), v1.getY() * v2.getY());
 		return v3;
 	}
 
@@ -68,6 +68,74 @@ public class Vector2D extends Point2D implements Serializable {
 		return v3;
 	}
 
+	/**
+	 * Stores the addition of both specified {@code Vector2D} in the specified destination.
+	 * @param v1 - the first specified {@code Vector2D}
+	 * @param v2 - the second specified {@code Vector2D}
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #add(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2D add(Point2D v1, Point2D v2, Vector2D out) {
+		out.setLocation(v1.getX() + v2.getX(), v1.getY() + v2.getY());
+		return out;
+	}
+
+	/**
+	 * Stores the subtraction of both specified {@code Vector2D} in the specified destination.
+	 * @param v1 - the first specified {@code Vector2D} as minuend
+	 * @param v2 - the second specified {@code Vector2D} as subtrahend
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #sub(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2D sub(Point2D v1, Point2D v2, Vector2D out) {
+		out.setLocation(v1.getX() - v2.getX(), v1.getY() - v2.getY());
+		return out;
+	}
+
+	/**
+	 * Stores the division of both specified {@code Vector2D} in the specified destination.
+	 * @param v1 - the first specified {@code Vector2D} as Dividend
+	 * @param v2 - the second specified {@code Vector2D} as Divisor
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #div(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2D div(Point2D v1, Point2D v2, Vector2D out) {
+		out.setLocation(v1.getX() / v2.getX(), v1.getY() / v2.getY());
+		return out;
+	}
+
+	/**
+	 * Stores the multiplication of both specified {@code Vector2D} in the specified destination.
+	 * @param v1 - the first specified {@code Vector2D}
+	 * @param v2 - the second specified {@code Vector2D}
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #mult(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2D mult(Point2D v1, Point2D v2, Vector2D out) {
+		out.setLocation(v1.getX() * v2.getX(), v1.getY() * v2.getY());
+		return out;
+	}
+
+	/**
+	 * Stores the normal of the specified {@code Vector2D} in the specified destination.
+	 * @param v2 - the specified {@code Vector2D}
+	 * @param out - the specified destination, may be {@code v2}
+	 * @return {@code out}
+	 * @see #normal(Vector2D)
+	 * @since 1.1
+	 */
+	public static Vector2D normal(Vector2D v2, Vector2D out) {
+		return v2.normalizeInto(out);
+	}
+
 	/**
 	 * The x value of this vector
 	 *
@@ -159,6 +227,59 @@ public class Vector2D extends Point2D implements Serializable {
 			mult(max);
 		}
 	}
+
+	/**
+	 * @return The squared magnitude of this {@code Vector2D}
+	 * @since 1.1
+	 */
+	public double magSq() {
+		return x * x + y * y;
+	}
+
+	/**
+	 * Stores this {@code Vector2D}, normalized, in the specified destination.
+	 * This {@code Vector2D} is left unchanged unless it is the destination.
+	 * @param out - the specified destination
+	 * @return {@code out}
+	 * @since 1.1
+	 */
+	public Vector2D normalizeInto(Vector2D out) {
+		double m = mag();
+		if (m != 0) {
+			out.setLocation(x / m, y / m);
+		} else {
+			out.setLocation(x, y);
+		}
+		return out;
+	}
+
+	/**
+	 * Limits this {@code Vector2D} to the specified maximum magnitude like
+	 * {@link #limit(double)}, comparing squared magnitudes so that no square
+	 * root is taken while under the limit.
+	 * @param max the specified maximum magnitude
+	 * @since 1.1
+	 */
+	public void limitSquared(double max) {
+		double m2 = magSq();
+		if (m2 > max * max) {
+			double m = Math.sqrt(m2);
+			x = x / m * max;
+			y = y / m * max;
+		}
+	}
+
+	/**
+	 * Sets this {@code Vector2D} to the location of the specified point.
+	 * @param p - the specified point
+	 * @return this {@code Vector2D}
+	 * @since 1.1
+	 */
+	public Vector2D set(Point2D p) {
+		x = p.getX();
+		y = p.getY();
+		return this;
+	}
 	
 	
 	@Override
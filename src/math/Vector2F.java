@@ -0,0 +1,360 @@
+package math;
+
+import java.awt.geom.Point2D;
+import java.io.Serializable;
+
+/**
+ * A single-precision {@link Vector2D}. It has the same methods with the same
+ * meaning, but holds and computes its values as {@code float}s, so it takes
+ * less memory and arithmetic on it is rounded to about seven significant
+ * digits, which is plenty for locations on screen. Values passed in as
+ * {@code double}s are rounded to the nearest {@code float}.
+ *
+ * @see Vector2D
+ * @since 1.1
+ */
+public class Vector2F extends Point2D implements Serializable {
+
+	private static final long serialVersionUID = -3520193657281907264L;
+
+	/**
+	 * Creates a new {@code Vector2F} from the addition of both specified points.
+	 * @param v1 - the first specified point
+	 * @param v2 - the second specified point
+	 * @return the sum of both specified points
+	 * @since 1.1
+	 */
+	public static Vector2F add(Point2D v1, Point2D v2) {
+		return add(v1, v2, new Vector2F(0, 0));
+	}
+
+	/**
+	 * Creates a new {@code Vector2F} from the subtraction of both specified points.
+	 * @param v1 - the first specified point as minuend
+	 * @param v2 - the second specified point as subtrahend
+	 * @return the difference of the first specified point and the second
+	 * @since 1.1
+	 */
+	public static Vector2F sub(Point2D v1, Point2D v2) {
+		return sub(v1, v2, new Vector2F(0, 0));
+	}
+
+	/**
+	 * Creates a new {@code Vector2F} from the division of both specified points.
+	 * @param v1 - the first specified point as dividend
+	 * @param v2 - the second specified point as divisor
+	 * @return the quotient of the first and second point
+	 * @since 1.1
+	 */
+	public static Vector2F div(Point2D v1, Point2D v2) {
+		return div(v1, v2, new Vector2F(0, 0));
+	}
+
+	/**
+	 * Creates a new {@code Vector2F} from the multiplication of both specified points.
+	 * @param v1 - the first specified point
+	 * @param v2 - the second specified point
+	 * @return the product of both points
+	 * @since 1.1
+	 */
+	public static Vector2F mult(Point2D v1, Point2D v2) {
+		return mult(v1, v2, new Vector2F(0, 0));
+	}
+
+	/**
+	 * Creates a new {@code Vector2F} from the normal of the specified {@code Vector2F}.
+	 * @param v2 - the specified {@code Vector2F}
+	 * @return a clone of the specified {@code Vector2F}, but normalized
+	 * @since 1.1
+	 */
+	public static Vector2F normal(Vector2F v2) {
+		return v2.normalizeInto(new Vector2F(0, 0));
+	}
+
+	/**
+	 * Stores the addition of both specified points in the specified destination.
+	 * @param v1 - the first specified point
+	 * @param v2 - the second specified point
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #add(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2F add(Point2D v1, Point2D v2, Vector2F out) {
+		out.x = (float) v1.getX() + (float) v2.getX();
+		out.y = (float) v1.getY() + (float) v2.getY();
+		return out;
+	}
+
+	/**
+	 * Stores the subtraction of both specified points in the specified destination.
+	 * @param v1 - the first specified point as minuend
+	 * @param v2 - the second specified point as subtrahend
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #sub(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2F sub(Point2D v1, Point2D v2, Vector2F out) {
+		out.x = (float) v1.getX() - (float) v2.getX();
+		out.y = (float) v1.getY() - (float) v2.getY();
+		return out;
+	}
+
+	/**
+	 * Stores the division of both specified points in the specified destination.
+	 * @param v1 - the first specified point as dividend
+	 * @param v2 - the second specified point as divisor
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #div(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2F div(Point2D v1, Point2D v2, Vector2F out) {
+		out.x = (float) v1.getX() / (float) v2.getX();
+		out.y = (float) v1.getY() / (float) v2.getY();
+		return out;
+	}
+
+	/**
+	 * Stores the multiplication of both specified points in the specified destination.
+	 * @param v1 - the first specified point
+	 * @param v2 - the second specified point
+	 * @param out - the specified destination, may be {@code v1} or {@code v2}
+	 * @return {@code out}
+	 * @see #mult(Point2D, Point2D)
+	 * @since 1.1
+	 */
+	public static Vector2F mult(Point2D v1, Point2D v2, Vector2F out) {
+		out.x = (float) v1.getX() * (float) v2.getX();
+		out.y = (float) v1.getY() * (float) v2.getY();
+		return out;
+	}
+
+	/**
+	 * Stores the normal of the specified {@code Vector2F} in the specified destination.
+	 * @param v2 - the specified {@code Vector2F}
+	 * @param out - the specified destination, may be {@code v2}
+	 * @return {@code out}
+	 * @see #normal(Vector2F)
+	 * @since 1.1
+	 */
+	public static Vector2F normal(Vector2F v2, Vector2F out) {
+		return v2.normalizeInto(out);
+	}
+
+	/**
+	 * The x value of this vector.
+	 * @since 1.1
+	 */
+	private float x;
+
+	/**
+	 * The y value of this vector.
+	 * @since 1.1
+	 */
+	private float y;
+
+	/**
+	 * @param x - this vector's x value
+	 * @param y - this vector's y value
+	 * @since 1.1
+	 */
+	public Vector2F(float x, float y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Adds the specified value to the location values of this {@code Vector2F}.
+	 * @param num - the specified value to add
+	 * @since 1.1
+	 */
+	public void add(float num) {
+		x += num;
+		y += num;
+	}
+
+	/**
+	 * Subtracts the specified value from the location values of this {@code Vector2F}.
+	 * @param num - the specified value to subtract
+	 * @since 1.1
+	 */
+	public void sub(float num) {
+		x -= num;
+		y -= num;
+	}
+
+	/**
+	 * Multiplies the specified value with the location values of this {@code Vector2F}.
+	 * @param num - the specified value to multiply
+	 * @since 1.1
+	 */
+	public void mult(float num) {
+		x *= num;
+		y *= num;
+	}
+
+	/**
+	 * Divides the location values of this {@code Vector2F} by the specified value.
+	 * @param num - the specified divisor
+	 * @since 1.1
+	 */
+	public void div(float num) {
+		x /= num;
+		y /= num;
+	}
+
+	/**
+	 * @return The magnitude of this {@code Vector2F}
+	 * @since 1.1
+	 */
+	public float mag() {
+		return (float) Math.sqrt(x * x + y * y);
+	}
+
+	/**
+	 * Normalizes this {@code Vector2F}.
+	 * @since 1.1
+	 */
+	public void normalize() {
+		normalizeInto(this);
+	}
+
+	/**
+	 * Limits this {@code Vector2F} to the specified maximum magnitude.
+	 * @param max the specified maximum magnitude
+	 * @since 1.1
+	 */
+	public void limit(float max) {
+		if (mag() > max) {
+			normalize();
+			mult(max);
+		}
+	}
+
+	/**
+	 * @return The squared magnitude of this {@code Vector2F}
+	 * @since 1.1
+	 */
+	public float magSq() {
+		return x * x + y * y;
+	}
+
+	/**
+	 * Stores this {@code Vector2F}, normalized, in the specified destination.
+	 * This {@code Vector2F} is left unchanged unless it is the destination.
+	 * @param out - the specified destination
+	 * @return {@code out}
+	 * @since 1.1
+	 */
+	public Vector2F normalizeInto(Vector2F out) {
+		float m = mag();
+		if (m != 0) {
+			out.x = x / m;
+			out.y = y / m;
+		} else {
+			out.x = x;
+			out.y = y;
+		}
+		return out;
+	}
+
+	/**
+	 * Limits this {@code Vector2F} to the specified maximum magnitude like
+	 * {@link #limit(float)}, comparing squared magnitudes so that no square
+	 * root is taken while under the limit.
+	 * @param max the specified maximum magnitude
+	 * @since 1.1
+	 */
+	public void limitSquared(float max) {
+		float m2 = magSq();
+		if (m2 > max * max) {
+			float m = (float) Math.sqrt(m2);
+			x = x / m * max;
+			y = y / m * max;
+		}
+	}
+
+	/**
+	 * Sets this {@code Vector2F} to the location of the specified point.
+	 * @param p - the specified point
+	 * @return this {@code Vector2F}
+	 * @since 1.1
+	 */
+	public Vector2F set(Point2D p) {
+		x = (float) p.getX();
+		y = (float) p.getY();
+		return this;
+	}
+
+	@Override
+	public double getX() {
+		return x;
+	}
+
+	@Override
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * @return the x value of this vector, without widening it
+	 * @since 1.1
+	 */
+	public float getFloatX() {
+		return x;
+	}
+
+	/**
+	 * @return the y value of this vector, without widening it
+	 * @since 1.1
+	 */
+	public float getFloatY() {
+		return y;
+	}
+
+	@Override
+	public void setLocation(double x, double y) {
+		this.x = (float) x;
+		this.y = (float) y;
+	}
+
+	@Override
+	public Vector2F clone() {
+		return new Vector2F(x, y);
+	}
+
+	public void setX(float x) {
+		this.x = x;
+	}
+
+	public void setY(float y) {
+		this.y = y;
+	}
+
+	public void addVector(Vector2F v2) {
+		y += v2.y;
+		x += v2.x;
+	}
+
+	/**
+	 * Negates the x-coordinate of this {@code Vector2F}
+	 * effectively reversing it.
+	 * @see #negateY()
+	 * @since 1.1
+	 */
+	public void negateX() {
+		x = -x;
+	}
+
+	/**
+	 * Negates the y-coordinate of this {@code Vector2F}
+	 * effectively reversing it.
+	 * @see #negateX()
+	 * @since 1.1
+	 */
+	public void negateY() {
+		y = -y;
+	}
+}
@@ -0,0 +1,280 @@
+package noise;
+
+import math.Vector2D;
+
+/**
+ * A grid of 3D noise over an area, evolving along z as time passes, together
+ * with a unit direction per grid point whose angle follows the noise. Lookups
+ * interpolate bilinearly between the four grid points around a position, so
+ * they cost the same whatever the octave count or the amount of movers.
+ * <br/>
+ * The field holds three slices of the grid, one depth apart along z: the
+ * current and next slice, between which lookups blend, and a pending slice
+ * that {@link #advance()} fills a band of rows at a time. Once the pending
+ * slice is complete the slices rotate, so the field moves forward one depth
+ * every {@code bandsPerSlice} calls for the cost of rasterizing one grid.
+ * <br/>
+ * Lookups from several threads are safe while no {@link #advance()} runs;
+ * advance between frames, for example at the start of a simulation step.
+ *
+ * @see NoiseGenerator#fill(double[], double, double, double, double, double, int, int)
+ * @since 1.1
+ */
+public class FlowField implements NoiseSource {
+
+	/**
+	 * The default amount of bands, and so frames, to fill a slice.
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_BANDS_PER_SLICE = 16;
+
+	/**
+	 * The default angle, in radians, a noise value of {@code 1} turns a
+	 * direction by.
+	 * @since 1.1
+	 */
+	public static final double DEFAULT_ANGLE_SCALE = 4 * Math.PI;
+
+	/**
+	 * The noise, direction x and direction y of every grid point of one depth.
+	 * @since 1.1
+	 */
+	private static final class Slice {
+		final double[] value, dx, dy;
+
+		Slice(int points) {
+			value = new double[points];
+			dx = new double[points];
+			dy = new double[points];
+		}
+	}
+
+	private final NoiseGenerator noise;
+	private final double cellSize;
+	private final int columns, rows;
+	private final double depth;
+	private final int bandsPerSlice;
+	private final double angleScale;
+
+	private Slice current, next, pending;
+
+	/**
+	 * The depth of {@link #current}.
+	 * @since 1.1
+	 */
+	private double z;
+
+	/**
+	 * The bands of {@link #pending} filled so far.
+	 * @since 1.1
+	 */
+	private int band;
+
+	/**
+	 * The rows of one band, reused between calls of {@link #advance()}.
+	 * @since 1.1
+	 */
+	private final double[] scratch;
+
+	/**
+	 * Creates a {@code FlowField} covering the specified area, advancing one
+	 * depth of {@code 1} every {@link #DEFAULT_BANDS_PER_SLICE} frames.
+	 * @param noise - the specified generator
+	 * @param width - the width of the area
+	 * @param height - the height of the area
+	 * @param cellSize - the distance between grid points
+	 * @since 1.1
+	 */
+	public FlowField(NoiseGenerator noise, double width, double height, double cellSize) {
+		this(noise, width, height, cellSize, 1, DEFAULT_BANDS_PER_SLICE, DEFAULT_ANGLE_SCALE);
+	}
+
+	/**
+	 * Creates a {@code FlowField} covering the specified area, starting at
+	 * {@code z = 0}.
+	 * @param noise - the specified generator
+	 * @param width - the width of the area
+	 * @param height - the height of the area
+	 * @param cellSize - the distance between grid points
+	 * @param depth - the distance along z between slices
+	 * @param bandsPerSlice - the amount of calls of {@link #advance()} that
+	 * move the field forward one depth
+	 * @param angleScale - the angle, in radians, a noise value of {@code 1}
+	 * turns a direction by
+	 * @since 1.1
+	 */
+	public FlowField(NoiseGenerator noise, double width, double height, double cellSize, double depth,
+			int bandsPerSlice, double angleScale) {
+		if (noise == null) {
+			throw new IllegalArgumentException("Generator must not be null");
+		}
+		if (!(cellSize > 0) || !(width > 0) || !(height > 0)) {
+			throw new IllegalArgumentException("Area and cell size must be positive: " + width + "x" + height
+					+ ", " + cellSize);
+		}
+		if (bandsPerSlice < 1) {
+			throw new IllegalArgumentException("Bands per slice must be positive: " + bandsPerSlice);
+		}
+		this.noise = noise;
+		this.cellSize = cellSize;
+		this.columns = (int) Math.ceil(width / cellSize) + 1;
+		this.rows = (int) Math.ceil(height / cellSize) + 1;
+		this.depth = depth;
+		this.bandsPerSlice = Math.min(bandsPerSlice, rows);
+		this.angleScale = angleScale;
+		int points = columns * rows;
+		current = new Slice(points);
+		next = new Slice(points);
+		pending = new Slice(points);
+		scratch = new double[columns * ((rows + this.bandsPerSlice - 1) / this.bandsPerSlice)];
+		rebuild(0);
+	}
+
+	/**
+	 * Rasterizes the current and next slice at once, starting over from the
+	 * specified depth.
+	 * @param z - the specified depth
+	 * @since 1.1
+	 */
+	public void rebuild(double z) {
+		this.z = z;
+		fill(current, z, 0, rows);
+		fill(next, z + depth, 0, rows);
+		band = 0;
+	}
+
+	/**
+	 * Fills the next band of rows of the pending slice, and rotates the slices
+	 * once it is complete. Lookups after the call blend one band further
+	 * towards the next slice.
+	 * @since 1.1
+	 */
+	public void advance() {
+		int from = (int) ((long) rows * band / bandsPerSlice);
+		int to = (int) ((long) rows * (band + 1) / bandsPerSlice);
+		fill(pending, z + 2 * depth, from, to);
+		if (++band == bandsPerSlice) {
+			Slice oldest = current;
+			current = next;
+			next = pending;
+			pending = oldest;
+			z += depth;
+			band = 0;
+		}
+	}
+
+	/**
+	 * Rasterizes the rows from {@code from} (inclusive) to {@code to}
+	 * (exclusive) of the specified slice at the specified depth.
+	 * @since 1.1
+	 */
+	private void fill(Slice slice, double z, int from, int to) {
+		for (int start = from; start < to;) {
+			int count = Math.min(to - start, scratch.length / columns);
+			noise.fill(scratch, 0, start * cellSize, z, cellSize, cellSize, columns, count);
+			int offset = start * columns;
+			for (int k = 0, n = count * columns; k < n; k++) {
+				double value = scratch[k];
+				double angle = value * angleScale;
+				slice.value[offset + k] = value;
+				slice.dx[offset + k] = Math.cos(angle);
+				slice.dy[offset + k] = Math.sin(angle);
+			}
+			start += count;
+		}
+	}
+
+	/**
+	 * Returns the noise at the specified position and the current time,
+	 * interpolated from the grid. Positions outside the area take the value at
+	 * its nearest edge.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @return the noise at the position
+	 * @since 1.1
+	 */
+	@Override
+	public double noise(double x, double y) {
+		return sample(current.value, next.value, x, y);
+	}
+
+	/**
+	 * Sets the specified vector to the direction of the field at the
+	 * specified position and the current time. Interpolation shortens
+	 * directions where neighbouring grid points disagree.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @param out - the specified vector
+	 * @return the specified vector
+	 * @since 1.1
+	 */
+	public Vector2D sample(double x, double y, Vector2D out) {
+		out.setLocation(sample(current.dx, next.dx, x, y), sample(current.dy, next.dy, x, y));
+		return out;
+	}
+
+	/**
+	 * Interpolates bilinearly within both slices' grid, then linearly between
+	 * them by the filled fraction of the pending slice.
+	 * @since 1.1
+	 */
+	private double sample(double[] a, double[] b, double x, double y) {
+		double gx = Math.min(Math.max(x / cellSize, 0), columns - 1);
+		double gy = Math.min(Math.max(y / cellSize, 0), rows - 1);
+		int i = Math.min((int) gx, columns - 2);
+		int j = Math.min((int) gy, rows - 2);
+		double u = gx - i;
+		double v = gy - j;
+		int k = j * columns + i;
+		double t = (double) band / bandsPerSlice;
+		double near = bilinear(a, k, u, v);
+		return near + t * (bilinear(b, k, u, v) - near);
+	}
+
+	private double bilinear(double[] grid, int k, double u, double v) {
+		double top = grid[k] + u * (grid[k + 1] - grid[k]);
+		double bottom = grid[k + columns] + u * (grid[k + columns + 1] - grid[k + columns]);
+		return top + v * (bottom - top);
+	}
+
+	/**
+	 * @return the depth along z that lookups currently see
+	 * @since 1.1
+	 */
+	public double getZ() {
+		return z + depth * band / bandsPerSlice;
+	}
+
+	/**
+	 * @return the amount of grid points along x
+	 * @since 1.1
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return the amount of grid points along y
+	 * @since 1.1
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return the distance between grid points
+	 * @since 1.1
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * @return the amount of calls of {@link #advance()} that move the field
+	 * forward one depth
+	 * @since 1.1
+	 */
+	public int getBandsPerSlice() {
+		return bandsPerSlice;
+	}
+}
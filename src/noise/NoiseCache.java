@@ -0,0 +1,345 @@
+package noise;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers 2D noise lookups from square tiles of samples precomputed with
+ * {@link NoiseGenerator#fill(double[], double, double, double, double, int, int)}.
+ * A lookup interpolates bilinearly between the four samples around the point,
+ * so its cost no longer depends on the amount of octaves. Tiles are computed
+ * on first use and the least recently used ones are evicted once the cache
+ * exceeds its memory budget. Recency is tracked with the second-chance
+ * (clock) approximation of LRU, so that a hit only sets a flag.
+ * <br/>
+ * Interpolation smooths away detail finer than the sample spacing, so the
+ * spacing should stay well below the smallest octave that matters. The cache
+ * does not observe changes to the generator's seed, kernel or default size;
+ * call {@link #clear()} after making them.
+ * <br/>
+ * Lookups are safe from any thread. Recently used tiles are found in a
+ * direct-mapped table without locking. Other lookups go to one of several
+ * independently locked segments, each with its own eviction order, so threads
+ * only contend when they miss in the same segment.
+ *
+ * @see NoiseSource
+ * @since 1.1
+ */
+public class NoiseCache implements NoiseSource {
+
+	/**
+	 * The default amount of sample intervals along each side of a tile.
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_TILE_SIZE = 64;
+
+	/**
+	 * The default memory budget, 16 MiB.
+	 * @since 1.1
+	 */
+	public static final long DEFAULT_MAX_BYTES = 16L << 20;
+
+	/**
+	 * The amount of segments, a power of two.
+	 * @since 1.1
+	 */
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * The estimated bytes of a tile besides its samples: the array header and
+	 * the map entry referencing it.
+	 * @since 1.1
+	 */
+	private static final int TILE_OVERHEAD = 64;
+
+	/**
+	 * The largest amount of slots of the table of recent tiles.
+	 * @since 1.1
+	 */
+	private static final int MAX_RECENT = 1 << 14;
+
+	private final NoiseGenerator noise;
+	private final double spacing;
+	private final int tileSize;
+	private final long maxBytes;
+	private final long tileBytes;
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	/**
+	 * Recently used tiles by hash, read without locking. A slot holds
+	 * whichever tile was last looked up through the segments with its hash.
+	 * Evicted tiles are cleared from their slot.
+	 * @since 1.1
+	 */
+	private final Tile[] recent;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a {@code NoiseCache} with samples one unit apart, the default tile
+	 * size and the default memory budget.
+	 * @param noise - the specified generator
+	 * @since 1.1
+	 */
+	public NoiseCache(NoiseGenerator noise) {
+		this(noise, 1, DEFAULT_TILE_SIZE, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Creates a {@code NoiseCache}.
+	 * @param noise - the specified generator
+	 * @param spacing - the distance between samples
+	 * @param tileSize - the amount of sample intervals along each side of a tile
+	 * @param maxBytes - the memory budget, of which at least one tile per
+	 * segment is always kept
+	 * @since 1.1
+	 */
+	public NoiseCache(NoiseGenerator noise, double spacing, int tileSize, long maxBytes) {
+		if (noise == null) {
+			throw new IllegalArgumentException("Generator must not be null");
+		}
+		if (!(spacing > 0) || Double.isInfinite(spacing)) {
+			throw new IllegalArgumentException("Spacing must be positive: " + spacing);
+		}
+		if (tileSize < 1 || tileSize > 4096) {
+			throw new IllegalArgumentException("Tile size must be from 1 to 4096: " + tileSize);
+		}
+		this.noise = noise;
+		this.spacing = spacing;
+		this.tileSize = tileSize;
+		this.maxBytes = maxBytes;
+		this.tileBytes = (long) (tileSize + 1) * (tileSize + 1) * Double.BYTES + TILE_OVERHEAD;
+		int tilesPerSegment = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / tileBytes / SEGMENTS));
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(tilesPerSegment);
+		}
+		long tiles = (long) tilesPerSegment * SEGMENTS;
+		recent = new Tile[(int) Math.min(MAX_RECENT, Long.highestOneBit(Math.max(1, tiles) * 2 - 1) * 2)];
+	}
+
+	/**
+	 * Returns the noise at the specified point, interpolated from the cached
+	 * samples around it.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @return the noise at the point
+	 * @since 1.1
+	 */
+	@Override
+	public double noise(double x, double y) {
+		double gx = x / spacing;
+		double gy = y / spacing;
+		double fx = Math.floor(gx);
+		double fy = Math.floor(gy);
+		long ix = (long) fx;
+		long iy = (long) fy;
+		long tx = Math.floorDiv(ix, tileSize);
+		long ty = Math.floorDiv(iy, tileSize);
+		int i = (int) (ix - tx * tileSize);
+		int j = (int) (iy - ty * tileSize);
+
+		long key = tx << 32 | ty & 0xFFFFFFFFL;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		Tile t = recent[(int) (hash >>> 32) & (recent.length - 1)];
+		if (t == null || t.key != key) {
+			t = load(key, hash);
+		} else {
+			hits.increment();
+			if (!t.referenced) {
+				t.referenced = true;
+			}
+		}
+		double[] tile = t.samples;
+		int stride = tileSize + 1;
+		int k = j * stride + i;
+		double u = gx - fx;
+		double v = gy - fy;
+		double a = tile[k] + u * (tile[k + 1] - tile[k]);
+		double b = tile[k + stride] + u * (tile[k + stride + 1] - tile[k + stride]);
+		return a + v * (b - a);
+	}
+
+	/**
+	 * Returns the specified tile from its segment, computing it on a miss, and
+	 * makes it the recent tile of its slot.
+	 * @since 1.1
+	 */
+	private Tile load(long key, long hash) {
+		Segment segment = segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+		Tile tile;
+		synchronized (segment) {
+			tile = segment.get(key);
+			if (tile != null) {
+				hits.increment();
+				tile.referenced = true;
+			} else {
+				misses.increment();
+				int stride = tileSize + 1;
+				double[] samples = new double[stride * stride];
+				double step = tileSize * spacing;
+				noise.fill(samples, (int) (key >> 32) * step, (int) key * step, spacing, spacing, stride, stride);
+				tile = new Tile(key, samples);
+				segment.put(key, tile);
+				segment.evict();
+			}
+			// under the lock, so that a tile evicted meanwhile is not published
+			recent[(int) (hash >>> 32) & (recent.length - 1)] = tile;
+		}
+		return tile;
+	}
+
+	/**
+	 * Evicts every tile. The counters are kept.
+	 * @since 1.1
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		for (int i = 0; i < recent.length; i++) {
+			recent[i] = null;
+		}
+	}
+
+	/**
+	 * @return the amount of lookups answered from a cached tile
+	 * @since 1.1
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the amount of lookups that computed a tile
+	 * @since 1.1
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the amount of tiles evicted to stay within the memory budget
+	 * @since 1.1
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the amount of cached tiles
+	 * @since 1.1
+	 */
+	public int getTileCount() {
+		int count = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				count += segment.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the estimated bytes held by the cached tiles
+	 * @since 1.1
+	 */
+	public long getMemoryUsage() {
+		return getTileCount() * tileBytes;
+	}
+
+	/**
+	 * @return the memory budget in bytes
+	 * @since 1.1
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return the distance between samples
+	 * @since 1.1
+	 */
+	public double getSpacing() {
+		return spacing;
+	}
+
+	/**
+	 * @return the amount of sample intervals along each side of a tile
+	 * @since 1.1
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	@Override
+	public String toString() {
+		return "NoiseCache[tiles=" + getTileCount() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + "]";
+	}
+
+	/**
+	 * The samples of one tile.
+	 * @since 1.1
+	 */
+	private static final class Tile {
+
+		final long key;
+		final double[] samples;
+
+		/**
+		 * Set by every hit and cleared when the tile gets a second chance.
+		 * Written without synchronization, as a lost update only affects which
+		 * tile is evicted.
+		 */
+		boolean referenced;
+
+		Tile(long key, double[] samples) {
+			this.key = key;
+			this.samples = samples;
+		}
+	}
+
+	/**
+	 * The tiles of one segment in the order they were loaded or last given a
+	 * second chance.
+	 * @since 1.1
+	 */
+	private final class Segment extends LinkedHashMap<Long, Tile> {
+
+		private static final long serialVersionUID = -4168253245935512447L;
+
+		private final int capacity;
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Evicts the oldest tiles until the segment fits its capacity. An oldest
+		 * tile that was referenced since it was loaded or last moved is moved to
+		 * the back instead, with its flag cleared.
+		 */
+		void evict() {
+			while (size() > capacity) {
+				Map.Entry<Long, Tile> eldest = entrySet().iterator().next();
+				Tile tile = eldest.getValue();
+				remove(eldest.getKey());
+				if (tile.referenced) {
+					tile.referenced = false;
+					put(tile.key, tile);
+					continue;
+				}
+				evictions.increment();
+				int slot = (int) (tile.key * 0x9E3779B97F4A7C15L >>> 32) & (recent.length - 1);
+				if (recent[slot] == tile) {
+					recent[slot] = null;
+				}
+			}
+		}
+	}
+}
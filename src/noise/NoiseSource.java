@@ -0,0 +1,20 @@
+package noise;
+
+/**
+ * A source of 2D noise, either a {@link NoiseGenerator} evaluating every
+ * sample or a {@link NoiseCache} interpolating precomputed ones.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface NoiseSource {
+
+	/**
+	 * Returns the noise at the specified point.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @return the noise at the point
+	 * @since 1.1
+	 */
+	double noise(double x, double y);
+}
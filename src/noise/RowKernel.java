@@ -0,0 +1,34 @@
+package noise;
+
+/**
+ * Adds one octave of 3D noise to a row of samples that share a y and z
+ * lattice position. {@link NoiseGenerator}'s bulk methods drive a kernel row
+ * by row, so alternative kernels can replace the scalar loop.
+ *
+ * @see NoiseGenerator#fill(double[], double, double, double, double, double, int, int)
+ * @since 1.1
+ */
+interface RowKernel {
+
+	/**
+	 * Adds {@code noise * size} to {@code out[offset]} through
+	 * {@code out[offset + width - 1]}.
+	 * @param p - the doubled permutation table
+	 * @param out - the grid being filled
+	 * @param offset - the index of the row's first sample in {@code out}
+	 * @param width - the amount of samples in the row
+	 * @param Xs - the lattice column of each sample
+	 * @param xs - the offset of each sample within its lattice column
+	 * @param us - the fade curve of each offset in {@code xs}
+	 * @param Y - the lattice row
+	 * @param y - the offset within the lattice row
+	 * @param v - the fade curve of {@code y}
+	 * @param Z - the lattice layer
+	 * @param z - the offset within the lattice layer
+	 * @param w - the fade curve of {@code z}
+	 * @param size - the size of the octave
+	 * @since 1.1
+	 */
+	void addOctave(int[] p, double[] out, int offset, int width, int[] Xs, double[] xs, double[] us, int Y,
+			double y, double v, int Z, double z, double w, double size);
+}
@@ -0,0 +1,338 @@
+package physics;
+
+/**
+ * Splits each step of another integrator into as many substeps as needed to
+ * keep within a velocity bound, an error bound, or both, so that a caller can
+ * take large steps, and few updates, where motion is calm and still stay
+ * accurate where it is not.
+ * <ul>
+ * <li>The velocity bound caps how far any mover may travel in one substep,
+ * at the speed it starts the step with. It costs a pass over the
+ * velocities.</li>
+ * <li>The error bound estimates the error of each substep from the state
+ * before and after it, without evaluating the field again: the distance
+ * between where the substep left a mover and where the trapezoidal rule on
+ * its start and end velocities would have. That is the local error of a
+ * second order method, the same order as {@link VelocityVerlet} and an
+ * overestimate for {@link RungeKutta4}. It is allowed up to an absolute
+ * tolerance plus a relative tolerance times the distance the mover
+ * travelled in the substep. Substeps over it are retried shorter, and the
+ * length is grown again while the error stays well below it.</li>
+ * </ul>
+ * The substeps of a step are of equal length, and their length only grows
+ * once the bounds allow twice as long, since every change of length breaks
+ * the energy conservation of a symplectic integrator a little. A step never
+ * tries more than {@link #getMaxSubsteps()} substeps; once at the last one,
+ * the rest of the step is taken whole, whatever its error. Steps of a
+ * negative timestep, such as to run back, only follow the velocity bound.
+ * <br/>
+ * Every mover is stepped together, so the substeps are as short as the
+ * hardest mover needs. With many movers, some mover is nearly always at its
+ * hardest and the substeps settle to a fixed length: the bounds then choose
+ * that length rather than save work, and a fixed timestep of the same length
+ * is as accurate for less.
+ *
+ * @since 1.1
+ */
+public class AdaptiveIntegrator extends FieldIntegrator {
+
+	/**
+	 * The fraction of the length the error estimate allows that the next
+	 * substep is given, to avoid rejections.
+	 * @since 1.1
+	 */
+	private static final double SAFETY = 0.9;
+
+	/**
+	 * How many times longer than the held length the bounds must allow before
+	 * the substeps are lengthened.
+	 * @since 1.1
+	 */
+	private static final double HYSTERESIS = 2;
+
+	private final Integrator integrator;
+	private double maxDisplacement = Double.POSITIVE_INFINITY;
+	private double tolerance, relativeTolerance;
+	private int maxSubsteps = 64;
+
+	/**
+	 * The substep length the error bound allowed last, and the length the
+	 * substeps were held at, carried from step to step, or {@code 0} before
+	 * the first.
+	 * @since 1.1
+	 */
+	private double length, held;
+
+	private int substeps, rejected;
+
+	/**
+	 * The state at the start of the current substep.
+	 * @since 1.1
+	 */
+	private double[] x0 = new double[0], y0 = new double[0], vx0 = new double[0], vy0 = new double[0];
+
+	/**
+	 * Creates an {@code AdaptiveIntegrator} over the specified integrator, with
+	 * no bound until one is set.
+	 * @param integrator - the specified integrator
+	 * @since 1.1
+	 */
+	public AdaptiveIntegrator(Integrator integrator) {
+		if (integrator == null) {
+			throw new IllegalArgumentException("Integrator must not be null");
+		}
+		this.integrator = integrator;
+	}
+
+	@Override
+	public void step(MoverSystem movers, Field field, double dt) {
+		begin(movers);
+		substeps = 0;
+		rejected = 0;
+		double span = Math.abs(dt);
+		boolean bounded = (tolerance > 0 || relativeTolerance > 0) && dt > 0;
+		double allowed = Math.min(span, velocityLength(movers));
+		if (bounded && length > 0) {
+			allowed = Math.min(allowed, length);
+		}
+		if (!(held > 0) || allowed < held || allowed >= held * HYSTERESIS) {
+			held = allowed;
+		}
+		int count = substeps(span, held);
+		if (!bounded) {
+			for (int s = 0; s < count; s++) {
+				substep(movers, field, dt / count);
+			}
+			end(movers);
+			return;
+		}
+		int n = movers.size;
+		x0 = grow(x0, n);
+		y0 = grow(y0, n);
+		vx0 = grow(vx0, n);
+		vy0 = grow(vy0, n);
+		double remaining = dt;
+		double h = dt / count;
+		while (remaining > 0) {
+			// the last substep takes what is left, even slightly over the length
+			if (remaining <= h * 1.0001) {
+				h = remaining;
+			}
+			if (substeps >= maxSubsteps - 1) {
+				substep(movers, field, remaining);
+				break;
+			}
+			save(movers);
+			substep(movers, field, h);
+			double error = error(movers, h);
+			double scale = error > 0 ? SAFETY * Math.pow(error, -1.0 / 3) : 4;
+			if (error <= 1) {
+				remaining -= h;
+				length = h * Math.min(4, scale);
+				if (length < h && remaining > 0) {
+					h = remaining / substeps(remaining, length);
+					held = h;
+				}
+			} else {
+				restore(movers);
+				rejected++;
+				h = remaining / substeps(remaining, h * Math.max(0.1, scale));
+				held = h;
+			}
+		}
+		end(movers);
+	}
+
+	/**
+	 * Returns the substeps of at most the specified length that the specified
+	 * span takes, at least {@code 1} and at most the maximum.
+	 * @since 1.1
+	 */
+	private int substeps(double span, double length) {
+		return (int) Math.max(1, Math.min(maxSubsteps, Math.ceil(span / length - 1e-9)));
+	}
+
+	/**
+	 * Returns the longest substep the velocity bound allows, or
+	 * {@link Double#POSITIVE_INFINITY} if it allows any.
+	 * @since 1.1
+	 */
+	private double velocityLength(MoverSystem movers) {
+		if (maxDisplacement == Double.POSITIVE_INFINITY) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double max = 0;
+		double[] vx = movers.vx, vy = movers.vy;
+		for (int i = 0, n = movers.size; i < n; i++) {
+			max = Math.max(max, vx[i] * vx[i] + vy[i] * vy[i]);
+		}
+		return max > 0 ? maxDisplacement / Math.sqrt(max) : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Takes one substep of the wrapped integrator under the held
+	 * acceleration.
+	 * @since 1.1
+	 */
+	private void substep(MoverSystem movers, Field field, double h) {
+		int n = movers.size;
+		System.arraycopy(ex, 0, movers.ax, 0, n);
+		System.arraycopy(ey, 0, movers.ay, 0, n);
+		integrator.step(movers, field, h);
+		evaluations += integrator.getEvaluations();
+		substeps++;
+	}
+
+	private void save(MoverSystem movers) {
+		int n = movers.size;
+		System.arraycopy(movers.x, 0, x0, 0, n);
+		System.arraycopy(movers.y, 0, y0, 0, n);
+		System.arraycopy(movers.vx, 0, vx0, 0, n);
+		System.arraycopy(movers.vy, 0, vy0, 0, n);
+	}
+
+	private void restore(MoverSystem movers) {
+		int n = movers.size;
+		System.arraycopy(x0, 0, movers.x, 0, n);
+		System.arraycopy(y0, 0, movers.y, 0, n);
+		System.arraycopy(vx0, 0, movers.vx, 0, n);
+		System.arraycopy(vy0, 0, movers.vy, 0, n);
+	}
+
+	/**
+	 * Returns the largest estimated error of any mover over the substep just
+	 * taken, as a fraction of what its tolerance allows.
+	 * @since 1.1
+	 */
+	private double error(MoverSystem movers, double h) {
+		double max = 0;
+		double half = h * 0.5;
+		double[] x = movers.x, y = movers.y, vx = movers.vx, vy = movers.vy;
+		for (int i = 0, n = movers.size; i < n; i++) {
+			double dx = x[i] - x0[i], dy = y[i] - y0[i];
+			double errorX = dx - half * (vx0[i] + vx[i]), errorY = dy - half * (vy0[i] + vy[i]);
+			double allowed = tolerance + relativeTolerance * Math.sqrt(dx * dx + dy * dy);
+			max = Math.max(max, Math.sqrt(errorX * errorX + errorY * errorY) / allowed);
+		}
+		return max;
+	}
+
+	/**
+	 * Sets the velocity bound: the farthest any mover may travel in one
+	 * substep, at its speed at the start of the step.
+	 * @param maxDisplacement - the specified distance, greater than
+	 * {@code 0}, or {@link Double#POSITIVE_INFINITY} for no bound
+	 * @since 1.1
+	 */
+	public void setMaxDisplacement(double maxDisplacement) {
+		if (!(maxDisplacement > 0)) {
+			throw new IllegalArgumentException("Displacement must be positive: " + maxDisplacement);
+		}
+		this.maxDisplacement = maxDisplacement;
+		this.held = 0;
+	}
+
+	/**
+	 * @return the farthest any mover may travel in one substep
+	 * @since 1.1
+	 */
+	public double getMaxDisplacement() {
+		return maxDisplacement;
+	}
+
+	/**
+	 * Sets the absolute part of the error bound: the largest estimated error
+	 * in location of any mover per substep, on top of the relative part.
+	 * @param tolerance - the specified distance, or {@code 0} for none
+	 * @since 1.1
+	 */
+	public void setTolerance(double tolerance) {
+		if (!(tolerance >= 0)) {
+			throw new IllegalArgumentException("Tolerance must not be negative: " + tolerance);
+		}
+		this.tolerance = tolerance;
+		this.length = 0;
+		this.held = 0;
+	}
+
+	/**
+	 * @return the absolute part of the error bound, or {@code 0} for none
+	 * @since 1.1
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * Sets the relative part of the error bound: the largest estimated error
+	 * in location of any mover per substep, as a fraction of the distance it
+	 * travelled in the substep, on top of the absolute part.
+	 * @param relativeTolerance - the specified fraction, or {@code 0} for none
+	 * @since 1.1
+	 */
+	public void setRelativeTolerance(double relativeTolerance) {
+		if (!(relativeTolerance >= 0)) {
+			throw new IllegalArgumentException("Tolerance must not be negative: " + relativeTolerance);
+		}
+		this.relativeTolerance = relativeTolerance;
+		this.length = 0;
+		this.held = 0;
+	}
+
+	/**
+	 * @return the relative part of the error bound, or {@code 0} for none
+	 * @since 1.1
+	 */
+	public double getRelativeTolerance() {
+		return relativeTolerance;
+	}
+
+	/**
+	 * Sets the most substeps tried per step.
+	 * @param maxSubsteps - the specified amount, at least {@code 1}
+	 * @since 1.1
+	 */
+	public void setMaxSubsteps(int maxSubsteps) {
+		if (maxSubsteps < 1) {
+			throw new IllegalArgumentException("Substeps must be at least 1: " + maxSubsteps);
+		}
+		this.maxSubsteps = maxSubsteps;
+	}
+
+	/**
+	 * @return the most substeps tried per step
+	 * @since 1.1
+	 */
+	public int getMaxSubsteps() {
+		return maxSubsteps;
+	}
+
+	/**
+	 * @return the substeps taken by the last step, including those rejected
+	 * @since 1.1
+	 */
+	public int getSubsteps() {
+		return substeps;
+	}
+
+	/**
+	 * @return the substeps rejected by the error bound in the last step
+	 * @since 1.1
+	 */
+	public int getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * @return the integrator whose steps are split
+	 * @since 1.1
+	 */
+	public Integrator getIntegrator() {
+		return integrator;
+	}
+
+	@Override
+	public int getOrder() {
+		return integrator.getOrder();
+	}
+}
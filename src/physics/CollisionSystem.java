@@ -0,0 +1,498 @@
+package physics;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Detects and resolves overlaps between the movers of a {@link MoverSystem},
+ * each treated as the largest circle inscribed in its bounds, whose diameter
+ * is the smaller of its width and height.
+ * <br/>
+ * Every {@link #step()} rebuilds a uniform grid of the movers with a counting
+ * sort: each mover is placed in the cell holding its center, with cells as
+ * wide as the largest mover, so only movers of the nine cells around a mover
+ * can touch it. The grid is dense over the movers' bounding box, or a spatial
+ * hash when the movers are too spread out for that. The narrow phase tests those candidates circle against
+ * circle, optionally splitting the movers across the threads of the common
+ * {@link java.util.concurrent.ForkJoinPool}. The contacts are then resolved
+ * serially, in the same order either way, with impulses along the contact
+ * normal weighted by inverse mass, followed by a positional correction that
+ * pushes the pair apart. Movers with a mass of {@code 0} or less, such as
+ * those added without one, are treated as having a mass of {@code 1}.
+ * <br/>
+ * Detection and the hash are linear in the amount of movers as long as
+ * their density stays bounded. The arrays are reused between steps.
+ *
+ * @see MoverSystem
+ * @since 1.1
+ */
+public class CollisionSystem {
+
+	/**
+	 * The amount of movers below which the narrow phase always runs serially.
+	 * @since 1.1
+	 */
+	private static final int PARALLEL_THRESHOLD = 8192;
+
+	/**
+	 * The overlap left uncorrected, so resting contacts do not jitter.
+	 * @since 1.1
+	 */
+	private static final double SLOP = 0.01;
+
+	/**
+	 * The fraction of the remaining overlap corrected each step.
+	 * @since 1.1
+	 */
+	private static final double CORRECTION = 0.8;
+
+	/**
+	 * The most cells per mover spanned by the movers for which the broad phase
+	 * uses a dense grid rather than a hash.
+	 * @since 1.1
+	 */
+	private static final int GRID_CELLS_PER_MOVER = 8;
+
+	private final MoverSystem movers;
+
+	/**
+	 * The elasticity of collisions, from {@code 0} (inelastic) to {@code 1}.
+	 * @since 1.1
+	 */
+	private double restitution = 1;
+
+	/**
+	 * The configured cell size, or {@code 0} to use the largest diameter.
+	 * @since 1.1
+	 */
+	private double cellSize;
+
+	private boolean parallel;
+
+	/**
+	 * The center, radius and hash bucket of every mover, as of the last
+	 * broad phase.
+	 * @since 1.1
+	 */
+	private double[] cx = new double[0], cy = new double[0], radius = new double[0];
+	private int[] bucket = new int[0];
+
+	/**
+	 * The start of each bucket's movers in {@link #sorted}, and one past the
+	 * last bucket.
+	 * @since 1.1
+	 */
+	private int[] start = new int[0];
+
+	/**
+	 * The movers ordered by bucket.
+	 * @since 1.1
+	 */
+	private int[] sorted = new int[0];
+
+	/**
+	 * The centers and radii in the order of {@link #sorted}, so that the movers
+	 * of a bucket are read from adjacent memory.
+	 * @since 1.1
+	 */
+	private double[] sx = new double[0], sy = new double[0], sr = new double[0];
+
+	/**
+	 * The contacts found by each band of the narrow phase, in order.
+	 * @since 1.1
+	 */
+	private Contacts[] bands = { new Contacts() };
+
+	/**
+	 * The columns of the dense grid of the last broad phase with its origin
+	 * cell, or {@code 0} if it hashed the cells.
+	 * @since 1.1
+	 */
+	private int columns, originX, originY;
+
+	private int bucketCount;
+	private int bandCount;
+	private int contactCount;
+	private double lastCellSize;
+
+	/**
+	 * Creates a {@code CollisionSystem} for the specified movers.
+	 * @param movers - the specified movers
+	 * @since 1.1
+	 */
+	public CollisionSystem(MoverSystem movers) {
+		if (movers == null) {
+			throw new IllegalArgumentException("Movers must not be null");
+		}
+		this.movers = movers;
+	}
+
+	/**
+	 * Detects every overlapping pair of movers and resolves it.
+	 * @return the amount of overlapping pairs found
+	 * @since 1.1
+	 */
+	public int step() {
+		int contacts = detect();
+		resolve();
+		return contacts;
+	}
+
+	/**
+	 * Rebuilds the spatial hash and finds every overlapping pair of movers
+	 * without changing them.
+	 * @return the amount of overlapping pairs found
+	 * @since 1.1
+	 */
+	public int detect() {
+		int n = movers.size;
+		broadPhase(n);
+		bandCount = parallel && n >= PARALLEL_THRESHOLD ? 4 * Runtime.getRuntime().availableProcessors() : 1;
+		if (bands.length < bandCount) {
+			bands = Arrays.copyOf(bands, bandCount);
+			for (int b = 0; b < bandCount; b++) {
+				if (bands[b] == null) {
+					bands[b] = new Contacts();
+				}
+			}
+		}
+		int count = bandCount;
+		if (count == 1) {
+			narrowPhase(bands[0], 0, n);
+		} else {
+			IntStream.range(0, count).parallel().forEach(
+					b -> narrowPhase(bands[b], (int) ((long) n * b / count), (int) ((long) n * (b + 1) / count)));
+		}
+		contactCount = 0;
+		for (int b = 0; b < count; b++) {
+			contactCount += bands[b].size;
+		}
+		return contactCount;
+	}
+
+	/**
+	 * Resolves the contacts found by the last {@link #detect()}, in the order
+	 * they were found. A pair separated by an earlier contact is skipped.
+	 * @since 1.1
+	 */
+	public void resolve() {
+		for (int b = 0; b < bandCount; b++) {
+			Contacts contacts = bands[b];
+			for (int k = 0; k < contacts.size; k++) {
+				resolve(contacts.pairs[2 * k], contacts.pairs[2 * k + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Assigns every mover the bucket of its cell and sorts the movers by
+	 * bucket. When the cells spanned by the movers are not many more than the
+	 * movers, every cell gets its own bucket in row order; otherwise cells are
+	 * hashed into twice as many buckets as movers.
+	 * @since 1.1
+	 */
+	private void broadPhase(int n) {
+		if (cx.length < n) {
+			int capacity = Math.max(n, cx.length + (cx.length >> 1));
+			cx = new double[capacity];
+			cy = new double[capacity];
+			radius = new double[capacity];
+			bucket = new int[capacity];
+			sorted = new int[capacity];
+			sx = new double[capacity];
+			sy = new double[capacity];
+			sr = new double[capacity];
+		}
+
+		double largest = 0;
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double w = movers.width[i];
+			double h = movers.height[i];
+			double r = Math.min(w, h) / 2;
+			double x = movers.x[i] + w / 2;
+			double y = movers.y[i] + h / 2;
+			radius[i] = r;
+			cx[i] = x;
+			cy[i] = y;
+			largest = Math.max(largest, r);
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+		double cell = cellSize > 0 ? cellSize : Math.max(2 * largest, Double.MIN_NORMAL);
+		lastCellSize = cell;
+
+		int buckets;
+		double spanX = n > 0 ? Math.floor(maxX / cell) - Math.floor(minX / cell) : 0;
+		double spanY = n > 0 ? Math.floor(maxY / cell) - Math.floor(minY / cell) : 0;
+		if ((spanX + 3) * (spanY + 3) <= GRID_CELLS_PER_MOVER * (double) n + 16) {
+			// a padding cell on every side keeps the neighbours of each cell
+			// within the grid
+			originX = (int) Math.floor(minX / cell) - 1;
+			originY = (int) Math.floor(minY / cell) - 1;
+			columns = (int) spanX + 3;
+			buckets = columns * ((int) spanY + 3);
+			for (int i = 0; i < n; i++) {
+				bucket[i] = ((int) Math.floor(cy[i] / cell) - originY) * columns
+						+ (int) Math.floor(cx[i] / cell) - originX;
+			}
+		} else {
+			columns = 0;
+			buckets = Math.max(16, Integer.highestOneBit(Math.max(1, 2 * n - 1)) << 1);
+			int mask = buckets - 1;
+			for (int i = 0; i < n; i++) {
+				bucket[i] = hash((int) Math.floor(cx[i] / cell), (int) Math.floor(cy[i] / cell)) & mask;
+			}
+		}
+
+		if (start.length < buckets + 1) {
+			start = new int[Math.max(buckets + 1, start.length + (start.length >> 1))];
+		} else {
+			Arrays.fill(start, 0, buckets + 1, 0);
+		}
+		bucketCount = buckets;
+		for (int i = 0; i < n; i++) {
+			start[bucket[i] + 1]++;
+		}
+		for (int b = 0; b < buckets; b++) {
+			start[b + 1] += start[b];
+		}
+		// place each mover at the next free slot of its bucket, using the
+		// bucket starts as cursors, then shift them back
+		for (int i = 0; i < n; i++) {
+			int k = start[bucket[i]]++;
+			sorted[k] = i;
+			sx[k] = cx[i];
+			sy[k] = cy[i];
+			sr[k] = radius[i];
+		}
+		for (int b = buckets; b > 0; b--) {
+			start[b] = start[b - 1];
+		}
+		start[0] = 0;
+	}
+
+	private static int hash(int x, int y) {
+		int h = x * 0x9E3779B1 + y * 0x85EBCA77;
+		return h ^ h >>> 15;
+	}
+
+	/**
+	 * Tests the movers from {@code from} (inclusive) to {@code to} (exclusive)
+	 * in bucket order against the movers of the nine cells around them. Going
+	 * by bucket keeps consecutive movers on the same neighbouring buckets. Each
+	 * pair is recorded once, by the mover with the lower index.
+	 * @since 1.1
+	 */
+	private void narrowPhase(Contacts contacts, int from, int to) {
+		contacts.size = 0;
+		if (columns > 0) {
+			narrowPhaseGrid(contacts, from, to);
+			return;
+		}
+		double cell = lastCellSize;
+		int mask = bucketCount - 1;
+		int[] visited = new int[9];
+		for (int q = from; q < to; q++) {
+			int i = sorted[q];
+			double xi = sx[q], yi = sy[q], ri = sr[q];
+			int cellX = (int) Math.floor(xi / cell);
+			int cellY = (int) Math.floor(yi / cell);
+			int seen = 0;
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					int b = hash(cellX + dx, cellY + dy) & mask;
+					if (contains(visited, seen, b)) {
+						continue; // two cells sharing a bucket
+					}
+					visited[seen++] = b;
+					test(contacts, i, xi, yi, ri, start[b], start[b + 1]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The narrow phase over the dense grid, where the three neighbouring cells
+	 * of a row are adjacent buckets and so one run of {@link #sorted}.
+	 * @since 1.1
+	 */
+	private void narrowPhaseGrid(Contacts contacts, int from, int to) {
+		for (int q = from; q < to; q++) {
+			int i = sorted[q];
+			int b = bucket[i];
+			double xi = sx[q], yi = sy[q], ri = sr[q];
+			for (int row = b - columns - 1; row <= b + columns - 1; row += columns) {
+				test(contacts, i, xi, yi, ri, start[row], start[row + 3]);
+			}
+		}
+	}
+
+	/**
+	 * Tests one mover against the sorted movers from {@code from} (inclusive)
+	 * to {@code to} (exclusive) with a higher index.
+	 * @since 1.1
+	 */
+	private void test(Contacts contacts, int i, double xi, double yi, double ri, int from, int to) {
+		for (int k = from; k < to; k++) {
+			int j = sorted[k];
+			if (j <= i) {
+				continue;
+			}
+			double ox = sx[k] - xi;
+			double oy = sy[k] - yi;
+			double reach = ri + sr[k];
+			if (ox * ox + oy * oy < reach * reach) {
+				contacts.add(i, j);
+			}
+		}
+	}
+
+	private static boolean contains(int[] values, int count, int value) {
+		for (int k = 0; k < count; k++) {
+			if (values[k] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the impulse and positional correction of one contact.
+	 * @since 1.1
+	 */
+	private void resolve(int i, int j) {
+		double[] x = movers.x, y = movers.y, vx = movers.vx, vy = movers.vy;
+		double ri = radius[i], rj = radius[j];
+		double nx = x[j] + movers.width[j] / 2 - x[i] - movers.width[i] / 2;
+		double ny = y[j] + movers.height[j] / 2 - y[i] - movers.height[i] / 2;
+		double distance = Math.sqrt(nx * nx + ny * ny);
+		double reach = ri + rj;
+		if (distance >= reach) {
+			return;
+		}
+		if (distance == 0) {
+			nx = 1; // coincident centers: separate along x
+			ny = 0;
+		} else {
+			nx /= distance;
+			ny /= distance;
+		}
+		double inverseI = inverseMass(movers.mass[i]);
+		double inverseJ = inverseMass(movers.mass[j]);
+		double inverse = inverseI + inverseJ;
+
+		double approach = (vx[j] - vx[i]) * nx + (vy[j] - vy[i]) * ny;
+		if (approach < 0) {
+			double impulse = -(1 + restitution) * approach / inverse;
+			vx[i] -= impulse * inverseI * nx;
+			vy[i] -= impulse * inverseI * ny;
+			vx[j] += impulse * inverseJ * nx;
+			vy[j] += impulse * inverseJ * ny;
+		}
+
+		double overlap = reach - distance - SLOP;
+		if (overlap > 0) {
+			double correction = overlap * CORRECTION / inverse;
+			x[i] -= correction * inverseI * nx;
+			y[i] -= correction * inverseI * ny;
+			x[j] += correction * inverseJ * nx;
+			y[j] += correction * inverseJ * ny;
+		}
+	}
+
+	private static double inverseMass(float mass) {
+		return mass > 0 ? 1.0 / mass : 1.0;
+	}
+
+	/**
+	 * @return the amount of overlapping pairs found by the last detection
+	 * @since 1.1
+	 */
+	public int getContactCount() {
+		return contactCount;
+	}
+
+	/**
+	 * @return the elasticity of collisions
+	 * @since 1.1
+	 */
+	public double getRestitution() {
+		return restitution;
+	}
+
+	/**
+	 * Sets the elasticity of collisions.
+	 * @param restitution - the specified elasticity, from {@code 0}
+	 * (inelastic) to {@code 1} (elastic)
+	 * @since 1.1
+	 */
+	public void setRestitution(double restitution) {
+		if (!(restitution >= 0 && restitution <= 1)) {
+			throw new IllegalArgumentException("Restitution must be from 0 to 1: " + restitution);
+		}
+		this.restitution = restitution;
+	}
+
+	/**
+	 * @return the configured cell size, or {@code 0} if the cells are as wide
+	 * as the largest mover
+	 * @since 1.1
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Sets the width of the grid cells. Cells narrower than the largest mover
+	 * miss contacts; {@code 0} sizes them from the largest mover every step.
+	 * @param cellSize - the specified width, or {@code 0}
+	 * @since 1.1
+	 */
+	public void setCellSize(double cellSize) {
+		if (!(cellSize >= 0)) {
+			throw new IllegalArgumentException("Cell size must not be negative: " + cellSize);
+		}
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * @return {@code true} if the narrow phase runs in parallel
+	 * @since 1.1
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Selects whether the narrow phase of large systems runs on the common
+	 * {@link java.util.concurrent.ForkJoinPool}. The contacts and their
+	 * resolution are the same either way.
+	 * @param parallel - {@code true} to run in parallel
+	 * @since 1.1
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * The pairs of movers found overlapping by one band of the narrow phase.
+	 * @since 1.1
+	 */
+	private static final class Contacts {
+		int[] pairs = new int[64];
+		int size;
+
+		void add(int i, int j) {
+			if (2 * size == pairs.length) {
+				pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+			}
+			pairs[2 * size] = i;
+			pairs[2 * size + 1] = j;
+			size++;
+		}
+	}
+}
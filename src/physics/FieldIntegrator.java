@@ -0,0 +1,79 @@
+package physics;
+
+import java.util.Arrays;
+
+/**
+ * The bookkeeping shared by the integrators: holding the acceleration
+ * applied before a step, and evaluating the field on top of it.
+ *
+ * @since 1.1
+ */
+abstract class FieldIntegrator implements Integrator {
+
+	/**
+	 * The acceleration applied to each mover before the current step.
+	 * @since 1.1
+	 */
+	double[] ex = new double[0], ey = new double[0];
+
+	/**
+	 * The field evaluations taken by the current or last step.
+	 * @since 1.1
+	 */
+	int evaluations;
+
+	/**
+	 * Starts a step: takes the acceleration already applied to each mover as
+	 * held for the step, and clears it.
+	 * @since 1.1
+	 */
+	void begin(MoverSystem movers) {
+		int n = movers.size;
+		ex = grow(ex, n);
+		ey = grow(ey, n);
+		System.arraycopy(movers.ax, 0, ex, 0, n);
+		System.arraycopy(movers.ay, 0, ey, 0, n);
+		evaluations = 0;
+	}
+
+	/**
+	 * Sets the acceleration of every mover to the field at its current
+	 * state, plus the held acceleration.
+	 * @since 1.1
+	 */
+	void evaluate(MoverSystem movers, Field field) {
+		int n = movers.size;
+		Arrays.fill(movers.ax, 0, n, 0);
+		Arrays.fill(movers.ay, 0, n, 0);
+		field.accelerate(movers);
+		double[] ax = movers.ax, ay = movers.ay;
+		for (int i = 0; i < n; i++) {
+			ax[i] += ex[i];
+			ay[i] += ey[i];
+		}
+		evaluations++;
+	}
+
+	/**
+	 * Ends a step, resetting every acceleration to {@code 0}.
+	 * @since 1.1
+	 */
+	void end(MoverSystem movers) {
+		Arrays.fill(movers.ax, 0, movers.size, 0);
+		Arrays.fill(movers.ay, 0, movers.size, 0);
+	}
+
+	@Override
+	public int getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Returns the specified array if it holds {@code n} values, otherwise a
+	 * new one grown by at least half.
+	 * @since 1.1
+	 */
+	static double[] grow(double[] array, int n) {
+		return array.length >= n ? array : new double[Math.max(n, array.length + (array.length >> 1))];
+	}
+}
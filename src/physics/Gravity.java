@@ -0,0 +1,661 @@
+package physics;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Mutual gravitational attraction between the movers of a
+ * {@link MoverSystem}, approximated with a Barnes–Hut quadtree.
+ * <br/>
+ * Every {@link #step()} sorts the movers' centers along a Morton (Z-order)
+ * curve over their bounding square, so that every quadtree node covers a
+ * contiguous run of them, and builds the tree down to buckets of a few movers.
+ * Each mover then walks the tree: a node whose width is less than the opening
+ * angle {@code θ} times its distance from the mover attracts it as a single
+ * body at its center of mass, otherwise its children are visited, and the
+ * movers of a bucket attract it one by one. Forces are softened by a length
+ * {@code ε} so that close encounters stay finite.
+ * <br/>
+ * The result is added to each mover's acceleration, like
+ * {@link MoverSystem#applyForce(int, double, double)}, as {@code G m / r²}
+ * towards every other mover of mass {@code m}: a mover's own mass does not
+ * slow it, as for any gravitational pull. Movers with a mass of {@code 0} or
+ * less are treated as having a mass of {@code 1}.
+ * <br/>
+ * The subtrees below the second level are built in parallel, and the movers
+ * walk the tree in parallel, on the common
+ * {@link java.util.concurrent.ForkJoinPool}. {@link Mode#BRUTE_FORCE} sums
+ * every pair exactly instead, for validation.
+ *
+ * @since 1.1
+ */
+public class Gravity {
+
+	/**
+	 * How forces are summed.
+	 * @since 1.1
+	 */
+	public enum Mode {
+
+		/**
+		 * Approximately, through the quadtree, in {@code O(n log n)}.
+		 */
+		BARNES_HUT,
+
+		/**
+		 * Exactly, over every pair, in {@code O(n²)}.
+		 */
+		BRUTE_FORCE
+	}
+
+	/**
+	 * The most movers in a leaf, unless the tree is at {@link #MAX_DEPTH}.
+	 * @since 1.1
+	 */
+	private static final int LEAF_SIZE = 8;
+
+	/**
+	 * The depth of the finest cells, and the bits per axis of a Morton code.
+	 * @since 1.1
+	 */
+	private static final int MAX_DEPTH = 16;
+
+	/**
+	 * The depth below which subtrees are built in parallel.
+	 * @since 1.1
+	 */
+	private static final int SPLIT_DEPTH = 2;
+
+	/**
+	 * The amount of movers below which a step runs serially.
+	 * @since 1.1
+	 */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	private final MoverSystem movers;
+
+	private Mode mode = Mode.BARNES_HUT;
+	private double constant = 1;
+	private double theta = 0.5;
+	private double softening = 1;
+	private boolean parallel = true;
+
+	/**
+	 * The movers' Morton codes and indices, sorted by code, and their centers
+	 * and masses in that order.
+	 * @since 1.1
+	 */
+	private int[] codes = new int[0], order = new int[0];
+	private int[] codeBuffer = new int[0], orderBuffer = new int[0];
+	private double[] px = new double[0], py = new double[0], pm = new double[0];
+
+	/**
+	 * The nodes of the last tree, the root first.
+	 * @since 1.1
+	 */
+	private final Nodes tree = new Nodes(64);
+
+	/**
+	 * The buffers the subtrees below {@link #SPLIT_DEPTH} are built into,
+	 * reused between steps.
+	 * @since 1.1
+	 */
+	private final Nodes[] subtrees = new Nodes[1 << 2 * SPLIT_DEPTH];
+
+	/**
+	 * The corner and width of the root.
+	 * @since 1.1
+	 */
+	private double rootX, rootY, rootSize;
+
+	/**
+	 * Creates a {@code Gravity} for the specified movers.
+	 * @param movers - the specified movers
+	 * @since 1.1
+	 */
+	public Gravity(MoverSystem movers) {
+		if (movers == null) {
+			throw new IllegalArgumentException("Movers must not be null");
+		}
+		this.movers = movers;
+	}
+
+	/**
+	 * Adds the attraction of every other mover to the acceleration of each.
+	 * @since 1.1
+	 */
+	public void step() {
+		int n = movers.size;
+		if (n == 0) {
+			return;
+		}
+		sort(n);
+		boolean parallel = this.parallel && n >= PARALLEL_THRESHOLD;
+		if (mode == Mode.BARNES_HUT) {
+			build(parallel);
+		}
+		int chunks = parallel ? 4 * Runtime.getRuntime().availableProcessors() : 1;
+		IntStream range = IntStream.range(0, chunks);
+		(parallel ? range.parallel() : range).forEach(c -> {
+			int from = (int) ((long) n * c / chunks);
+			int to = (int) ((long) n * (c + 1) / chunks);
+			if (mode == Mode.BARNES_HUT) {
+				walk(from, to);
+			} else {
+				pairs(from, to);
+			}
+		});
+	}
+
+	/**
+	 * Computes the centers, masses and Morton codes of the movers and sorts
+	 * them by code with a radix sort.
+	 * @since 1.1
+	 */
+	private void sort(int n) {
+		if (codes.length < n) {
+			int capacity = Math.max(n, codes.length + (codes.length >> 1));
+			codes = new int[capacity];
+			order = new int[capacity];
+			codeBuffer = new int[capacity];
+			orderBuffer = new int[capacity];
+			px = new double[capacity];
+			py = new double[capacity];
+			pm = new double[capacity];
+		}
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double x = movers.x[i] + movers.width[i] / 2;
+			double y = movers.y[i] + movers.height[i] / 2;
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+		rootX = minX;
+		rootY = minY;
+		// slightly wider than the movers, so the far edge maps below 2^MAX_DEPTH
+		rootSize = Math.max(Math.max(maxX - minX, maxY - minY) * (1 + 1e-9), Double.MIN_NORMAL);
+		double scale = (1 << MAX_DEPTH) / rootSize;
+		int cellMax = (1 << MAX_DEPTH) - 1;
+		for (int i = 0; i < n; i++) {
+			double x = movers.x[i] + movers.width[i] / 2;
+			double y = movers.y[i] + movers.height[i] / 2;
+			int cx = Math.min((int) ((x - minX) * scale), cellMax);
+			int cy = Math.min((int) ((y - minY) * scale), cellMax);
+			codes[i] = interleave(cx) | interleave(cy) << 1;
+			order[i] = i;
+		}
+
+		// four passes of eight bits, least significant first
+		int[] count = new int[257];
+		for (int shift = 0; shift < 32; shift += 8) {
+			Arrays.fill(count, 0);
+			for (int i = 0; i < n; i++) {
+				count[(codes[i] >>> shift & 0xFF) + 1]++;
+			}
+			for (int b = 0; b < 256; b++) {
+				count[b + 1] += count[b];
+			}
+			for (int i = 0; i < n; i++) {
+				int k = count[codes[i] >>> shift & 0xFF]++;
+				codeBuffer[k] = codes[i];
+				orderBuffer[k] = order[i];
+			}
+			int[] swap = codes;
+			codes = codeBuffer;
+			codeBuffer = swap;
+			swap = order;
+			order = orderBuffer;
+			orderBuffer = swap;
+		}
+
+		for (int k = 0; k < n; k++) {
+			int i = order[k];
+			px[k] = movers.x[i] + movers.width[i] / 2;
+			py[k] = movers.y[i] + movers.height[i] / 2;
+			float m = movers.mass[i];
+			pm[k] = m > 0 ? m : 1;
+		}
+	}
+
+	/**
+	 * Spreads the low 16 bits of the specified value over the even bits.
+	 * @since 1.1
+	 */
+	private static int interleave(int v) {
+		v = (v | v << 8) & 0x00FF00FF;
+		v = (v | v << 4) & 0x0F0F0F0F;
+		v = (v | v << 2) & 0x33333333;
+		v = (v | v << 1) & 0x55555555;
+		return v;
+	}
+
+	/**
+	 * Builds the tree over the sorted movers. The nodes above
+	 * {@link #SPLIT_DEPTH} are built first, leaving the subtrees below as
+	 * placeholders that are then built into their own buffers and appended.
+	 * @since 1.1
+	 */
+	private void build(boolean parallel) {
+		int n = movers.size;
+		tree.clear();
+		int[] pending = new int[subtrees.length];
+		int[] pendingCount = { 0 };
+		buildTop(0, n, 0, rootX, rootY, rootSize, pending, pendingCount);
+
+		int count = pendingCount[0];
+		IntStream range = IntStream.range(0, count);
+		(parallel ? range.parallel() : range).forEach(t -> {
+			int node = pending[t];
+			if (subtrees[t] == null) {
+				subtrees[t] = new Nodes(64);
+			}
+			Nodes nodes = subtrees[t];
+			nodes.clear();
+			build(nodes, tree.start[node], tree.end[node], SPLIT_DEPTH, tree.x[node], tree.y[node],
+					tree.size[node]);
+		});
+		for (int t = 0; t < count; t++) {
+			tree.graft(pending[t], subtrees[t]);
+		}
+		for (int node = tree.count - 1; node >= 0; node--) {
+			if (tree.depth[node] < SPLIT_DEPTH && !tree.isLeaf(node)) {
+				tree.aggregate(node);
+			}
+		}
+	}
+
+	/**
+	 * Builds the nodes above {@link #SPLIT_DEPTH} and records the placeholders
+	 * of the subtrees below.
+	 * @since 1.1
+	 */
+	private int buildTop(int from, int to, int depth, double x, double y, double size, int[] pending,
+			int[] pendingCount) {
+		int node = tree.add(from, to, depth, x, y, size);
+		if (depth == SPLIT_DEPTH) {
+			pending[pendingCount[0]++] = node;
+			return node;
+		}
+		if (to - from <= LEAF_SIZE) {
+			tree.summarize(node, px, py, pm);
+			return node;
+		}
+		double half = size / 2;
+		int shift = 2 * (MAX_DEPTH - 1 - depth);
+		int lo = from;
+		for (int q = 0; q < 4; q++) {
+			int hi = q == 3 ? to : upperBound(lo, to, shift, q);
+			if (hi > lo) {
+				int child = buildTop(lo, hi, depth + 1, x + (q & 1) * half, y + (q >> 1) * half, half, pending,
+						pendingCount);
+				tree.child[4 * node + q] = child;
+			}
+			lo = hi;
+		}
+		return node;
+	}
+
+	/**
+	 * Builds the subtree over the sorted movers from {@code from} (inclusive)
+	 * to {@code to} (exclusive) into the specified nodes.
+	 * @return the index of its root
+	 * @since 1.1
+	 */
+	private int build(Nodes nodes, int from, int to, int depth, double x, double y, double size) {
+		int node = nodes.add(from, to, depth, x, y, size);
+		if (to - from <= LEAF_SIZE || depth == MAX_DEPTH) {
+			nodes.summarize(node, px, py, pm);
+			return node;
+		}
+		double half = size / 2;
+		int shift = 2 * (MAX_DEPTH - 1 - depth);
+		int lo = from;
+		for (int q = 0; q < 4; q++) {
+			int hi = q == 3 ? to : upperBound(lo, to, shift, q);
+			if (hi > lo) {
+				int child = build(nodes, lo, hi, depth + 1, x + (q & 1) * half, y + (q >> 1) * half, half);
+				nodes.child[4 * node + q] = child;
+			}
+			lo = hi;
+		}
+		nodes.aggregate(node);
+		return node;
+	}
+
+	/**
+	 * Finds the first sorted mover from {@code from} whose quadrant at the
+	 * specified shift is above {@code q}.
+	 * @since 1.1
+	 */
+	private int upperBound(int from, int to, int shift, int q) {
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			if ((codes[mid] >>> shift & 3) <= q) {
+				from = mid + 1;
+			} else {
+				to = mid;
+			}
+		}
+		return from;
+	}
+
+	/**
+	 * Walks the tree for the sorted movers from {@code from} (inclusive) to
+	 * {@code to} (exclusive).
+	 * @since 1.1
+	 */
+	private void walk(int from, int to) {
+		Nodes tree = this.tree;
+		double theta2 = theta * theta;
+		double eps2 = softening * softening;
+		int[] stack = new int[4 * MAX_DEPTH + 4];
+		for (int k = from; k < to; k++) {
+			double xk = px[k], yk = py[k];
+			double ax = 0, ay = 0;
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int node = stack[--top];
+				double dx = tree.comX[node] - xk;
+				double dy = tree.comY[node] - yk;
+				double d2 = dx * dx + dy * dy;
+				double size = tree.size[node];
+				boolean leaf = tree.isLeaf(node);
+				boolean inside = k >= tree.start[node] && k < tree.end[node];
+				if (!inside && size * size < theta2 * d2) {
+					double r2 = d2 + eps2;
+					double s = tree.mass[node] / (r2 * Math.sqrt(r2));
+					ax += dx * s;
+					ay += dy * s;
+				} else if (leaf) {
+					for (int j = tree.start[node], end = tree.end[node]; j < end; j++) {
+						if (j == k) {
+							continue;
+						}
+						double ox = px[j] - xk;
+						double oy = py[j] - yk;
+						double r2 = ox * ox + oy * oy + eps2;
+						double s = pm[j] / (r2 * Math.sqrt(r2));
+						ax += ox * s;
+						ay += oy * s;
+					}
+				} else {
+					for (int q = 0; q < 4; q++) {
+						int child = tree.child[4 * node + q];
+						if (child >= 0) {
+							stack[top++] = child;
+						}
+					}
+				}
+			}
+			movers.applyForce(order[k], constant * ax, constant * ay);
+		}
+	}
+
+	/**
+	 * Sums the attraction of every other mover on the sorted movers from
+	 * {@code from} (inclusive) to {@code to} (exclusive).
+	 * @since 1.1
+	 */
+	private void pairs(int from, int to) {
+		int n = movers.size;
+		double eps2 = softening * softening;
+		for (int k = from; k < to; k++) {
+			double xk = px[k], yk = py[k];
+			double ax = 0, ay = 0;
+			for (int j = 0; j < n; j++) {
+				if (j == k) {
+					continue;
+				}
+				double ox = px[j] - xk;
+				double oy = py[j] - yk;
+				double r2 = ox * ox + oy * oy + eps2;
+				double s = pm[j] / (r2 * Math.sqrt(r2));
+				ax += ox * s;
+				ay += oy * s;
+			}
+			movers.applyForce(order[k], constant * ax, constant * ay);
+		}
+	}
+
+	/**
+	 * @return how forces are summed
+	 * @since 1.1
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Sets how forces are summed.
+	 * @param mode - the specified mode
+	 * @since 1.1
+	 */
+	public void setMode(Mode mode) {
+		if (mode == null) {
+			throw new IllegalArgumentException("Mode must not be null");
+		}
+		this.mode = mode;
+	}
+
+	/**
+	 * @return the gravitational constant {@code G}
+	 * @since 1.1
+	 */
+	public double getConstant() {
+		return constant;
+	}
+
+	/**
+	 * Sets the gravitational constant {@code G}, which scales every
+	 * attraction. Negative values repel.
+	 * @param constant - the specified constant
+	 * @since 1.1
+	 */
+	public void setConstant(double constant) {
+		this.constant = constant;
+	}
+
+	/**
+	 * @return the opening angle {@code θ}
+	 * @since 1.1
+	 */
+	public double getTheta() {
+		return theta;
+	}
+
+	/**
+	 * Sets the opening angle {@code θ}: a node counts as a single body once
+	 * its width is less than {@code θ} times its distance. {@code 0} opens
+	 * every node, larger values trade accuracy for speed; {@code 0.5} keeps the
+	 * error of typical scenes around a percent.
+	 * @param theta - the specified angle, at least {@code 0}
+	 * @since 1.1
+	 */
+	public void setTheta(double theta) {
+		if (!(theta >= 0)) {
+			throw new IllegalArgumentException("Theta must not be negative: " + theta);
+		}
+		this.theta = theta;
+	}
+
+	/**
+	 * @return the softening length {@code ε}
+	 * @since 1.1
+	 */
+	public double getSoftening() {
+		return softening;
+	}
+
+	/**
+	 * Sets the softening length {@code ε}, added in quadrature to every
+	 * distance.
+	 * @param softening - the specified length, at least {@code 0}
+	 * @since 1.1
+	 */
+	public void setSoftening(double softening) {
+		if (!(softening >= 0)) {
+			throw new IllegalArgumentException("Softening must not be negative: " + softening);
+		}
+		this.softening = softening;
+	}
+
+	/**
+	 * @return {@code true} if large systems are stepped in parallel
+	 * @since 1.1
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Selects whether large systems build the tree and sum the forces on the
+	 * common {@link java.util.concurrent.ForkJoinPool}. The result is the same
+	 * either way.
+	 * @param parallel - {@code true} to run in parallel
+	 * @since 1.1
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @return the amount of nodes of the last tree
+	 * @since 1.1
+	 */
+	public int getNodeCount() {
+		return tree.count;
+	}
+
+	/**
+	 * Quadtree nodes as parallel arrays. A node covers the square at
+	 * {@code (x, y)} of the specified size and the sorted movers from
+	 * {@code start} to {@code end}; its children are indices, or {@code -1}.
+	 * @since 1.1
+	 */
+	private static final class Nodes {
+		int count;
+		int[] start, end, depth, child;
+		double[] x, y, size, mass, comX, comY;
+
+		Nodes(int capacity) {
+			capacity = Math.max(capacity, 4);
+			start = new int[capacity];
+			end = new int[capacity];
+			depth = new int[capacity];
+			child = new int[4 * capacity];
+			x = new double[capacity];
+			y = new double[capacity];
+			size = new double[capacity];
+			mass = new double[capacity];
+			comX = new double[capacity];
+			comY = new double[capacity];
+		}
+
+		void clear() {
+			count = 0;
+		}
+
+		int add(int from, int to, int depth, double x, double y, double size) {
+			if (count == start.length) {
+				ensure(count + (count >> 1) + 1);
+			}
+			int node = count++;
+			this.start[node] = from;
+			this.end[node] = to;
+			this.depth[node] = depth;
+			this.x[node] = x;
+			this.y[node] = y;
+			this.size[node] = size;
+			Arrays.fill(child, 4 * node, 4 * node + 4, -1);
+			return node;
+		}
+
+		void ensure(int capacity) {
+			if (capacity <= start.length) {
+				return;
+			}
+			start = Arrays.copyOf(start, capacity);
+			end = Arrays.copyOf(end, capacity);
+			depth = Arrays.copyOf(depth, capacity);
+			child = Arrays.copyOf(child, 4 * capacity);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			size = Arrays.copyOf(size, capacity);
+			mass = Arrays.copyOf(mass, capacity);
+			comX = Arrays.copyOf(comX, capacity);
+			comY = Arrays.copyOf(comY, capacity);
+		}
+
+		boolean isLeaf(int node) {
+			int c = 4 * node;
+			return child[c] < 0 && child[c + 1] < 0 && child[c + 2] < 0 && child[c + 3] < 0;
+		}
+
+		/**
+		 * Sums the mass and center of mass of a node from its movers.
+		 */
+		void summarize(int node, double[] px, double[] py, double[] pm) {
+			double m = 0, mx = 0, my = 0;
+			for (int k = start[node]; k < end[node]; k++) {
+				m += pm[k];
+				mx += pm[k] * px[k];
+				my += pm[k] * py[k];
+			}
+			mass[node] = m;
+			comX[node] = m > 0 ? mx / m : x[node];
+			comY[node] = m > 0 ? my / m : y[node];
+		}
+
+		/**
+		 * Sums the mass and center of mass of a node from its children.
+		 */
+		void aggregate(int node) {
+			double m = 0, mx = 0, my = 0;
+			for (int q = 0; q < 4; q++) {
+				int c = child[4 * node + q];
+				if (c >= 0) {
+					m += mass[c];
+					mx += mass[c] * comX[c];
+					my += mass[c] * comY[c];
+				}
+			}
+			mass[node] = m;
+			comX[node] = m > 0 ? mx / m : x[node];
+			comY[node] = m > 0 ? my / m : y[node];
+		}
+
+		/**
+		 * Replaces the specified placeholder by the root of the specified
+		 * subtree and appends the rest of it.
+		 */
+		void graft(int placeholder, Nodes subtree) {
+			int base = count - 1; // subtree node t > 0 lands at base + t
+			ensure(count + subtree.count - 1);
+			copy(subtree, 0, placeholder, base);
+			for (int t = 1; t < subtree.count; t++) {
+				copy(subtree, t, base + t, base);
+			}
+			count += subtree.count - 1;
+		}
+
+		private void copy(Nodes from, int t, int node, int base) {
+			start[node] = from.start[t];
+			end[node] = from.end[t];
+			depth[node] = from.depth[t];
+			x[node] = from.x[t];
+			y[node] = from.y[t];
+			size[node] = from.size[t];
+			mass[node] = from.mass[t];
+			comX[node] = from.comX[t];
+			comY[node] = from.comY[t];
+			for (int q = 0; q < 4; q++) {
+				int c = from.child[4 * t + q];
+				child[4 * node + q] = c < 0 ? -1 : base + c;
+			}
+		}
+	}
+}
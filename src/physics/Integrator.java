@@ -0,0 +1,67 @@
+package physics;
+
+/**
+ * Advances the movers of a {@link MoverSystem} by an explicit timestep under
+ * a {@link Field} of accelerations, as opposed to {@link MoverSystem#update()}
+ * which takes one explicit Euler step of a whole frame.
+ * <br/>
+ * The field is evaluated on the system itself: the integrator moves every
+ * mover to each trial state it needs, clears its acceleration, lets the field
+ * add to it, and reads the result. Any acceleration already applied before
+ * the step, such as steering forces, is held constant across it and added to
+ * every evaluation. Like an update, a step ends with every acceleration
+ * reset to {@code 0}. Unlike an update, speeds are not limited to
+ * {@link Mover#LIMIT}, which would break energy conservation.
+ * <pre>
+ * Gravity gravity = new Gravity(movers);
+ * Integrator integrator = new AdaptiveIntegrator(new VelocityVerlet());
+ * integrator.step(movers, m -&gt; gravity.step(), 0.5);
+ * </pre>
+ *
+ * @see SemiImplicitEuler
+ * @see VelocityVerlet
+ * @see RungeKutta4
+ * @see AdaptiveIntegrator
+ * @since 1.1
+ */
+public interface Integrator {
+
+	/**
+	 * The acceleration of movers as a function of their state.
+	 * @since 1.1
+	 */
+	@FunctionalInterface
+	interface Field {
+
+		/**
+		 * Adds the acceleration of every mover of the specified system, at its
+		 * current location and velocity, to its acceleration, like
+		 * {@link MoverSystem#applyForce(int, double, double)}.
+		 * @param movers - the specified system
+		 * @since 1.1
+		 */
+		void accelerate(MoverSystem movers);
+	}
+
+	/**
+	 * Advances every mover of the specified system by the specified timestep.
+	 * @param movers - the specified system
+	 * @param field - the field of accelerations
+	 * @param dt - the specified timestep, in frames
+	 * @since 1.1
+	 */
+	void step(MoverSystem movers, Field field, double dt);
+
+	/**
+	 * @return the order of accuracy: halving the timestep divides the error
+	 * of a fixed span of time by about {@code 2} to this power
+	 * @since 1.1
+	 */
+	int getOrder();
+
+	/**
+	 * @return the amount of field evaluations taken by the last step
+	 * @since 1.1
+	 */
+	int getEvaluations();
+}
@@ -68,7 +68,16 @@ public class Mover extends Ellipse2D {
 	 * @since 1.0
 	 */
 	protected Color color;
+
 	
+	/**
+	 * Creates a {@code Mover} without vector values of its own. Only used by
+	 * views whose state lives elsewhere, such as {@link MoverSystem#get(int)}.
+	 * @since 1.1
+	 */
+	Mover() {
+	}
+
 	/**
 	 * Creates a {@code Mover} with specified {@code (x,y)} position, width, and height.
 	 * The {@code Mover} will have a velocity and acceleration of {@code (0,0)} with a mass
@@ -107,9 +116,28 @@ public class Mover extends Ellipse2D {
 		mass = m;
 	}
 
+	/**
+	 * Returns a new bounding box of this {@code Mover}.
+	 * @return the bounding box of this {@code Mover}
+	 * @see #getBounds2D(Rectangle2D)
+	 * @since 1.0
+	 */
 	@Override
 	public Rectangle2D getBounds2D() {
-		return new Rectangle2D.Double(getX(),getY(), width, height);
+		return new Rectangle2D.Double(getX(), getY(), getWidth(), getHeight());
+	}
+
+	/**
+	 * Stores the bounding box of this {@code Mover} in the specified
+	 * destination, such as to reuse one rectangle every frame.
+	 * @param out - the specified destination
+	 * @return {@code out}
+	 * @see #getBounds2D()
+	 * @since 1.1
+	 */
+	public Rectangle2D getBounds2D(Rectangle2D out) {
+		out.setRect(getX(), getY(), getWidth(), getHeight());
+		return out;
 	}
 
 	@Override
@@ -222,8 +250,6 @@ public class Mover extends Ellipse2D {
 	 * @since 1.0
 	 */
 	public void applyForce(Vector2D f) {
-		Vector2D force = f.clone();
-		force.div(mass);
 		acceleration.addVector(f);
 	}
 	
@@ -244,4 +270,15 @@ public class Mover extends Ellipse2D {
 		return acceleration.clone();
 	}
 
+	/**
+	 * Copies this {@code Mover's} acceleration into the specified destination.
+	 * @param out - the specified destination
+	 * @return {@code out}
+	 * @see #getAcceleration()
+	 * @since 1.1
+	 */
+	public Vector2D getAcceleration(Vector2D out) {
+		return out.set(acceleration);
+	}
+
 }
\ No newline at end of file
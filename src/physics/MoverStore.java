@@ -0,0 +1,255 @@
+package physics;
+
+/**
+ * The movers of a simulation, stored as a structure of arrays and updated in
+ * bulk, at either precision. Both stores behave alike through this
+ * interface: values go in and come out as {@code double}s, and
+ * {@link #update()}, {@link #checkEdges(int, int)} and
+ * {@link #applyForce(int, double, double)} have the semantics of the
+ * matching {@link Mover} methods.
+ * <br/>
+ * {@link Precision#FLOAT} halves the memory each mover takes, and so the
+ * memory every update streams through, at the cost of rounding every value to
+ * about seven significant digits, or a few thousandths of a pixel on a
+ * typical canvas.
+ * <pre>
+ * MoverStore movers = MoverStore.create(MoverStore.Precision.FLOAT, 10_000_000);
+ * </pre>
+ *
+ * @see MoverSystem
+ * @see FloatMoverSystem
+ * @since 1.1
+ */
+public interface MoverStore {
+
+	/**
+	 * The precision a {@link MoverStore} holds and updates its movers at.
+	 * @since 1.1
+	 */
+	enum Precision {
+
+		/**
+		 * Every value as a {@code double}, as {@link Mover} holds them.
+		 * @see MoverSystem
+		 * @since 1.1
+		 */
+		DOUBLE,
+
+		/**
+		 * Every value as a {@code float}.
+		 * @see FloatMoverSystem
+		 * @since 1.1
+		 */
+		FLOAT
+	}
+
+	/**
+	 * Creates an empty store of the specified precision with room for the
+	 * specified amount of movers before its arrays have to grow.
+	 * @param precision - the specified precision
+	 * @param capacity - the specified initial capacity
+	 * @return a {@link MoverSystem} or a {@link FloatMoverSystem}
+	 * @since 1.1
+	 */
+	static MoverStore create(Precision precision, int capacity) {
+		if (precision == null) {
+			throw new IllegalArgumentException("Precision must not be null");
+		}
+		return precision == Precision.FLOAT ? new FloatMoverSystem(capacity) : new MoverSystem(capacity);
+	}
+
+	/**
+	 * @return the precision the movers are held and updated at
+	 * @since 1.1
+	 */
+	Precision getPrecision();
+
+	/**
+	 * Adds a mover with specified {@code (x,y)} position, width, and height.
+	 * The mover will have a velocity and acceleration of {@code (0,0)} with a mass
+	 * of 0.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @param w - the specified width
+	 * @param h - the specified height
+	 * @return the index of the new mover
+	 * @since 1.1
+	 */
+	int add(double x, double y, double w, double h);
+
+	/**
+	 * Adds a mover with specified {@code (x,y)} position, width, height and mass.
+	 * The mover will have a velocity and acceleration of {@code (0,0)}.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @param w - the specified width
+	 * @param h - the specified height
+	 * @param m - the specified mass
+	 * @return the index of the new mover
+	 * @since 1.1
+	 */
+	int add(double x, double y, double w, double h, float m);
+
+	/**
+	 * Grows the arrays, if needed, to hold at least the specified amount of
+	 * movers, such as before adding many at once.
+	 * @param capacity - the specified capacity
+	 * @since 1.1
+	 */
+	void ensureCapacity(int capacity);
+
+	/**
+	 * Removes every mover, keeping the arrays for reuse. Views of removed
+	 * movers must no longer be used.
+	 * @since 1.1
+	 */
+	void clear();
+
+	/**
+	 * @return the number of movers in this store
+	 * @since 1.1
+	 */
+	int size();
+
+	/**
+	 * Returns a {@link Mover} view of the mover at the specified index. The view
+	 * holds no state of its own; reads and writes go straight to this store.
+	 * @param i - the specified index
+	 * @return a view of the mover at {@code i}
+	 * @since 1.1
+	 */
+	Mover get(int i);
+
+	double getX(int i);
+
+	double getY(int i);
+
+	double getVelocityX(int i);
+
+	double getVelocityY(int i);
+
+	double getAccelerationX(int i);
+
+	double getAccelerationY(int i);
+
+	double getWidth(int i);
+
+	double getHeight(int i);
+
+	float getMass(int i);
+
+	/**
+	 * @param i - the specified index
+	 * @return the color of the mover at {@code i} as a packed {@code ARGB} value
+	 * @since 1.1
+	 */
+	int getColor(int i);
+
+	/**
+	 * Sets the location of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param x - the specified x value
+	 * @param y - the specified y value
+	 * @since 1.1
+	 */
+	void setLocation(int i, double x, double y);
+
+	/**
+	 * Sets the velocity of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param vx - the specified x velocity
+	 * @param vy - the specified y velocity
+	 * @since 1.1
+	 */
+	void setVelocity(int i, double vx, double vy);
+
+	/**
+	 * Sets the acceleration by value of the mover at the specified index for the
+	 * next update.
+	 * @param i - the specified index
+	 * @param ax - the specified x acceleration
+	 * @param ay - the specified y acceleration
+	 * @see #update(int)
+	 * @since 1.1
+	 */
+	void setAcceleration(int i, double ax, double ay);
+
+	/**
+	 * Sets the size of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param w - the specified width
+	 * @param h - the specified height
+	 * @since 1.1
+	 */
+	void setSize(int i, double w, double h);
+
+	void setMass(int i, float m);
+
+	/**
+	 * Sets the color of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param argb - the specified color as a packed {@code ARGB} value
+	 * @since 1.1
+	 */
+	void setColor(int i, int argb);
+
+	/**
+	 * Applies a force by value (attraction or not) to the mover at the specified
+	 * index.
+	 * @param i - the specified index
+	 * @param fx - the x component of the force
+	 * @param fy - the y component of the force
+	 * @see Mover#applyForce(math.Vector2D)
+	 * @since 1.1
+	 */
+	void applyForce(int i, double fx, double fy);
+
+	/**
+	 * Updates every mover.
+	 * @see #update(int)
+	 * @since 1.1
+	 */
+	void update();
+
+	/**
+	 * Updates the movers from {@code from} (inclusive) to {@code to} (exclusive).
+	 * @param from - the first index to update
+	 * @param to - the index after the last to update
+	 * @see #update(int)
+	 * @since 1.1
+	 */
+	void update(int from, int to);
+
+	/**
+	 * Updates the vector values of the mover at the specified index through its
+	 * acceleration, {@link Mover#LIMIT}, and velocity. Then resets the
+	 * acceleration back to {@code 0}.
+	 * @param i - the specified index
+	 * @see Mover#update()
+	 * @since 1.1
+	 */
+	void update(int i);
+
+	/**
+	 * Checks every mover against the specified bounds.
+	 * @param width the specified bound width
+	 * @param height the specified bound height
+	 * @see #checkEdges(int, int, int, int)
+	 * @since 1.1
+	 */
+	void checkEdges(int width, int height);
+
+	/**
+	 * Checks if the locations of the movers from {@code from} (inclusive) to
+	 * {@code to} (exclusive) are within the width height bounds. A mover out of
+	 * bounds will negate its x-velocity or y-velocity—depending on which edge it
+	 * passed—and reset its position to the bound.
+	 * @param from - the first index to check
+	 * @param to - the index after the last to check
+	 * @param width the specified bound width
+	 * @param height the specified bound height
+	 * @see Mover#checkEdges(int, int)
+	 * @since 1.1
+	 */
+	void checkEdges(int from, int to, int width, int height);
+}
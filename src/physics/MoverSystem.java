@@ -0,0 +1,448 @@
+package physics;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A structure-of-arrays store of movers. Instead of one {@link Mover} object
+ * (and its three {@link math.Vector2D}s, shape header and {@link Color}) per
+ * ball, every property lives in its own primitive array indexed by mover.
+ * Walking the movers in {@link #update()} therefore streams through a handful
+ * of contiguous arrays rather than chasing pointers across the heap.
+ * <br/>
+ * The semantics of {@link #update(int)}, {@link #checkEdges(int, int)} and
+ * {@link #applyForce(int, double, double)} are those of the matching
+ * {@link Mover} methods. Callers that want a {@code Mover} can still get one
+ * through {@link #get(int)}, a lightweight view onto a single index.
+ * <br/>
+ * A {@code MoverSystem} is not synchronized. Distinct index ranges may be
+ * updated from different threads.
+ *
+ * @see Mover
+ * @see FloatMoverSystem
+ * @since 1.1
+ */
+public class MoverSystem implements MoverStore {
+
+	/**
+	 * The capacity used by {@link #MoverSystem()}.
+	 * @since 1.1
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The number of movers held by this {@code MoverSystem}.
+	 * @since 1.1
+	 */
+	int size;
+
+	/**
+	 * The {@code (x,y)} locations of the movers.
+	 * @since 1.1
+	 */
+	double[] x, y;
+
+	/**
+	 * The 2D velocities of the movers.
+	 * @since 1.1
+	 */
+	double[] vx, vy;
+
+	/**
+	 * The 2D accelerations of the movers.
+	 * @since 1.1
+	 */
+	double[] ax, ay;
+
+	/**
+	 * The overall widths and heights of the movers.
+	 * @since 1.1
+	 */
+	double[] width, height;
+
+	/**
+	 * The masses of the movers.
+	 * @since 1.1
+	 */
+	float[] mass;
+
+	/**
+	 * The colors of the movers as packed {@code ARGB} values.
+	 * @see Color#getRGB()
+	 * @since 1.1
+	 */
+	int[] color;
+
+	/**
+	 * Creates an empty {@code MoverSystem}.
+	 * @since 1.1
+	 */
+	public MoverSystem() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty {@code MoverSystem} with room for the specified amount of
+	 * movers before its arrays have to grow.
+	 * @param capacity - the specified initial capacity
+	 * @since 1.1
+	 */
+	public MoverSystem(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity: " + capacity);
+		}
+		x = new double[capacity];
+		y = new double[capacity];
+		vx = new double[capacity];
+		vy = new double[capacity];
+		ax = new double[capacity];
+		ay = new double[capacity];
+		width = new double[capacity];
+		height = new double[capacity];
+		mass = new float[capacity];
+		color = new int[capacity];
+	}
+
+	/**
+	 * @return {@link MoverStore.Precision#DOUBLE}
+	 * @since 1.1
+	 */
+	@Override
+	public Precision getPrecision() {
+		return Precision.DOUBLE;
+	}
+
+	/**
+	 * Adds a mover with specified {@code (x,y)} position, width, and height.
+	 * The mover will have a velocity and acceleration of {@code (0,0)} with a mass
+	 * of 0.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @param w - the specified width
+	 * @param h - the specified height
+	 * @return the index of the new mover
+	 * @since 1.1
+	 */
+	public int add(double x, double y, double w, double h) {
+		return add(x, y, w, h, 0);
+	}
+
+	/**
+	 * Adds a mover with specified {@code (x,y)} position, width, height and mass.
+	 * The mover will have a velocity and acceleration of {@code (0,0)}.
+	 * @param x - the specified x position
+	 * @param y - the specified y position
+	 * @param w - the specified width
+	 * @param h - the specified height
+	 * @param m - the specified mass
+	 * @return the index of the new mover
+	 * @since 1.1
+	 */
+	public int add(double x, double y, double w, double h, float m) {
+		if (size == this.x.length) {
+			grow();
+		}
+		int i = size++;
+		this.x[i] = x;
+		this.y[i] = y;
+		width[i] = w;
+		height[i] = h;
+		mass[i] = m;
+		return i;
+	}
+
+	/**
+	 * Grows the arrays, if needed, to hold at least the specified amount of
+	 * movers, such as before adding many at once.
+	 * @param capacity - the specified capacity
+	 * @since 1.1
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > x.length) {
+			resize(capacity);
+		}
+	}
+
+	/**
+	 * Grows every array by half of its current length.
+	 * @since 1.1
+	 */
+	private void grow() {
+		resize(Math.max(DEFAULT_CAPACITY, x.length + (x.length >> 1)));
+	}
+
+	/**
+	 * Copies every array to the specified length.
+	 * @since 1.1
+	 */
+	private void resize(int capacity) {
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		vx = Arrays.copyOf(vx, capacity);
+		vy = Arrays.copyOf(vy, capacity);
+		ax = Arrays.copyOf(ax, capacity);
+		ay = Arrays.copyOf(ay, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		mass = Arrays.copyOf(mass, capacity);
+		color = Arrays.copyOf(color, capacity);
+	}
+
+	/**
+	 * Removes every mover, keeping the arrays for reuse. Views of removed
+	 * movers must no longer be used.
+	 * @since 1.1
+	 */
+	public void clear() {
+		// add() only sets location, size and mass
+		Arrays.fill(vx, 0, size, 0);
+		Arrays.fill(vy, 0, size, 0);
+		Arrays.fill(ax, 0, size, 0);
+		Arrays.fill(ay, 0, size, 0);
+		Arrays.fill(color, 0, size, 0);
+		size = 0;
+	}
+
+	/**
+	 * @return the number of movers in this {@code MoverSystem}
+	 * @since 1.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a {@link Mover} view of the mover at the specified index. The view
+	 * holds no state of its own; reads and writes go straight to this
+	 * {@code MoverSystem}.
+	 * @param i - the specified index
+	 * @return a view of the mover at {@code i}
+	 * @since 1.1
+	 */
+	public Mover get(int i) {
+		checkIndex(i);
+		return new MoverView(this, i);
+	}
+
+	/**
+	 * Checks that the specified index refers to a mover in this system.
+	 * @param i - the specified index
+	 * @since 1.1
+	 */
+	private void checkIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+	public double getVelocityX(int i) {
+		return vx[i];
+	}
+
+	public double getVelocityY(int i) {
+		return vy[i];
+	}
+
+	public double getAccelerationX(int i) {
+		return ax[i];
+	}
+
+	public double getAccelerationY(int i) {
+		return ay[i];
+	}
+
+	public double getWidth(int i) {
+		return width[i];
+	}
+
+	public double getHeight(int i) {
+		return height[i];
+	}
+
+	public float getMass(int i) {
+		return mass[i];
+	}
+
+	/**
+	 * @param i - the specified index
+	 * @return the color of the mover at {@code i} as a packed {@code ARGB} value
+	 * @since 1.1
+	 */
+	public int getColor(int i) {
+		return color[i];
+	}
+
+	/**
+	 * Sets the location of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param x - the specified x value
+	 * @param y - the specified y value
+	 * @since 1.1
+	 */
+	public void setLocation(int i, double x, double y) {
+		this.x[i] = x;
+		this.y[i] = y;
+	}
+
+	/**
+	 * Sets the velocity of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param vx - the specified x velocity
+	 * @param vy - the specified y velocity
+	 * @since 1.1
+	 */
+	public void setVelocity(int i, double vx, double vy) {
+		this.vx[i] = vx;
+		this.vy[i] = vy;
+	}
+
+	/**
+	 * Sets the acceleration by value of the mover at the specified index for the
+	 * next update.
+	 * @param i - the specified index
+	 * @param ax - the specified x acceleration
+	 * @param ay - the specified y acceleration
+	 * @see #update(int)
+	 * @since 1.1
+	 */
+	public void setAcceleration(int i, double ax, double ay) {
+		this.ax[i] = ax;
+		this.ay[i] = ay;
+	}
+
+	/**
+	 * Sets the size of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param w - the specified width
+	 * @param h - the specified height
+	 * @since 1.1
+	 */
+	public void setSize(int i, double w, double h) {
+		width[i] = w;
+		height[i] = h;
+	}
+
+	public void setMass(int i, float m) {
+		mass[i] = m;
+	}
+
+	/**
+	 * Sets the color of the mover at the specified index.
+	 * @param i - the specified index
+	 * @param argb - the specified color as a packed {@code ARGB} value
+	 * @since 1.1
+	 */
+	public void setColor(int i, int argb) {
+		color[i] = argb;
+	}
+
+	/**
+	 * Applies a force by value (attraction or not) to the mover at the specified
+	 * index.
+	 * @param i - the specified index
+	 * @param fx - the x component of the force
+	 * @param fy - the y component of the force
+	 * @see Mover#applyForce(math.Vector2D)
+	 * @since 1.1
+	 */
+	public void applyForce(int i, double fx, double fy) {
+		ax[i] += fx;
+		ay[i] += fy;
+	}
+
+	/**
+	 * Updates every mover.
+	 * @see #update(int)
+	 * @see Integrator
+	 * @since 1.1
+	 */
+	public void update() {
+		update(0, size);
+	}
+
+	/**
+	 * Updates the movers from {@code from} (inclusive) to {@code to} (exclusive).
+	 * @param from - the first index to update
+	 * @param to - the index after the last to update
+	 * @see #update(int)
+	 * @since 1.1
+	 */
+	public void update(int from, int to) {
+		double limit = Mover.LIMIT;
+		for (int i = from; i < to; i++) {
+			double nvx = vx[i] + ax[i];
+			double nvy = vy[i] + ay[i];
+			double m = Math.sqrt(nvx * nvx + nvy * nvy);
+			if (m > limit) {
+				nvx = nvx / m * limit;
+				nvy = nvy / m * limit;
+			}
+			vx[i] = nvx;
+			vy[i] = nvy;
+			x[i] += nvx;
+			y[i] += nvy;
+			ax[i] = 0;
+			ay[i] = 0;
+		}
+	}
+
+	/**
+	 * Updates the vector values of the mover at the specified index through its
+	 * acceleration, {@link Mover#LIMIT}, and velocity. Then resets the
+	 * acceleration back to {@code 0}.
+	 * @param i - the specified index
+	 * @see Mover#update()
+	 * @since 1.1
+	 */
+	public void update(int i) {
+		update(i, i + 1);
+	}
+
+	/**
+	 * Checks every mover against the specified bounds.
+	 * @param width the specified bound width
+	 * @param height the specified bound height
+	 * @see #checkEdges(int, int, int, int)
+	 * @since 1.1
+	 */
+	public void checkEdges(int width, int height) {
+		checkEdges(0, size, width, height);
+	}
+
+	/**
+	 * Checks if the locations of the movers from {@code from} (inclusive) to
+	 * {@code to} (exclusive) are within the width height bounds. A mover out of
+	 * bounds will negate its x-velocity or y-velocity—depending on which edge it
+	 * passed—and reset its position to the bound.
+	 * @param from - the first index to check
+	 * @param to - the index after the last to check
+	 * @param width the specified bound width
+	 * @param height the specified bound height
+	 * @see Mover#checkEdges(int, int)
+	 * @since 1.1
+	 */
+	public void checkEdges(int from, int to, int width, int height) {
+		for (int i = from; i < to; i++) {
+			if (x[i] > width) {
+				x[i] = width;
+				vx[i] = -vx[i];
+			} else if (x[i] < 0) {
+				x[i] = 0;
+				vx[i] = -vx[i];
+			}
+
+			if (y[i] > height) {
+				y[i] = height;
+				vy[i] = -vy[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package physics;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+
+import math.Vector2D;
+
+/**
+ * A {@link Mover} backed by one index of a {@link MoverStore}. Every read and
+ * write goes to the store's arrays, so the view stays current as the system is
+ * updated in bulk.
+ *
+ * @see MoverStore#get(int)
+ * @since 1.1
+ */
+class MoverView extends Mover {
+
+	/**
+	 * The system holding the state of this view.
+	 * @since 1.1
+	 */
+	private final MoverStore system;
+
+	/**
+	 * The index of this view in {@link #system}.
+	 * @since 1.1
+	 */
+	private final int index;
+
+	/**
+	 * Creates a view of the mover at the specified index of the specified system.
+	 * @param system - the specified system
+	 * @param index - the specified index
+	 * @since 1.1
+	 */
+	MoverView(MoverStore system, int index) {
+		this.system = system;
+		this.index = index;
+	}
+
+	@Override
+	public double getHeight() {
+		return system.getHeight(index);
+	}
+
+	@Override
+	public double getWidth() {
+		return system.getWidth(index);
+	}
+
+	@Override
+	public double getX() {
+		return system.getX(index);
+	}
+
+	@Override
+	public double getY() {
+		return system.getY(index);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return getWidth() == 0 && getHeight() == 0;
+	}
+
+	@Override
+	public void setFrame(double x, double y, double w, double h) {
+		system.setLocation(index, x, y);
+		system.setSize(index, w, h);
+	}
+
+	/**
+	 * Returns the location value of this view. The returned vector is refreshed on
+	 * each call; writing to it does not move the mover.
+	 * @return the location of this view
+	 * @since 1.1
+	 */
+	@Override
+	public Vector2D getLocation() {
+		if (location == null) {
+			location = new Vector2D(0, 0);
+		}
+		location.setLocation(getX(), getY());
+		return location;
+	}
+
+	@Override
+	public void setAcceleration(Vector2D v) {
+		system.setAcceleration(index, v.getX(), v.getY());
+	}
+
+	@Override
+	public void checkEdges(int width, int height) {
+		system.checkEdges(index, index + 1, width, height);
+	}
+
+	@Override
+	public void update() {
+		system.update(index);
+	}
+
+	@Override
+	public void applyForce(Vector2D f) {
+		system.applyForce(index, f.getX(), f.getY());
+	}
+
+	@Override
+	public Color getColor() {
+		int argb = system.getColor(index);
+		if (color == null || color.getRGB() != argb) {
+			color = new Color(argb, true);
+		}
+		return color;
+	}
+
+	@Override
+	public void setColor(Color color) {
+		this.color = color;
+		system.setColor(index, color == null ? 0 : color.getRGB());
+	}
+
+	@Override
+	public Point2D getAcceleration() {
+		return new Vector2D(system.getAccelerationX(index), system.getAccelerationY(index));
+	}
+
+	@Override
+	public Vector2D getAcceleration(Vector2D out) {
+		out.setLocation(system.getAccelerationX(index), system.getAccelerationY(index));
+		return out;
+	}
+}
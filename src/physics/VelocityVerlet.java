@@ -0,0 +1,88 @@
+package physics;
+
+/**
+ * Velocity Verlet: half a kick of velocity, a drift of location, the field at
+ * the new location, and the other half kick. Second order, time reversible
+ * and symplectic, so energy stays bounded over long runs.
+ * <br/>
+ * The field is assumed to depend on location only, as gravity and springs
+ * do. The acceleration at the end of a step is kept and reused by the next
+ * one, as long as no mover was moved in between, so steps usually take a
+ * single field evaluation.
+ *
+ * @since 1.1
+ */
+public class VelocityVerlet extends FieldIntegrator {
+
+	/**
+	 * The field at the end of the last step, without the held acceleration,
+	 * and the locations it was evaluated at.
+	 * @since 1.1
+	 */
+	private double[] fx = new double[0], fy = new double[0], cx = new double[0], cy = new double[0];
+	private MoverSystem cached;
+	private int cachedSize = -1;
+
+	@Override
+	public void step(MoverSystem movers, Field field, double dt) {
+		begin(movers);
+		int n = movers.size;
+		double[] x = movers.x, y = movers.y, vx = movers.vx, vy = movers.vy, ax = movers.ax, ay = movers.ay;
+		if (isCached(movers)) {
+			for (int i = 0; i < n; i++) {
+				ax[i] = fx[i] + ex[i];
+				ay[i] = fy[i] + ey[i];
+			}
+		} else {
+			evaluate(movers, field);
+		}
+		double half = dt * 0.5;
+		for (int i = 0; i < n; i++) {
+			vx[i] += ax[i] * half;
+			vy[i] += ay[i] * half;
+			x[i] += vx[i] * dt;
+			y[i] += vy[i] * dt;
+		}
+		evaluate(movers, field);
+		fx = grow(fx, n);
+		fy = grow(fy, n);
+		cx = grow(cx, n);
+		cy = grow(cy, n);
+		for (int i = 0; i < n; i++) {
+			vx[i] += ax[i] * half;
+			vy[i] += ay[i] * half;
+			fx[i] = ax[i] - ex[i];
+			fy[i] = ay[i] - ey[i];
+		}
+		System.arraycopy(x, 0, cx, 0, n);
+		System.arraycopy(y, 0, cy, 0, n);
+		cached = movers;
+		cachedSize = n;
+		end(movers);
+	}
+
+	/**
+	 * Returns {@code true} if every mover of the specified system is where the
+	 * last step left it.
+	 * @since 1.1
+	 */
+	private boolean isCached(MoverSystem movers) {
+		if (movers != cached || movers.size != cachedSize) {
+			return false;
+		}
+		double[] x = movers.x, y = movers.y;
+		for (int i = 0; i < cachedSize; i++) {
+			// compare bits: a mover moved to the same place is still the same
+			if (Double.doubleToRawLongBits(x[i]) != Double.doubleToRawLongBits(cx[i])
+					|| Double.doubleToRawLongBits(y[i]) != Double.doubleToRawLongBits(cy[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return 2;
+	}
+}
@@ -0,0 +1,422 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import noise.NoiseGenerator;
+import physics.MoverStore;
+
+/**
+ * Saves and restores the complete state of a simulation: every mover of a
+ * {@link MoverStore} with its location, velocity, acceleration, size, mass
+ * and color, the seed, permutation, octave size and kernel of a
+ * {@link NoiseGenerator}, and the clock of the animation running it.
+ * <br/>
+ * A checkpoint is a {@value #HEADER_BYTES} byte header followed by the
+ * payload, streamed through a {@link FileChannel} in direct buffers of
+ * {@value #BUFFER_BYTES} bytes and optionally deflated. The header holds a
+ * version and a CRC32C of the uncompressed payload, so a checkpoint of
+ * another version or a corrupted one is refused instead of restored. The
+ * payload is written to a temporary file first and moved over the target
+ * once complete, so an interrupted save leaves the previous checkpoint
+ * intact.
+ * <br/>
+ * Movers take {@value #MOVER_BYTES} bytes each, eight doubles, a float and an
+ * int, all little-endian, whatever the precision of the store, so a
+ * checkpoint saved at one precision restores at the other.
+ *
+ * @see animation.Animation#getUpdateCount()
+ * @since 1.1
+ */
+public final class Checkpoint {
+
+	/**
+	 * The first bytes of every checkpoint, {@code CKPT}.
+	 * @since 1.1
+	 */
+	static final int MAGIC = 0x434B5054;
+
+	/**
+	 * The version of the format written.
+	 * @since 1.1
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The bytes of the header.
+	 * @since 1.1
+	 */
+	static final int HEADER_BYTES = 32;
+
+	/**
+	 * The offsets within the header.
+	 * @since 1.1
+	 */
+	static final int FORMAT = 4, FLAGS = 8, CHECKSUM = 12, RAW_BYTES = 16, STORED_BYTES = 24;
+
+	/**
+	 * The flag of a deflated payload.
+	 * @since 1.1
+	 */
+	static final int COMPRESSED = 1;
+
+	/**
+	 * The bytes of each mover in the payload.
+	 * @since 1.1
+	 */
+	static final int MOVER_BYTES = 8 * Double.BYTES + Float.BYTES + Integer.BYTES;
+
+	/**
+	 * The bytes of each buffer streamed through the channel.
+	 * @since 1.1
+	 */
+	static final int BUFFER_BYTES = 1 << 20;
+
+	private Checkpoint() {
+	}
+
+	/**
+	 * Saves the specified state to the specified file, replacing it.
+	 * @param path - the specified file
+	 * @param movers - the movers to save
+	 * @param noise - the noise generator to save
+	 * @param clock - the clock to save, such as the update count of an
+	 * animation
+	 * @param compress - {@code true} to deflate the payload, which trades
+	 * throughput for size
+	 * @return the bytes written
+	 * @throws IOException if the file cannot be written
+	 * @since 1.1
+	 */
+	public static long save(Path path, MoverStore movers, NoiseGenerator noise, long clock, boolean compress)
+			throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		long bytes;
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			Output out = new Output(channel, compress);
+			try {
+				ByteBuffer buffer = out.buffer;
+				out.ensure(Long.BYTES + Double.BYTES + Long.BYTES + Integer.BYTES);
+				buffer.putLong(clock);
+				buffer.putDouble(noise.getSeed());
+				buffer.putLong(noise.getDefaultSize());
+				buffer.putInt(noise.getKernel().ordinal());
+				int[] permutation = noise.getPermutation();
+				out.ensure(permutation.length * Integer.BYTES + Integer.BYTES);
+				for (int v : permutation) {
+					buffer.putInt(v);
+				}
+				int count = movers.size();
+				buffer.putInt(count);
+				for (int i = 0; i < count; i++) {
+					if (buffer.remaining() < MOVER_BYTES) {
+						out.drain();
+					}
+					buffer.putDouble(movers.getX(i));
+					buffer.putDouble(movers.getY(i));
+					buffer.putDouble(movers.getVelocityX(i));
+					buffer.putDouble(movers.getVelocityY(i));
+					buffer.putDouble(movers.getAccelerationX(i));
+					buffer.putDouble(movers.getAccelerationY(i));
+					buffer.putDouble(movers.getWidth(i));
+					buffer.putDouble(movers.getHeight(i));
+					buffer.putFloat(movers.getMass(i));
+					buffer.putInt(movers.getColor(i));
+				}
+				out.finish();
+			} finally {
+				out.end();
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(0, MAGIC);
+			header.putInt(FORMAT, VERSION);
+			header.putInt(FLAGS, compress ? COMPRESSED : 0);
+			header.putInt(CHECKSUM, (int) out.crc.getValue());
+			header.putLong(RAW_BYTES, out.raw);
+			header.putLong(STORED_BYTES, out.stored);
+			write(channel, header, 0);
+			channel.force(false);
+			bytes = HEADER_BYTES + out.stored;
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return bytes;
+	}
+
+	/**
+	 * Restores the state saved in the specified file, replacing every mover
+	 * of the specified system and the state of the specified noise generator.
+	 * The movers are decoded into staging arrays first, and neither the
+	 * system nor the noise generator is changed until the whole checkpoint
+	 * has been read, its checksum matches and its noise state is valid, so
+	 * after an {@code IOException} both are left as they were.
+	 * @param path - the specified file
+	 * @param movers - the movers to restore into
+	 * @param noise - the noise generator to restore into
+	 * @return the saved clock
+	 * @throws IOException if the file cannot be read, is not a checkpoint,
+	 * is of another version, or does not match its checksum
+	 * @since 1.1
+	 */
+	public static long restore(Path path, MoverStore movers, NoiseGenerator noise) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+			}
+			if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+				throw new IOException("Not a checkpoint: " + path);
+			}
+			int version = header.getInt(FORMAT);
+			if (version != VERSION) {
+				throw new IOException("Checkpoint version " + version + " is not supported, only " + VERSION);
+			}
+			long stored = header.getLong(STORED_BYTES);
+			if (channel.size() != HEADER_BYTES + stored) {
+				throw new IOException("Checkpoint is " + channel.size() + " bytes, expected "
+						+ (HEADER_BYTES + stored));
+			}
+			Input in = new Input(channel, (header.getInt(FLAGS) & COMPRESSED) != 0, header.getLong(RAW_BYTES));
+			try {
+				ByteBuffer buffer = in.buffer;
+				in.ensure(Long.BYTES + Double.BYTES + Long.BYTES + Integer.BYTES);
+				long clock = buffer.getLong();
+				double seed = buffer.getDouble();
+				long defaultSize = buffer.getLong();
+				int kernel = buffer.getInt();
+				int[] permutation = new int[256];
+				in.ensure(permutation.length * Integer.BYTES + Integer.BYTES);
+				for (int i = 0; i < permutation.length; i++) {
+					permutation[i] = buffer.getInt();
+				}
+				int count = buffer.getInt();
+				if (count < 0 || count > Integer.MAX_VALUE / 8 || (long) count * MOVER_BYTES > in.remaining()) {
+					throw new IOException("Checkpoint cannot hold " + count + " movers");
+				}
+				double[] values = new double[count * 8];
+				float[] mass = new float[count];
+				int[] color = new int[count];
+				for (int i = 0, k = 0; i < count; i++) {
+					in.ensure(MOVER_BYTES);
+					for (int end = k + 8; k < end; k++) {
+						values[k] = buffer.getDouble();
+					}
+					mass[i] = buffer.getFloat();
+					color[i] = buffer.getInt();
+				}
+				in.finish();
+				if ((int) in.crc.getValue() != header.getInt(CHECKSUM)) {
+					throw new IOException("Checkpoint does not match its checksum: " + path);
+				}
+				if (kernel < 0 || kernel >= NoiseGenerator.Kernel.values().length) {
+					throw new IOException("Unknown noise kernel " + kernel);
+				}
+				NoiseGenerator staged = new NoiseGenerator(seed);
+				try {
+					staged.setPermutation(permutation);
+					staged.setDefaultSize(defaultSize);
+				} catch (IllegalArgumentException e) {
+					throw new IOException("Invalid noise state in checkpoint: " + path, e);
+				}
+				movers.clear();
+				movers.ensureCapacity(count);
+				for (int i = 0, k = 0; i < count; i++, k += 8) {
+					int m = movers.add(values[k], values[k + 1], 0, 0);
+					movers.setVelocity(m, values[k + 2], values[k + 3]);
+					movers.setAcceleration(m, values[k + 4], values[k + 5]);
+					movers.setSize(m, values[k + 6], values[k + 7]);
+					movers.setMass(m, mass[i]);
+					movers.setColor(m, color[i]);
+				}
+				noise.setPermutation(permutation);
+				noise.setDefaultSize(defaultSize);
+				noise.setSeed(seed);
+				noise.setKernel(NoiseGenerator.Kernel.values()[kernel]);
+				return clock;
+			} finally {
+				in.end();
+			}
+		}
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Streams the payload to a channel, after the header, checksumming and
+	 * optionally deflating each filled buffer.
+	 * @since 1.1
+	 */
+	private static final class Output {
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		final CRC32C crc = new CRC32C();
+		private final FileChannel channel;
+		private final Deflater deflater;
+		private final ByteBuffer compressed;
+		long raw, stored;
+
+		Output(FileChannel channel, boolean compress) {
+			this.channel = channel;
+			this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+			this.compressed = compress ? ByteBuffer.allocateDirect(BUFFER_BYTES) : null;
+		}
+
+		void ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				drain();
+			}
+		}
+
+		void drain() throws IOException {
+			buffer.flip();
+			raw += buffer.remaining();
+			crc.update(buffer.duplicate());
+			if (deflater == null) {
+				store(buffer);
+			} else {
+				// A duplicate, so that clearing the buffer below does not hand
+				// its stale bytes back to the deflater when it is finished.
+				deflater.setInput(buffer.duplicate());
+				while (!deflater.needsInput()) {
+					deflate();
+				}
+			}
+			buffer.clear();
+		}
+
+		void finish() throws IOException {
+			drain();
+			if (deflater != null) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					deflate();
+				}
+			}
+		}
+
+		private void deflate() throws IOException {
+			compressed.clear();
+			deflater.deflate(compressed);
+			compressed.flip();
+			store(compressed);
+		}
+
+		private void store(ByteBuffer bytes) throws IOException {
+			long position = HEADER_BYTES + stored;
+			stored += bytes.remaining();
+			write(channel, bytes, position);
+		}
+
+		void end() {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Streams the payload from a channel, after the header, optionally
+	 * inflating and checksumming it as it is read.
+	 * @since 1.1
+	 */
+	private static final class Input {
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		final CRC32C crc = new CRC32C();
+		private final FileChannel channel;
+		private final Inflater inflater;
+		private final ByteBuffer compressed;
+		private long unread;
+
+		Input(FileChannel channel, boolean compressed, long raw) {
+			this.channel = channel;
+			this.inflater = compressed ? new Inflater() : null;
+			this.compressed = compressed ? ByteBuffer.allocateDirect(BUFFER_BYTES) : null;
+			this.unread = raw;
+			buffer.limit(0);
+		}
+
+		/**
+		 * @return the payload bytes not yet consumed
+		 */
+		long remaining() {
+			return unread + buffer.remaining();
+		}
+
+		/**
+		 * Refills the buffer, unless it holds the specified amount of bytes.
+		 */
+		void ensure(int bytes) throws IOException {
+			if (buffer.remaining() >= bytes) {
+				return;
+			}
+			buffer.compact();
+			int start = buffer.position();
+			while (buffer.hasRemaining() && unread > 0) {
+				int before = buffer.position();
+				if (buffer.remaining() > unread) {
+					buffer.limit((int) (before + unread));
+				}
+				if (inflater == null) {
+					if (channel.read(buffer) < 0) {
+						throw new IOException("Checkpoint ends early");
+					}
+				} else {
+					inflate();
+				}
+				unread -= buffer.position() - before;
+				buffer.limit(buffer.capacity());
+			}
+			ByteBuffer filled = buffer.duplicate().flip();
+			crc.update(filled.position(start));
+			buffer.flip();
+			if (buffer.remaining() < bytes) {
+				throw new IOException("Checkpoint ends early");
+			}
+		}
+
+		private void inflate() throws IOException {
+			try {
+				if (inflater.needsInput()) {
+					compressed.clear();
+					if (channel.read(compressed) < 0) {
+						throw new IOException("Checkpoint ends early");
+					}
+					compressed.flip();
+					inflater.setInput(compressed);
+				}
+				if (inflater.inflate(buffer) == 0 && inflater.finished()) {
+					throw new IOException("Checkpoint ends early");
+				}
+			} catch (DataFormatException e) {
+				throw new IOException("Corrupted checkpoint", e);
+			}
+		}
+
+		/**
+		 * Checks that the whole payload was consumed.
+		 */
+		void finish() throws IOException {
+			if (remaining() != 0) {
+				throw new IOException("Checkpoint has " + remaining() + " bytes past its movers");
+			}
+		}
+
+		void end() {
+			if (inflater != null) {
+				inflater.end();
+			}
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import physics.MoverStore;
+
+/**
+ * Appends the location and velocity of every mover of a {@link MoverStore},
+ * one frame per {@link #record()}, to memory-mapped segment files of a
+ * directory. Each frame takes {@code 16} bytes per mover, four floats in a
+ * fixed stride, so any frame can be found by arithmetic alone. Once a segment
+ * is full the next one is created and mapped, keeping every mapping well
+ * below the 2 GiB a single buffer can address.
+ * <br/>
+ * Every segment is self-contained: a header, then the size and color of every
+ * mover as of the start of that segment, then its frames. The header's frame
+ * count is updated after every frame, so a recording cut short still replays
+ * up to its last complete frame; {@link #close()} then trims the unused
+ * frames off the end of the last segment where the platform allows it.
+ *
+ * @see TrajectoryReplayer
+ * @since 1.1
+ */
+public class TrajectoryRecorder implements Closeable {
+
+	/**
+	 * The first bytes of every segment, {@code TRJ1}.
+	 * @since 1.1
+	 */
+	static final int MAGIC = 0x54524A31;
+
+	/**
+	 * The bytes of the header of a segment.
+	 * @since 1.1
+	 */
+	static final int HEADER_BYTES = 32;
+
+	/**
+	 * The offsets within the header of a segment.
+	 * @since 1.1
+	 */
+	static final int MOVERS = 4, FRAMES_PER_SEGMENT = 8, FIRST_FRAME = 12, FRAMES = 20;
+
+	/**
+	 * The floats of each mover in a frame: x, y, velocity x, velocity y.
+	 * @since 1.1
+	 */
+	static final int FLOATS_PER_MOVER = 4;
+
+	/**
+	 * The bytes of each mover in the appearance table: width, height, color.
+	 * @since 1.1
+	 */
+	static final int APPEARANCE_BYTES = 12;
+
+	/**
+	 * The default largest size of a segment, 256 MiB.
+	 * @since 1.1
+	 */
+	public static final long DEFAULT_SEGMENT_BYTES = 256L << 20;
+
+	private final Path directory;
+	private final MoverStore movers;
+	private final int count;
+	private final int framesPerSegment;
+	private final float[] frame;
+
+	private MappedByteBuffer segment;
+	private FloatBuffer floats;
+	private int segmentIndex = -1;
+	private int segmentFrames;
+	private long frames;
+
+	/**
+	 * Creates a {@code TrajectoryRecorder} of the specified movers into
+	 * segments of at most the default size.
+	 * @param directory - the directory of the segments
+	 * @param movers - the specified movers
+	 * @throws IOException if the directory cannot be prepared
+	 * @since 1.1
+	 */
+	public TrajectoryRecorder(Path directory, MoverStore movers) throws IOException {
+		this(directory, movers, DEFAULT_SEGMENT_BYTES);
+	}
+
+	/**
+	 * Creates a {@code TrajectoryRecorder} of the specified movers. The
+	 * directory is created if needed, and segments of an earlier recording in
+	 * it are deleted. The amount of movers is fixed from now on.
+	 * @param directory - the directory of the segments
+	 * @param movers - the specified movers
+	 * @param segmentBytes - the largest size of a segment, which must hold at
+	 * least one frame
+	 * @throws IOException if the directory cannot be prepared
+	 * @since 1.1
+	 */
+	public TrajectoryRecorder(Path directory, MoverStore movers, long segmentBytes) throws IOException {
+		this.directory = directory;
+		this.movers = movers;
+		this.count = movers.size();
+		long stride = frameBytes(count);
+		long frameSpace = Math.min(segmentBytes, Integer.MAX_VALUE) - framesOffset(count);
+		if (count == 0 || frameSpace < stride) {
+			throw new IllegalArgumentException(
+					"Segments of " + segmentBytes + " bytes cannot hold a frame of " + count + " movers");
+		}
+		this.framesPerSegment = (int) Math.min(frameSpace / stride, Integer.MAX_VALUE);
+		this.frame = new float[count * FLOATS_PER_MOVER];
+		Files.createDirectories(directory);
+		try (DirectoryStream<Path> old = Files.newDirectoryStream(directory, "trajectory-*.bin")) {
+			for (Path path : old) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	/**
+	 * Appends the current location and velocity of every mover as the next
+	 * frame.
+	 * @throws IOException if a new segment cannot be created
+	 * @since 1.1
+	 */
+	public void record() throws IOException {
+		if (segment == null || segmentFrames == framesPerSegment) {
+			roll();
+		}
+		float[] frame = this.frame;
+		for (int i = 0, k = 0; i < count; i++, k += FLOATS_PER_MOVER) {
+			frame[k] = (float) movers.getX(i);
+			frame[k + 1] = (float) movers.getY(i);
+			frame[k + 2] = (float) movers.getVelocityX(i);
+			frame[k + 3] = (float) movers.getVelocityY(i);
+		}
+		floats.put(segmentFrames * frame.length, frame);
+		segmentFrames++;
+		frames++;
+		segment.putInt(FRAMES, segmentFrames);
+	}
+
+	/**
+	 * Finishes the current segment and maps the next one, writing its header
+	 * and appearance table.
+	 * @since 1.1
+	 */
+	private void roll() throws IOException {
+		if (segment != null) {
+			segment.force();
+		}
+		segmentIndex++;
+		int offset = framesOffset(count);
+		long size = offset + (long) framesPerSegment * frameBytes(count);
+		try (FileChannel channel = FileChannel.open(segmentPath(directory, segmentIndex), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+		segment.order(ByteOrder.LITTLE_ENDIAN);
+		segment.putInt(0, MAGIC);
+		segment.putInt(MOVERS, count);
+		segment.putInt(FRAMES_PER_SEGMENT, framesPerSegment);
+		segment.putLong(FIRST_FRAME, frames);
+		segment.putInt(FRAMES, 0);
+		for (int i = 0, p = HEADER_BYTES; i < count; i++, p += APPEARANCE_BYTES) {
+			segment.putFloat(p, (float) movers.getWidth(i));
+			segment.putFloat(p + 4, (float) movers.getHeight(i));
+			segment.putInt(p + 8, movers.getColor(i));
+		}
+		floats = segment.slice(offset, segment.capacity() - offset).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		segmentFrames = 0;
+	}
+
+	/**
+	 * Writes the recorded frames through to the storage device.
+	 * @since 1.1
+	 */
+	public void flush() {
+		if (segment != null) {
+			segment.force();
+		}
+	}
+
+	/**
+	 * Flushes the recorded frames and truncates the last segment to the
+	 * frames it holds. The mapping is only released once collected, and where
+	 * a mapped file cannot be truncated, as on Windows, the segment keeps its
+	 * full size; its header already holds the frames it has, which is all
+	 * {@link TrajectoryReplayer} reads.
+	 * @throws IOException if the last segment cannot be opened
+	 * @since 1.1
+	 */
+	@Override
+	public void close() throws IOException {
+		if (segment == null) {
+			return;
+		}
+		flush();
+		segment = null;
+		floats = null;
+		long size = framesOffset(count) + segmentFrames * frameBytes(count);
+		try (FileChannel channel = FileChannel.open(segmentPath(directory, segmentIndex),
+				StandardOpenOption.WRITE)) {
+			try {
+				channel.truncate(size);
+			} catch (IOException e) {
+				// still mapped, the unused frames stay
+			}
+		}
+	}
+
+	/**
+	 * @return the amount of frames recorded
+	 * @since 1.1
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * @return the amount of frames each segment holds
+	 * @since 1.1
+	 */
+	public int getFramesPerSegment() {
+		return framesPerSegment;
+	}
+
+	/**
+	 * @return the directory of the segments
+	 * @since 1.1
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the bytes of one frame of the specified amount of movers.
+	 * @since 1.1
+	 */
+	static long frameBytes(int movers) {
+		return (long) movers * FLOATS_PER_MOVER * Float.BYTES;
+	}
+
+	/**
+	 * Returns the offset of the first frame in a segment of the specified
+	 * amount of movers, after the header and the appearance table, rounded up
+	 * to 16 bytes.
+	 * @since 1.1
+	 */
+	static int framesOffset(int movers) {
+		long end = HEADER_BYTES + (long) movers * APPEARANCE_BYTES;
+		return (int) Math.min(Integer.MAX_VALUE, (end + 15) & ~15L);
+	}
+
+	/**
+	 * Returns the path of the specified segment.
+	 * @since 1.1
+	 */
+	static Path segmentPath(Path directory, int index) {
+		return directory.resolve(String.format("trajectory-%06d.bin", index));
+	}
+}
@@ -0,0 +1,270 @@
+package storage;
+
+import static storage.TrajectoryRecorder.APPEARANCE_BYTES;
+import static storage.TrajectoryRecorder.FIRST_FRAME;
+import static storage.TrajectoryRecorder.FLOATS_PER_MOVER;
+import static storage.TrajectoryRecorder.FRAMES;
+import static storage.TrajectoryRecorder.FRAMES_PER_SEGMENT;
+import static storage.TrajectoryRecorder.HEADER_BYTES;
+import static storage.TrajectoryRecorder.MAGIC;
+import static storage.TrajectoryRecorder.MOVERS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import animation.RenderSnapshot;
+import animation.Simulation;
+import physics.MoverStore;
+
+/**
+ * Plays back a recording of a {@link TrajectoryRecorder} from its
+ * memory-mapped segments. Seeking to a frame is constant time: the segment
+ * and the offset within it follow from the frame number alone, and the
+ * operating system pages in only the frames read.
+ * <br/>
+ * As a {@link Simulation}, each {@link #step()} moves to the next frame and
+ * {@link #snapshot(RenderSnapshot)} writes the current one, so an
+ * {@link animation.Animation} with a snapshot buffer shows the recording
+ * without running the simulation that made it.
+ *
+ * @see animation.Animation#setSnapshotBuffer(animation.SnapshotBuffer)
+ * @since 1.1
+ */
+public class TrajectoryReplayer implements Simulation, Closeable {
+
+	private final int count;
+	private final int framesPerSegment;
+	private final long frames;
+	private final FloatBuffer[] segments;
+
+	/**
+	 * The size and color of every mover, by segment.
+	 * @since 1.1
+	 */
+	private final float[][] widths, heights;
+	private final int[][] colors;
+
+	private long frame;
+	private boolean loop = true;
+
+	/**
+	 * Opens the recording in the specified directory, up to the last complete
+	 * frame of its last consecutive segment.
+	 * @param directory - the directory of the segments
+	 * @throws IOException if the first segment cannot be read or is not a
+	 * recording
+	 * @since 1.1
+	 */
+	public TrajectoryReplayer(Path directory) throws IOException {
+		List<FloatBuffer> segments = new ArrayList<>();
+		List<float[]> widths = new ArrayList<>(), heights = new ArrayList<>();
+		List<int[]> colors = new ArrayList<>();
+		MappedByteBuffer first = map(TrajectoryRecorder.segmentPath(directory, 0));
+		if (first.capacity() < HEADER_BYTES || first.getInt(0) != MAGIC) {
+			throw new IOException("Not a trajectory recording: " + directory);
+		}
+		count = first.getInt(MOVERS);
+		framesPerSegment = first.getInt(FRAMES_PER_SEGMENT);
+		long total = 0;
+		for (MappedByteBuffer segment = first; segment != null;) {
+			if (segment.getInt(0) != MAGIC || segment.getInt(MOVERS) != count
+					|| segment.getLong(FIRST_FRAME) != total) {
+				break;
+			}
+			float[] width = new float[count], height = new float[count];
+			int[] color = new int[count];
+			for (int i = 0, p = HEADER_BYTES; i < count; i++, p += APPEARANCE_BYTES) {
+				width[i] = segment.getFloat(p);
+				height[i] = segment.getFloat(p + 4);
+				color[i] = segment.getInt(p + 8);
+			}
+			widths.add(width);
+			heights.add(height);
+			colors.add(color);
+			int offset = TrajectoryRecorder.framesOffset(count);
+			segments.add(segment.slice(offset, segment.capacity() - offset).order(ByteOrder.LITTLE_ENDIAN)
+					.asFloatBuffer());
+			int filled = segment.getInt(FRAMES);
+			total += filled;
+			if (filled < framesPerSegment) {
+				break;
+			}
+			Path next = TrajectoryRecorder.segmentPath(directory, segments.size());
+			segment = Files.exists(next) ? map(next) : null;
+		}
+		this.frames = total;
+		this.segments = segments.toArray(new FloatBuffer[0]);
+		this.widths = widths.toArray(new float[0][]);
+		this.heights = heights.toArray(new float[0][]);
+		this.colors = colors.toArray(new int[0][]);
+	}
+
+	private static MappedByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		}
+	}
+
+	/**
+	 * Moves to the specified frame.
+	 * @param frame - the specified frame, from {@code 0}
+	 * @since 1.1
+	 */
+	public void seek(long frame) {
+		if (frame < 0 || frame >= frames) {
+			throw new IllegalArgumentException("Frame " + frame + " is outside 0 to " + (frames - 1));
+		}
+		this.frame = frame;
+	}
+
+	/**
+	 * Moves to the next frame, wrapping around to the first after the last
+	 * if looping, and otherwise staying at the last.
+	 * @since 1.1
+	 */
+	@Override
+	public void step() {
+		if (frame + 1 < frames) {
+			frame++;
+		} else if (loop) {
+			frame = 0;
+		}
+	}
+
+	/**
+	 * Appends every mover at the current frame, with its size and color as
+	 * recorded at the start of the frame's segment.
+	 * @param out - the specified snapshot
+	 * @since 1.1
+	 */
+	@Override
+	public void snapshot(RenderSnapshot out) {
+		if (frames == 0) {
+			return;
+		}
+		int s = (int) (frame / framesPerSegment);
+		FloatBuffer floats = segments[s];
+		float[] width = widths[s], height = heights[s];
+		int[] color = colors[s];
+		int base = (int) (frame % framesPerSegment) * count * FLOATS_PER_MOVER;
+		for (int i = 0; i < count; i++) {
+			int k = base + i * FLOATS_PER_MOVER;
+			out.add(floats.get(k), floats.get(k + 1), width[i], height[i], color[i]);
+		}
+	}
+
+	/**
+	 * Sets the location and velocity of the movers of the specified system to
+	 * those of the current frame. The system must hold at least as many
+	 * movers as the recording.
+	 * @param movers - the specified system
+	 * @since 1.1
+	 */
+	public void load(MoverStore movers) {
+		if (movers.size() < count) {
+			throw new IllegalArgumentException("Recording has " + count + " movers, system " + movers.size());
+		}
+		if (frames == 0) {
+			return;
+		}
+		FloatBuffer floats = segments[(int) (frame / framesPerSegment)];
+		int base = (int) (frame % framesPerSegment) * count * FLOATS_PER_MOVER;
+		for (int i = 0; i < count; i++) {
+			int k = base + i * FLOATS_PER_MOVER;
+			movers.setLocation(i, floats.get(k), floats.get(k + 1));
+			movers.setVelocity(i, floats.get(k + 2), floats.get(k + 3));
+		}
+	}
+
+	/**
+	 * Returns the recorded x position of the specified mover at the current
+	 * frame.
+	 * @param i - the index of the mover
+	 * @return the x position
+	 * @since 1.1
+	 */
+	public float getX(int i) {
+		return get(i, 0);
+	}
+
+	/**
+	 * Returns the recorded y position of the specified mover at the current
+	 * frame.
+	 * @param i - the index of the mover
+	 * @return the y position
+	 * @since 1.1
+	 */
+	public float getY(int i) {
+		return get(i, 1);
+	}
+
+	private float get(int i, int component) {
+		if (i < 0 || i >= count || frames == 0) {
+			throw new IndexOutOfBoundsException("Mover " + i + " of " + count);
+		}
+		FloatBuffer floats = segments[(int) (frame / framesPerSegment)];
+		return floats.get((int) (frame % framesPerSegment) * count * FLOATS_PER_MOVER + i * FLOATS_PER_MOVER
+				+ component);
+	}
+
+	/**
+	 * Releases the mappings once collected.
+	 * @since 1.1
+	 */
+	@Override
+	public void close() {
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = null;
+		}
+	}
+
+	/**
+	 * @return the current frame
+	 * @since 1.1
+	 */
+	public long getFrame() {
+		return frame;
+	}
+
+	/**
+	 * @return the amount of frames recorded
+	 * @since 1.1
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	@Override
+	public int getMoverCount() {
+		return count;
+	}
+
+	/**
+	 * @return {@code true} if stepping past the last frame goes back to the
+	 * first
+	 * @since 1.1
+	 */
+	public boolean isLooping() {
+		return loop;
+	}
+
+	/**
+	 * Selects whether stepping past the last frame goes back to the first.
+	 * @param loop - {@code true} to loop
+	 * @since 1.1
+	 */
+	public void setLooping(boolean loop) {
+		this.loop = loop;
+	}
+}
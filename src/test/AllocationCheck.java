@@ -0,0 +1,69 @@
+package test;
+
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.lang.management.ManagementFactory;
+
+import math.Vector2D;
+import noise.NoiseGenerator;
+import physics.Mover;
+import physics.MoverSystem;
+
+/**
+ * Runs the {@link Animation2} steering step without a window and prints how
+ * many bytes each frame allocates once the JIT has warmed up. The steady state
+ * should report {@code 0}.
+ */
+public class AllocationCheck {
+	public static int AMOUNT = 10_000;
+	public static int WARMUP = 2_000;
+	public static int FRAMES = 1_000;
+
+	private final Mover list[] = new Mover[AMOUNT];
+	private final NoiseGenerator noise = new NoiseGenerator(42);
+	private final Vector2D dir = new Vector2D(0, 0);
+	private final Rectangle2D bounds = new Rectangle2D.Double();
+	private final Point target = new Point(Animation2.WIDTH / 2, Animation2.HEIGHT / 2);
+
+	public AllocationCheck(boolean views) {
+		MoverSystem movers = new MoverSystem(AMOUNT);
+		for (int i = 0; i < AMOUNT; i++) {
+			double x = Animation2.WIDTH * Math.random();
+			double y = Animation2.HEIGHT * Math.random();
+			list[i] = views ? movers.get(movers.add(x, y, Animation2.SIZE, Animation2.SIZE))
+					: new Mover(x, y, Animation2.SIZE, Animation2.SIZE);
+		}
+	}
+
+	public void frame() {
+		for (Mover m : list) {
+			Vector2D.sub(target, m.getLocation(), dir);
+			dir.normalize();
+			dir.mult(Math.abs(noise.noise(m.getX(), m.getY())));
+			m.applyForce(dir);
+
+			m.update();
+			m.checkEdges(Animation2.WIDTH, Animation2.HEIGHT);
+			m.getBounds2D(bounds);
+		}
+	}
+
+	public long bytesPerFrame() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP; i++) {
+			frame();
+		}
+		long before = threads.getThreadAllocatedBytes(id);
+		for (int i = 0; i < FRAMES; i++) {
+			frame();
+		}
+		long after = threads.getThreadAllocatedBytes(id);
+		return (after - before) / FRAMES;
+	}
+
+	public static void main(String[] args) {
+		System.out.println("Mover:       " + new AllocationCheck(false).bytesPerFrame() + " bytes/frame");
+		System.out.println("MoverSystem: " + new AllocationCheck(true).bytesPerFrame() + " bytes/frame");
+	}
+}
@@ -1,18 +1,24 @@
 package test;
 
 import java.awt.BorderLayout;
-import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.MouseInfo;
 import java.awt.Point;
+import java.awt.geom.Ellipse2D;
 
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 
 import animation.Animation;
 import animation.AnimationFrame;
-import math.Vector2D;
-import noise.NoiseGenerator;
-import physics.Mover;
+import animation.ColorCache;
+import animation.RenderSnapshot;
+import animation.SnapshotBuffer;
+import animation.SpriteCache;
+import animation.TiledRasterizer;
+import animation.Viewport;
+import animation.ViewportRenderer;
+import benchmark.SteeringSimulation;
 
 public class Animation2 extends Animation {
 	private static final long serialVersionUID = -4566726150376732219L;
@@ -20,56 +26,112 @@ public class Animation2 extends Animation {
 	public static int WIDTH = 1000;
 	public static int HEIGHT = 800;
 	public static int SIZE = 10;
+	public static boolean RASTERIZE = false;
+	public static boolean SPRITES = false;
+	public static boolean ACTIVE = false;
+	public static boolean FIXED_TIMESTEP = false;
+	public static boolean CULL = true;
 
-	private Mover list[] = new Mover[AMOUNT];
-	private NoiseGenerator noise;
+	private SteeringSimulation simulation;
 	private AnimationFrame frame;
 	private JLabel labelFPS;
+	private TiledRasterizer rasterizer;
+	private SpriteCache sprites;
+	private final SnapshotBuffer snapshots = new SnapshotBuffer(AMOUNT);
+	private final Ellipse2D.Double oval = new Ellipse2D.Double();
+	private final ColorCache colors = new ColorCache();
+	private final Viewport viewport = new Viewport();
+	private final ViewportRenderer viewportRenderer = new ViewportRenderer();
 	public Animation2() {
 		super();
+		if (FIXED_TIMESTEP) {
+			setLoopMode(LoopMode.FIXED_TIMESTEP);
+		}
 		labelFPS = new JLabel("test");
-		frame = new AnimationFrame("test2", this);
+		frame = new AnimationFrame("test2", this,
+				ACTIVE ? AnimationFrame.RenderMode.ACTIVE : AnimationFrame.RenderMode.PASSIVE);
 		frame.add(labelFPS, BorderLayout.NORTH);
 		
 		frame.setSize(WIDTH, HEIGHT);
-		noise = new NoiseGenerator();
-		for (int i = 0; i < AMOUNT; i++) {
-			Color color = new Color((float) (Math.random()), (float) (Math.random()), (float) (Math.random())); // random
-			list[i] = new Mover(WIDTH * Math.random(), HEIGHT * Math.random(), SIZE, SIZE);
-			list[i].setColor(color);
-		}
-
+		simulation = new SteeringSimulation(AMOUNT, WIDTH, HEIGHT, SIZE);
+		setSimulation(simulation);
+		snapshots.setIndexed(CULL);
+		setSnapshotBuffer(snapshots);
+		getMetrics().register("Animation2");
 	}
 
 	@Override
 	public void start() {
 		frame.start(BorderLayout.CENTER);
 		frame.setVisible(true);
+		viewport.attach(getCanvas() != null ? getCanvas() : this);
 	}
 
 	@Override
 	public void render(Graphics2D g) {
-		for (Mover m : list) {
-			g.setPaint(m.getColor());
-			g.fill(m);
+		RenderSnapshot snapshot = snapshots.acquire();
+		if (RASTERIZE) {
+			rasterize(g, snapshot);
+			return;
+		}
+		if (SPRITES && sprites == null) {
+			sprites = new SpriteCache();
+		}
+		if (CULL) {
+			viewportRenderer.setSprites(SPRITES ? sprites : null);
+			viewportRenderer.render(g, snapshot, viewport, getWidth(), getHeight());
+			return;
+		}
+		if (SPRITES) {
+			for (int i = 0, n = snapshot.size(); i < n; i++) {
+				sprites.fillOval(g, snapshot.getX(i), snapshot.getY(i), snapshot.getWidth(i), snapshot.getHeight(i),
+						snapshot.getColor(i));
+			}
+			return;
+		}
+		int argb = 0;
+		for (int i = 0, n = snapshot.size(); i < n; i++) {
+			if (i == 0 || argb != snapshot.getColor(i)) {
+				argb = snapshot.getColor(i);
+				g.setPaint(colors.get(argb));
+			}
+			oval.setFrame(snapshot.getX(i), snapshot.getY(i), snapshot.getWidth(i), snapshot.getHeight(i));
+			g.fill(oval);
+		}
+	}
+
+	/**
+	 * Draws the movers through a {@link TiledRasterizer} sized to the panel, at
+	 * the detail of the viewport renderer when culling, then blits its image
+	 * once.
+	 */
+	private void rasterize(Graphics2D g, RenderSnapshot snapshot) {
+		int width = Math.max(1, getWidth()), height = Math.max(1, getHeight());
+		if (rasterizer == null) {
+			rasterizer = new TiledRasterizer(width, height);
+		}
+		rasterizer.setSize(width, height);
+		rasterizer.setBackground(getBackground().getRGB());
+		if (CULL) {
+			viewportRenderer.render(rasterizer, snapshot, viewport, width, height);
+			rasterizer.draw(g);
+			return;
+		}
+		for (int i = 0, n = snapshot.size(); i < n; i++) {
+			rasterizer.fillOval(snapshot.getX(i), snapshot.getY(i), snapshot.getWidth(i), snapshot.getHeight(i),
+					snapshot.getColor(i));
 		}
+		rasterizer.draw(g);
 	}
 
 	@Override
 	public void update() {
-		super.update();
-		// TODO Auto-generated method stub
 		Point mouse = MouseInfo.getPointerInfo().getLocation();
-		Vector2D dir; // direction to mouse
-		for (Mover m : list) {
-			dir = Vector2D.sub(mouse, m.getLocation());
-			dir.normalize();
-			dir.mult(Math.abs(noise.noise(m.getX(), m.getY())));
-			m.setAcceleration(Vector2D.add(m.getAcceleration(), dir));
-
-			m.update();
-		}
-		labelFPS.setText(Float.toString(getFPS()));
+		SwingUtilities.convertPointFromScreen(mouse, getCanvas() != null ? getCanvas() : this);
+		simulation.setTarget(viewport.toWorldX(mouse.getX()), viewport.toWorldY(mouse.getY()));
+		super.update();
+		labelFPS.setText(String.format("%.1f fps, frame p99 %.2f ms, %d visible at %.2fx", getFPS(),
+				getMetrics().getFrameTimeP99(), viewportRenderer.getVisibleCount(), viewport.getScale()));
 	}
 
 	public static void main(String[] args) {
@@ -0,0 +1,62 @@
+package test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import animation.ParallelUpdater;
+import benchmark.SteeringSimulation;
+import noise.NoiseGenerator;
+import physics.MoverStore;
+import storage.Checkpoint;
+
+/**
+ * Runs the {@link Animation2} simulation without a display, saves a
+ * checkpoint, restores it into a fresh simulation and runs both further,
+ * printing how fast the checkpoint went and whether both runs still agree.
+ * <br/>
+ * Usage: {@code Checkpoint2 [movers] [steps] [compress]}, for example
+ * {@code Checkpoint2 1000000 100 true}.
+ */
+public class Checkpoint2 {
+
+	public static void main(String[] args) throws IOException {
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		boolean compress = args.length > 2 && Boolean.parseBoolean(args[2]);
+		Path path = Files.createTempFile("simulation", ".ckpt");
+
+		SteeringSimulation simulation = new SteeringSimulation(amount, Animation2.WIDTH, Animation2.HEIGHT,
+				Animation2.SIZE);
+		for (int s = 0; s < steps; s++) {
+			simulation.step();
+		}
+
+		long start = System.nanoTime();
+		long bytes = Checkpoint.save(path, simulation.getMovers(), simulation.getNoise(), steps, compress);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("saved %d movers, %.1f MB in %.1f ms: %.0f MB/s%n", amount, bytes / 1e6, seconds * 1e3,
+				amount * 72.0 / 1e6 / seconds);
+
+		SteeringSimulation restored = new SteeringSimulation(0, Animation2.WIDTH, Animation2.HEIGHT,
+				Animation2.SIZE, new NoiseGenerator(), new ParallelUpdater());
+		start = System.nanoTime();
+		long clock = Checkpoint.restore(path, restored.getMovers(), restored.getNoise());
+		seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("restored %d movers at step %d in %.1f ms: %.0f MB/s%n", restored.getMoverCount(), clock,
+				seconds * 1e3, amount * 72.0 / 1e6 / seconds);
+		Files.delete(path);
+
+		for (int s = 0; s < steps; s++) {
+			simulation.step();
+			restored.step();
+		}
+		MoverStore a = simulation.getMovers();
+		MoverStore b = restored.getMovers();
+		double error = 0;
+		for (int i = 0; i < amount; i++) {
+			error = Math.max(error, Math.abs(a.getX(i) - b.getX(i)) + Math.abs(a.getY(i) - b.getY(i)));
+		}
+		System.out.printf("after %d more steps the runs differ by at most %g%n", steps, error);
+	}
+}
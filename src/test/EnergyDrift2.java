@@ -0,0 +1,148 @@
+package test;
+
+import java.util.Random;
+
+import physics.AdaptiveIntegrator;
+import physics.Integrator;
+import physics.Mover;
+import physics.MoverSystem;
+import physics.RungeKutta4;
+import physics.SemiImplicitEuler;
+import physics.VelocityVerlet;
+
+/**
+ * Orbits movers around a fixed central mass with every {@link Integrator} and
+ * with {@link MoverSystem#update()}, at several timesteps, and prints how far
+ * the orbital energy of any mover drifted from its start, how many field
+ * evaluations it took, and how long.
+ * <br/>
+ * The movers start between {@code 100} and {@code 200} pixels out at
+ * {@code 0.9} to {@code 1.05} times the circular speed, so most orbits are
+ * somewhat eccentric, with periods of about {@code 150} to {@code 600}
+ * frames. {@link MoverSystem#update()} is itself a semi-implicit Euler step
+ * of one frame, so it only runs at a timestep of {@code 1}.
+ * <br/>
+ * Every run has a bound on its drift, about twice what it drifts with the
+ * default arguments, and the program exits with status {@code 1} if any run
+ * drifts past its bound.
+ * <br/>
+ * Usage: {@code EnergyDrift2 [movers] [frames]}, for example
+ * {@code EnergyDrift2 1000 20000}.
+ */
+public class EnergyDrift2 {
+
+	/**
+	 * The gravitational constant times the central mass.
+	 */
+	private static final double GM = 1000;
+
+	/**
+	 * The runs whose drift exceeded their bound.
+	 */
+	private static int failures;
+
+	public static void main(String[] args) {
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		double frames = args.length > 1 ? Double.parseDouble(args[1]) : 20_000;
+
+		System.out.printf("%d movers over %.0f frames%n", amount, frames);
+		System.out.printf("%-34s %5s %12s %12s %12s %9s%n", "integrator", "dt", "evaluations", "max drift", "bound",
+				"ms");
+		int limit = Mover.LIMIT;
+		Mover.LIMIT = Integer.MAX_VALUE; // orbits must not be slowed down
+		try {
+			run(null, new VelocityVerlet(), amount, frames / 10, 1, 1); // warm up
+			run(null, new RungeKutta4(), amount, frames / 10, 1, 1);
+			run("update", null, amount, frames, 1, 2e-2);
+			double[] euler = { 2e-2, 4e-2, 1e-1 }, verlet = { 1e-3, 3e-3, 1.2e-2 }, rk4 = { 2e-5, 5e-4, 1.5e-2 };
+			for (int k = 0; k < 3; k++) {
+				double dt = 1 << k;
+				run("semi-implicit Euler", new SemiImplicitEuler(), amount, frames, dt, euler[k]);
+				run("velocity Verlet", new VelocityVerlet(), amount, frames, dt, verlet[k]);
+				run("RK4", new RungeKutta4(), amount, frames, dt, rk4[k]);
+			}
+			AdaptiveIntegrator bounded = new AdaptiveIntegrator(new VelocityVerlet());
+			bounded.setMaxDisplacement(8);
+			run("Verlet, max displacement 8", bounded, amount, frames, 8, 3e-3);
+			AdaptiveIntegrator verletTolerant = new AdaptiveIntegrator(new VelocityVerlet());
+			verletTolerant.setRelativeTolerance(3e-3);
+			run("Verlet, relative tolerance 3e-3", verletTolerant, amount, frames, 8, 2e-3);
+			AdaptiveIntegrator rk4Tolerant = new AdaptiveIntegrator(new RungeKutta4());
+			rk4Tolerant.setRelativeTolerance(3e-3);
+			run("RK4, relative tolerance 3e-3", rk4Tolerant, amount, frames, 8, 5e-4);
+		} finally {
+			Mover.LIMIT = limit;
+		}
+		if (failures > 0) {
+			System.out.printf("%d runs drifted past their bound%n", failures);
+			System.exit(1);
+		}
+	}
+
+	private static void run(String name, Integrator integrator, int amount, double frames, double dt,
+			double bound) {
+		MoverSystem movers = new MoverSystem(amount);
+		double[] energy = new double[amount];
+		Random random = new Random(42);
+		for (int i = 0; i < amount; i++) {
+			double r = 100 + 100 * random.nextDouble();
+			double angle = 2 * Math.PI * random.nextDouble();
+			double speed = Math.sqrt(GM / r) * (0.9 + 0.15 * random.nextDouble());
+			int m = movers.add(r * Math.cos(angle), r * Math.sin(angle), 1, 1);
+			movers.setVelocity(m, -speed * Math.sin(angle), speed * Math.cos(angle));
+			energy[i] = energy(movers, i);
+		}
+		Integrator.Field field = EnergyDrift2::gravitate;
+		long evaluations = 0;
+		double drift = 0;
+		long start = System.nanoTime();
+		int steps = (int) Math.round(frames / dt);
+		for (int s = 1; s <= steps; s++) {
+			if (integrator == null) {
+				// the legacy update only takes whole frames
+				for (int f = 0; f < dt; f++) {
+					gravitate(movers);
+					movers.update();
+					evaluations++;
+				}
+			} else {
+				integrator.step(movers, field, dt);
+				evaluations += integrator.getEvaluations();
+			}
+			if (s % Math.max(1, steps / 100) == 0 || s == steps) {
+				for (int i = 0; i < amount; i++) {
+					drift = Math.max(drift, Math.abs((energy(movers, i) - energy[i]) / energy[i]));
+				}
+			}
+		}
+		if (name != null) {
+			boolean failed = !(drift <= bound);
+			if (failed) {
+				failures++;
+			}
+			System.out.printf("%-34s %5.0f %12d %12.3e %12.1e %9.1f%s%n", name, dt, evaluations, drift, bound,
+					(System.nanoTime() - start) / 1e6, failed ? "  FAILED" : "");
+		}
+	}
+
+	/**
+	 * Accelerates every mover towards the central mass at the origin.
+	 */
+	private static void gravitate(MoverSystem movers) {
+		for (int i = 0, n = movers.size(); i < n; i++) {
+			double x = movers.getX(i), y = movers.getY(i);
+			double r2 = x * x + y * y;
+			double f = -GM / (r2 * Math.sqrt(r2));
+			movers.applyForce(i, f * x, f * y);
+		}
+	}
+
+	/**
+	 * Returns the orbital energy per unit of mass of the specified mover.
+	 */
+	private static double energy(MoverSystem movers, int i) {
+		double x = movers.getX(i), y = movers.getY(i);
+		double vx = movers.getVelocityX(i), vy = movers.getVelocityY(i);
+		return 0.5 * (vx * vx + vy * vy) - GM / Math.sqrt(x * x + y * y);
+	}
+}
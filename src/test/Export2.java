@@ -0,0 +1,85 @@
+package test;
+
+import java.awt.Graphics2D;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import animation.Animation;
+import animation.AnimationFrame;
+import animation.FrameExporter;
+import animation.HeadlessRunner;
+import animation.RenderSnapshot;
+import animation.SnapshotBuffer;
+import animation.TiledRasterizer;
+import benchmark.SteeringSimulation;
+
+/**
+ * Exports frames of the {@link Animation2} simulation to image files without
+ * a display, with the target circling the center, and prints how fast it
+ * went.
+ * <br/>
+ * Usage: {@code Export2 [movers] [frames] [png | raw] [directory]}, for
+ * example {@code Export2 10000 300 png /tmp/frames}.
+ */
+public class Export2 extends Animation {
+	private static final long serialVersionUID = -2193761843072617781L;
+
+	private final SteeringSimulation simulation;
+	private final SnapshotBuffer snapshots;
+	private final TiledRasterizer rasterizer = new TiledRasterizer(Animation2.WIDTH, Animation2.HEIGHT);
+
+	public Export2(int amount) {
+		simulation = new SteeringSimulation(amount, Animation2.WIDTH, Animation2.HEIGHT, Animation2.SIZE);
+		snapshots = new SnapshotBuffer(amount);
+		setSimulation(simulation);
+		setSnapshotBuffer(snapshots);
+	}
+
+	/**
+	 * Shows the animation in a window instead, to preview what is exported.
+	 */
+	@Override
+	public void start() {
+		setLoopMode(LoopMode.FIXED_TIMESTEP);
+		AnimationFrame frame = new AnimationFrame("export", this, AnimationFrame.RenderMode.ACTIVE);
+		frame.setSize(Animation2.WIDTH, Animation2.HEIGHT);
+		frame.start();
+		frame.setVisible(true);
+	}
+
+	@Override
+	public void render(Graphics2D g) {
+		RenderSnapshot snapshot = snapshots.acquire();
+		rasterizer.setSize(Math.max(1, getWidth()), Math.max(1, getHeight()));
+		rasterizer.setBackground(getBackground().getRGB());
+		for (int i = 0, n = snapshot.size(); i < n; i++) {
+			rasterizer.fillOval(snapshot.getX(i), snapshot.getY(i), snapshot.getWidth(i), snapshot.getHeight(i),
+					snapshot.getColor(i));
+		}
+		rasterizer.draw(g);
+	}
+
+	@Override
+	public void update() {
+		double angle = getUpdateCount() * 0.02;
+		simulation.setTarget(Animation2.WIDTH / 2.0 * (1 + 0.5 * Math.cos(angle)),
+				Animation2.HEIGHT / 2.0 * (1 + 0.5 * Math.sin(angle)));
+		super.update();
+	}
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		FrameExporter.Format format = args.length > 2 ? FrameExporter.Format.valueOf(args[2].toUpperCase())
+				: FrameExporter.Format.PNG;
+		Path directory = args.length > 3 ? Paths.get(args[3]) : Files.createTempDirectory("frames");
+
+		FrameExporter exporter = new FrameExporter(directory, Animation2.WIDTH, Animation2.HEIGHT, format);
+		HeadlessRunner.Result result = exporter.export(new Export2(amount), frames);
+		System.out.printf("exported %d frames to %s with %d encoders: %.1f frames/s%n", frames, directory,
+				exporter.getEncoders(), result.getStepsPerSecond());
+	}
+}
@@ -0,0 +1,32 @@
+package test;
+
+import java.util.concurrent.TimeUnit;
+
+import animation.HeadlessRunner;
+import benchmark.SteeringSimulation;
+
+/**
+ * Runs the {@link Animation2} simulation without a display and prints its
+ * throughput.
+ * <br/>
+ * Usage: {@code Headless2 [movers] [steps | <seconds>s]}, for example
+ * {@code Headless2 100000 500} or {@code Headless2 100000 10s}.
+ */
+public class Headless2 {
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		String run = args.length > 1 ? args[1] : "10s";
+
+		SteeringSimulation simulation = new SteeringSimulation(amount, Animation2.WIDTH, Animation2.HEIGHT,
+				Animation2.SIZE);
+		HeadlessRunner runner = new HeadlessRunner(simulation);
+		runner.run(100); // warm up
+		HeadlessRunner.Result result = run.endsWith("s")
+				? runner.runFor(Long.parseLong(run.substring(0, run.length() - 1)), TimeUnit.SECONDS)
+				: runner.run(Long.parseLong(run));
+		System.out.println(result);
+		System.exit(0);
+	}
+}
@@ -0,0 +1,116 @@
+package test;
+
+import java.util.Random;
+
+import animation.ParallelUpdater;
+import benchmark.SteeringSimulation;
+import noise.NoiseGenerator;
+import physics.MoverStore;
+
+/**
+ * Runs the same movers at {@link MoverStore.Precision#FLOAT} and at the
+ * {@link MoverStore.Precision#DOUBLE} reference from the same start, and
+ * prints how far apart their locations are after a growing amount of steps,
+ * and how long each step took.
+ * <br/>
+ * Two workloads are compared: movers under a constant force bouncing off the
+ * edges, which only rounding separates, and the steering of
+ * {@link SteeringSimulation}, where the noise read at a slightly different
+ * location steers a mover slightly differently, so errors compound until
+ * single movers no longer match. The distance between the centroids of both
+ * runs shows whether the crowd as a whole still looks the same.
+ * <br/>
+ * Usage: {@code Precision2 [movers] [steps]}, for example
+ * {@code Precision2 100000 10000}.
+ */
+public class Precision2 {
+
+	private static final int WIDTH = 1000, HEIGHT = 800;
+
+	public static void main(String[] args) {
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+		System.out.printf("%d movers on %dx%d, %d and %d bytes per mover%n", amount, WIDTH, HEIGHT, 72, 40);
+		System.out.printf("%-10s %7s %12s %12s %12s %12s %10s %10s%n", "workload", "steps", "mean error",
+				"max error", "within 1px", "centroid", "double ms", "float ms");
+		MoverStore reference = MoverStore.create(MoverStore.Precision.DOUBLE, amount);
+		MoverStore single = MoverStore.create(MoverStore.Precision.FLOAT, amount);
+		Random random = new Random(42);
+		for (int i = 0; i < amount; i++) {
+			double x = random.nextDouble() * WIDTH, y = random.nextDouble() * HEIGHT;
+			double vx = random.nextDouble() * 4 - 2, vy = random.nextDouble() * 4 - 2;
+			reference.setVelocity(reference.add(x, y, 10, 10), vx, vy);
+			single.setVelocity(single.add(x, y, 10, 10), vx, vy);
+		}
+		run("drift", steps, reference, single, null, null);
+
+		SteeringSimulation a = new SteeringSimulation(amount, WIDTH, HEIGHT, 10, new NoiseGenerator(42),
+				new ParallelUpdater(1), MoverStore.Precision.DOUBLE);
+		SteeringSimulation b = new SteeringSimulation(amount, WIDTH, HEIGHT, 10, new NoiseGenerator(42),
+				new ParallelUpdater(1), MoverStore.Precision.FLOAT);
+		for (int i = 0; i < amount; i++) {
+			b.getMovers().setLocation(i, a.getMovers().getX(i), a.getMovers().getY(i));
+		}
+		run("steering", steps, a.getMovers(), b.getMovers(), a, b);
+	}
+
+	/**
+	 * Steps both stores, or both simulations if given, and prints the errors
+	 * after every power of ten steps.
+	 */
+	private static void run(String name, int steps, MoverStore reference, MoverStore single,
+			SteeringSimulation a, SteeringSimulation b) {
+		long referenceTime = 0, singleTime = 0;
+		for (int s = 1; s <= steps; s++) {
+			long start = System.nanoTime();
+			step(reference, a);
+			long middle = System.nanoTime();
+			step(single, b);
+			long end = System.nanoTime();
+			referenceTime += middle - start;
+			singleTime += end - middle;
+			if (isReported(s) || s == steps) {
+				report(name, s, reference, single, referenceTime / 1e6 / s, singleTime / 1e6 / s);
+			}
+		}
+	}
+
+	private static void step(MoverStore movers, SteeringSimulation simulation) {
+		if (simulation != null) {
+			simulation.step();
+			return;
+		}
+		for (int i = 0, n = movers.size(); i < n; i++) {
+			movers.applyForce(i, 0.01, 0.02);
+		}
+		movers.update();
+		movers.checkEdges(WIDTH, HEIGHT);
+	}
+
+	private static boolean isReported(int step) {
+		while (step % 10 == 0) {
+			step /= 10;
+		}
+		return step == 1;
+	}
+
+	private static void report(String name, int step, MoverStore reference, MoverStore single, double referenceMs,
+			double singleMs) {
+		double sum = 0, max = 0, cx = 0, cy = 0;
+		int close = 0, n = reference.size();
+		for (int i = 0; i < n; i++) {
+			double dx = single.getX(i) - reference.getX(i), dy = single.getY(i) - reference.getY(i);
+			cx += dx;
+			cy += dy;
+			double error = Math.sqrt(dx * dx + dy * dy);
+			sum += error;
+			max = Math.max(max, error);
+			if (error <= 1) {
+				close++;
+			}
+		}
+		System.out.printf("%-10s %7d %12.3e %12.3e %11.2f%% %12.3e %10.3f %10.3f%n", name, step, sum / n, max,
+				100.0 * close / n, Math.sqrt(cx * cx + cy * cy) / n, referenceMs, singleMs);
+	}
+}
@@ -0,0 +1,79 @@
+package test;
+
+import java.awt.Graphics2D;
+import java.lang.management.ManagementFactory;
+
+import animation.Animation;
+import animation.AnimationScheduler;
+import benchmark.SteeringSimulation;
+
+/**
+ * Hosts many small {@link Animation2} simulations without a display on one
+ * {@link AnimationScheduler}, each at its own frame rate, pauses half of them
+ * for a while, and prints how many updates each ran against its target and
+ * how late its ticks were.
+ * <br/>
+ * Usage: {@code Scheduler2 [animations] [movers] [seconds] [threads]}, for
+ * example {@code Scheduler2 48 1000 5 2}.
+ */
+public class Scheduler2 extends Animation {
+	private static final long serialVersionUID = 4031583716938212274L;
+
+	private final int fps;
+
+	public Scheduler2(int movers, int fps) {
+		this.fps = fps;
+		setLoopMode(LoopMode.FIXED_TIMESTEP);
+		setFPS(fps);
+		setSimulation(new SteeringSimulation(movers, Animation2.WIDTH, Animation2.HEIGHT, Animation2.SIZE));
+	}
+
+	@Override
+	public void start() {
+		new Thread(this).start();
+	}
+
+	@Override
+	public void render(Graphics2D g) {
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		System.setProperty("java.awt.headless", "true");
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 48;
+		int movers = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		AnimationScheduler scheduler = new AnimationScheduler(threads);
+		int[] rates = { 24, 30, 60, 120 };
+		Scheduler2[] animations = new Scheduler2[amount];
+		AnimationScheduler.Handle[] handles = new AnimationScheduler.Handle[amount];
+		for (int i = 0; i < amount; i++) {
+			animations[i] = new Scheduler2(movers, rates[i % rates.length]);
+			handles[i] = scheduler.schedule(animations[i]);
+		}
+		long pausedMillis = seconds * 1000L / 4;
+		Thread.sleep(pausedMillis);
+		for (int i = 0; i < amount; i += 2) {
+			animations[i].pause();
+		}
+		Thread.sleep(pausedMillis);
+		for (int i = 0; i < amount; i += 2) {
+			animations[i].resume();
+		}
+		Thread.sleep(seconds * 1000L - 2 * pausedMillis);
+		scheduler.shutdown();
+
+		System.out.printf("%d animations of %d movers on %d timer threads, %d live threads%n", amount, movers,
+				threads, ManagementFactory.getThreadMXBean().getThreadCount());
+		for (int i = 0; i < Math.min(amount, 8); i++) {
+			Scheduler2 animation = animations[i];
+			double target = animation.fps * (i % 2 == 0 ? seconds - pausedMillis / 1000.0 : seconds);
+			System.out.printf("  #%d %3d fps%s: %5d updates of %5.0f, %d dropped, tick latency %s%n", i,
+					animation.fps, i % 2 == 0 ? " (paused)" : "         ", animation.getUpdateCount(), target,
+					animation.getDroppedUpdates(), handles[i].getLatency());
+		}
+		System.out.println("virtual threads available: " + AnimationScheduler.isVirtualThreadAvailable());
+		System.exit(0);
+	}
+}
@@ -0,0 +1,91 @@
+package test;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import animation.Animation;
+import animation.AnimationFrame;
+import animation.RenderSnapshot;
+import animation.SnapshotBuffer;
+import animation.TiledRasterizer;
+import benchmark.SteeringSimulation;
+import storage.TrajectoryRecorder;
+import storage.TrajectoryReplayer;
+
+/**
+ * Records the {@link Animation2} simulation without a display, then replays
+ * the recording in a window, or prints how fast both went when headless.
+ * <br/>
+ * Usage: {@code Trajectory2 [movers] [frames] [directory]}, for example
+ * {@code Trajectory2 10000 600 /tmp/run}.
+ */
+public class Trajectory2 extends Animation {
+	private static final long serialVersionUID = 6712029368431150921L;
+
+	private final SnapshotBuffer snapshots;
+	private final TiledRasterizer rasterizer = new TiledRasterizer(Animation2.WIDTH, Animation2.HEIGHT);
+
+	public Trajectory2(TrajectoryReplayer replayer) {
+		setLoopMode(LoopMode.FIXED_TIMESTEP);
+		snapshots = new SnapshotBuffer(replayer.getMoverCount());
+		setSimulation(replayer);
+		setSnapshotBuffer(snapshots);
+	}
+
+	@Override
+	public void start() {
+		AnimationFrame frame = new AnimationFrame("trajectory", this, AnimationFrame.RenderMode.ACTIVE);
+		frame.setSize(Animation2.WIDTH, Animation2.HEIGHT);
+		frame.start();
+		frame.setVisible(true);
+	}
+
+	@Override
+	public void render(Graphics2D g) {
+		RenderSnapshot snapshot = snapshots.acquire();
+		rasterizer.setSize(Math.max(1, getWidth()), Math.max(1, getHeight()));
+		for (int i = 0, n = snapshot.size(); i < n; i++) {
+			rasterizer.fillOval(snapshot.getX(i), snapshot.getY(i), snapshot.getWidth(i), snapshot.getHeight(i),
+					snapshot.getColor(i));
+		}
+		rasterizer.draw(g);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int amount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+		Path directory = args.length > 2 ? Paths.get(args[2]) : Files.createTempDirectory("trajectory");
+
+		SteeringSimulation simulation = new SteeringSimulation(amount, Animation2.WIDTH, Animation2.HEIGHT,
+				Animation2.SIZE);
+		long start = System.nanoTime();
+		try (TrajectoryRecorder recorder = new TrajectoryRecorder(directory, simulation.getMovers())) {
+			for (int f = 0; f < frames; f++) {
+				simulation.setTarget(Animation2.WIDTH / 2.0 * (1 + Math.cos(f * 0.02)), Animation2.HEIGHT / 2.0);
+				simulation.step();
+				recorder.record();
+			}
+		}
+		System.out.printf("recorded %d frames of %d movers to %s in %.1f ms%n", frames, amount, directory,
+				(System.nanoTime() - start) / 1e6);
+
+		TrajectoryReplayer replayer = new TrajectoryReplayer(directory);
+		if (GraphicsEnvironment.isHeadless()) {
+			RenderSnapshot snapshot = new RenderSnapshot(amount);
+			start = System.nanoTime();
+			for (long f = replayer.getFrameCount() - 1; f >= 0; f--) {
+				replayer.seek(f);
+				snapshot.clear();
+				replayer.snapshot(snapshot);
+			}
+			System.out.printf("replayed %d frames backwards in %.1f ms%n", replayer.getFrameCount(),
+					(System.nanoTime() - start) / 1e6);
+			return;
+		}
+		new Trajectory2(replayer).start();
+	}
+}